@@ -0,0 +1,250 @@
+package concurrent;
+
+import exceptions.InterpolationException;
+import functions.AbstractTabulatedFunction;
+import functions.DoubleBiConsumer;
+import functions.IndexedAccess;
+import functions.MathFunction;
+import functions.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Табулированная функция на массивах с атомарным изменением значений y без блокировок.
+ * Сетка x неизменна; y хранятся как биты double в long[] и меняются через VarHandle:
+ * setY - volatile-запись, updateY - цикл compareAndSet по одному элементу.
+ * Поэтому параллельные операции чтение-изменение-запись над разными точками не мешают
+ * друг другу, а над одной точкой не теряют обновлений
+ */
+public class AtomicArrayTabulatedFunction extends AbstractTabulatedFunction implements IndexedAccess {
+    private static final Logger logger = LoggerFactory.getLogger(AtomicArrayTabulatedFunction.class);
+
+    private static final VarHandle Y_BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final double[] xValues;
+    private final long[] yBits;
+
+    public AtomicArrayTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues == null || yValues == null) {
+            logger.error("Один из массивов равен null");
+            throw new NullPointerException("Arrays must not be null");
+        }
+        if (xValues.length < 2) {
+            logger.error("Недостаточно точек: {}", xValues.length);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        checkLengthIsTheSame(xValues, yValues);
+        checkSorted(xValues);
+
+        this.xValues = Arrays.copyOf(xValues, xValues.length);
+        this.yBits = new long[yValues.length];
+        for (int i = 0; i < yValues.length; i++) {
+            yBits[i] = Double.doubleToRawLongBits(yValues[i]);
+        }
+        logger.debug("Создан AtomicArrayTabulatedFunction с {} точками", xValues.length);
+    }
+
+    public AtomicArrayTabulatedFunction(MathFunction func, double xFrom, double xTo, int count) {
+        if (func == null) {
+            logger.error("Функция равна null");
+            throw new NullPointerException("Function must not be null");
+        }
+        if (count < 2) {
+            logger.error("Недостаточно точек: {}", count);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        if (xFrom >= xTo) {
+            logger.error("Некорректный диапазон: xFrom={} >= xTo={}", xFrom, xTo);
+            throw new IllegalArgumentException("xFrom must be less than xTo");
+        }
+
+        this.xValues = new double[count];
+        this.yBits = new long[count];
+        double step = (xTo - xFrom) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            xValues[i] = xFrom + i * step;
+            yBits[i] = Double.doubleToRawLongBits(func.apply(xValues[i]));
+        }
+        logger.debug("Создан AtomicArrayTabulatedFunction из функции с {} точками", count);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= xValues.length) {
+            logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, xValues.length - 1);
+            throw new IllegalArgumentException("Index out of bounds: " + index);
+        }
+    }
+
+    private double y(int index) {
+        return Double.longBitsToDouble((long) Y_BITS.getVolatile(yBits, index));
+    }
+
+    /**
+     * Атомарно заменяет y[index] на operator(y[index]) и возвращает новое значение.
+     * При гонке с другим изменением той же точки operator вызывается повторно,
+     * поэтому он не должен иметь побочных эффектов
+     */
+    public double updateY(int index, DoubleUnaryOperator operator) {
+        checkIndex(index);
+        while (true) {
+            long currentBits = (long) Y_BITS.getVolatile(yBits, index);
+            double updated = operator.applyAsDouble(Double.longBitsToDouble(currentBits));
+            if (Y_BITS.compareAndSet(yBits, index, currentBits, Double.doubleToRawLongBits(updated))) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Атомарно применяет operator к каждой точке по отдельности.
+     * Весь проход не атомарен: читатели могут увидеть часть точек уже измененными
+     */
+    public void updateAllY(DoubleUnaryOperator operator) {
+        updateAllY(0, xValues.length, operator);
+    }
+
+    /**
+     * То же, что updateAllY, для индексов [from, to)
+     */
+    public void updateAllY(int from, int to, DoubleUnaryOperator operator) {
+        if (from < 0 || to > xValues.length || from > to) {
+            logger.error("Некорректный диапазон индексов: [{}, {}) при count={}", from, to, xValues.length);
+            throw new IllegalArgumentException("Invalid index range: [" + from + ", " + to + ")");
+        }
+        for (int i = from; i < to; i++) {
+            while (true) {
+                long currentBits = (long) Y_BITS.getVolatile(yBits, i);
+                long updatedBits = Double.doubleToRawLongBits(operator.applyAsDouble(Double.longBitsToDouble(currentBits)));
+                if (Y_BITS.compareAndSet(yBits, i, currentBits, updatedBits)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    public int getCount() {
+        return xValues.length;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return xValues[index];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setY(int index, double value) {
+        checkIndex(index);
+        Y_BITS.setVolatile(yBits, index, Double.doubleToRawLongBits(value));
+    }
+
+    public int indexOfX(double x) {
+        int index = Arrays.binarySearch(xValues, x);
+        return index >= 0 ? index : -1;
+    }
+
+    public int indexOfY(double y) {
+        for (int i = 0; i < xValues.length; i++) {
+            if (Double.compare(y(i), y) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double leftBound() {
+        return xValues[0];
+    }
+
+    public double rightBound() {
+        return xValues[xValues.length - 1];
+    }
+
+    protected int floorIndexOfX(double x) {
+        int count = xValues.length;
+        if (x < xValues[0]) {
+            return 0;
+        }
+        if (x >= xValues[count - 1]) {
+            return count - 2;
+        }
+        return floorIndexFromSearch(Arrays.binarySearch(xValues, x), count);
+    }
+
+    protected double extrapolateLeft(double x) {
+        return interpolate(x, xValues[0], xValues[1], y(0), y(1));
+    }
+
+    protected double extrapolateRight(double x) {
+        int count = xValues.length;
+        return interpolate(x, xValues[count - 2], xValues[count - 1], y(count - 2), y(count - 1));
+    }
+
+    protected double interpolate(double x, int floorIndex) {
+        if (floorIndex < 0 || floorIndex >= xValues.length - 1) {
+            logger.error("Некорректный floorIndex: {} (допустимо: 0..{})", floorIndex, xValues.length - 2);
+            throw new IllegalArgumentException("Invalid floor index: " + floorIndex);
+        }
+
+        double leftX = xValues[floorIndex], rightX = xValues[floorIndex + 1];
+        if (x < leftX || x > rightX) {
+            logger.error("x={} вне интервала интерполяции [{}, {}]", x, leftX, rightX);
+            throw new InterpolationException("x is outside the interpolation interval [" + leftX + ", " + rightX + "]");
+        }
+        return interpolate(x, leftX, rightX, y(floorIndex), y(floorIndex + 1));
+    }
+
+    public double apply(double x) {
+        int count = xValues.length;
+        if (x < xValues[0]) {
+            return extrapolateLeft(x);
+        }
+        if (x > xValues[count - 1]) {
+            return extrapolateRight(x);
+        }
+
+        int floorIndex = floorIndexOfX(x);
+        if (xValues[floorIndex] == x) {
+            return y(floorIndex);
+        }
+        if (xValues[floorIndex + 1] == x) {
+            return y(floorIndex + 1);
+        }
+        return interpolate(x, xValues[floorIndex], xValues[floorIndex + 1], y(floorIndex), y(floorIndex + 1));
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        for (int i = 0; i < xValues.length; i++) {
+            action.accept(xValues[i], y(i));
+        }
+    }
+
+    public Iterator<Point> iterator() {
+        return new Iterator<Point>() {
+            private int i = 0;
+
+            public boolean hasNext() {
+                return i < xValues.length;
+            }
+
+            public Point next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Point point = new Point(xValues[i], y(i));
+                i++;
+                return point;
+            }
+        };
+    }
+}
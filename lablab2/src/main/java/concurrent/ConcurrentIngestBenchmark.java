@@ -0,0 +1,91 @@
+package concurrent;
+
+import functions.GrowableArrayTabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Потоковая вставка точек из нескольких потоков в одну функцию:
+ * GrowableArrayTabulatedFunction под общей блокировкой SynchronizedTabulatedFunction
+ * против ConcurrentSkipListTabulatedFunction. Каждый поток вставляет свою долю
+ * из SAMPLES случайных x, одновременно один поток читает apply
+ */
+public class ConcurrentIngestBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentIngestBenchmark.class);
+
+    private static final int SAMPLES = 50_000;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    private interface Ingest {
+        void insert(double x, double y);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        logger.info("Запуск ConcurrentIngestBenchmark, доступно процессоров: {}",
+                Runtime.getRuntime().availableProcessors());
+
+        for (int threads : THREADS) {
+            SynchronizedTabulatedFunction locked = new SynchronizedTabulatedFunction(
+                    new GrowableArrayTabulatedFunction(new double[]{-1.0, 2.0}, new double[]{0.0, 0.0}));
+            GrowableArrayTabulatedFunction inner = (GrowableArrayTabulatedFunction) locked.delegate();
+            double monitor = measure(threads, (x, y) -> locked.doSynchronously(f -> {
+                inner.insert(x, y);
+                return null;
+            }), locked::apply);
+
+            ConcurrentSkipListTabulatedFunction skipList = new ConcurrentSkipListTabulatedFunction(
+                    new double[]{-1.0, 2.0}, new double[]{0.0, 0.0});
+            double concurrent = measure(threads, skipList::insert, skipList::apply);
+
+            System.out.printf("потоков: %d  synchronized: %6.2f млн/с  skip list: %6.2f млн/с%n",
+                    threads, monitor, concurrent);
+        }
+
+        logger.info("ConcurrentIngestBenchmark завершил работу");
+    }
+
+    // Вставок в секунду, в миллионах
+    private static double measure(int threads, Ingest ingest, DoubleUnaryOperator reader)
+            throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        int perThread = SAMPLES / threads;
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int k = 0; k < perThread; k++) {
+                    double x = random.nextDouble();
+                    ingest.insert(x, x * x);
+                }
+            }, "ingest-" + t));
+        }
+        Thread readThread = new Thread(() -> {
+            double sink = 0;
+            SplittableRandom random = new SplittableRandom(42);
+            while (!Thread.currentThread().isInterrupted()) {
+                sink += reader.applyAsDouble(random.nextDouble());
+            }
+            if (Double.isNaN(sink)) {
+                System.out.println(sink);
+            }
+        }, "reader");
+
+        readThread.start();
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double rate = perThread * threads / ((System.nanoTime() - start) / 1e3);
+        readThread.interrupt();
+        readThread.join();
+        return rate;
+    }
+}
@@ -0,0 +1,460 @@
+package concurrent;
+
+import functions.AbstractTabulatedFunction;
+import functions.DoubleBiConsumer;
+import functions.Insertable;
+import functions.Point;
+import functions.Removable;
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Табулированная функция на конкурентном списке с пропусками с ключами x типа double.
+ * Вставка и удаление блокируют только соседние узлы (ленивый список с пропусками
+ * Херлихи-Шавита), поэтому потоки, добавляющие точки в разные места, не мешают друг другу.
+ * apply, поиск по x и обход не берут блокировок и ничего не выделяют.
+ *
+ * Чтения слабо согласованы: точка, вставленная или удаленная одновременно с чтением,
+ * может быть как учтена, так и нет; интерполяция идет по паре точек, соседних
+ * в момент чтения ссылки между ними. Методы по индексу (getX, getY, setY, remove)
+ * проходят список с начала - O(n); для потоковых вставок предназначены insert, removeX и apply
+ */
+public class ConcurrentSkipListTabulatedFunction implements TabulatedFunction, Insertable, Removable {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentSkipListTabulatedFunction.class);
+
+    private static final int MAX_LEVEL = 32;
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    private static final class Node {
+        final double x;
+        volatile double y;
+        final Node[] next;
+        final ReentrantLock lock = new ReentrantLock();
+        // Узел логически удален, но, возможно, еще не выключен из списка
+        volatile boolean marked;
+        // Узел включен на всех своих уровнях
+        volatile boolean fullyLinked;
+
+        Node(double x, double y, int levels) {
+            this.x = x;
+            this.y = y;
+            this.next = new Node[levels];
+        }
+
+        int levels() {
+            return next.length;
+        }
+
+        Node next(int level) {
+            return (Node) NEXT.getAcquire(next, level);
+        }
+
+        void setNext(int level, Node node) {
+            NEXT.setRelease(next, level, node);
+        }
+    }
+
+    private final Node head = new Node(Double.NEGATIVE_INFINITY, Double.NaN, MAX_LEVEL);
+    private final Node tail = new Node(Double.POSITIVE_INFINITY, Double.NaN, MAX_LEVEL);
+    private final LongAdder count = new LongAdder();
+
+    public ConcurrentSkipListTabulatedFunction() {
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.next[level] = tail;
+        }
+        head.fullyLinked = true;
+        tail.fullyLinked = true;
+        logger.debug("Создан пустой ConcurrentSkipListTabulatedFunction");
+    }
+
+    public ConcurrentSkipListTabulatedFunction(double[] xValues, double[] yValues) {
+        this();
+        if (xValues == null || yValues == null) {
+            logger.error("Один из массивов равен null");
+            throw new NullPointerException("Arrays must not be null");
+        }
+        if (xValues.length < 2) {
+            logger.error("Недостаточно точек: {}", xValues.length);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        AbstractTabulatedFunction.checkLengthIsTheSame(xValues, yValues);
+        AbstractTabulatedFunction.checkSorted(xValues);
+
+        for (int i = 0; i < xValues.length; i++) {
+            insertPoint(xValues[i], yValues[i]);
+        }
+        logger.debug("Создан ConcurrentSkipListTabulatedFunction с {} точками", xValues.length);
+    }
+
+    private static int randomLevels() {
+        // Вероятность уровня k - 2^-k
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1))) + 1;
+    }
+
+    // Заполняет preds/succs соседями x на каждом уровне; возвращает верхний уровень узла с x или -1
+    private int find(double x, Node[] preds, Node[] succs) {
+        int found = -1;
+        Node pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node curr = pred.next(level);
+            while (curr != tail && curr.x < x) {
+                pred = curr;
+                curr = pred.next(level);
+            }
+            if (found == -1 && curr != tail && curr.x == x) {
+                found = level;
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return found;
+    }
+
+    // Последний узел с x' <= x (или x' < x при strict); head, если такого нет
+    private Node floorNode(double x, boolean strict) {
+        Node pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node curr = pred.next(level);
+            while (curr != tail && (curr.x < x || !strict && curr.x == x)) {
+                pred = curr;
+                curr = pred.next(level);
+            }
+        }
+        return pred;
+    }
+
+    private static void checkX(double x) {
+        if (Double.isNaN(x) || Double.isInfinite(x)) {
+            logger.error("Некорректное значение x: {}", x);
+            throw new IllegalArgumentException("x must be finite: " + x);
+        }
+    }
+
+    public void insert(double x, double y) {
+        insertPoint(x, y);
+    }
+
+    // Общая часть insert и конструктора: конструктор не вызывает переопределяемый метод
+    private void insertPoint(double x, double y) {
+        checkX(x);
+        int topLevel = randomLevels();
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+
+        while (true) {
+            int found = find(x, preds, succs);
+            if (found != -1) {
+                Node existing = succs[found];
+                if (!existing.marked) {
+                    while (!existing.fullyLinked) {
+                        Thread.onSpinWait();
+                    }
+                    existing.lock.lock();
+                    try {
+                        if (!existing.marked) {
+                            existing.y = y;
+                            return;
+                        }
+                    } finally {
+                        existing.lock.unlock();
+                    }
+                }
+                // Узел удаляется - повторяем поиск, пока он не будет выключен
+                continue;
+            }
+
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level < topLevel; level++) {
+                    Node pred = preds[level];
+                    Node succ = succs[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && !succ.marked && pred.next(level) == succ;
+                }
+                if (!valid) {
+                    continue;
+                }
+
+                Node node = new Node(x, y, topLevel);
+                for (int level = 0; level < topLevel; level++) {
+                    node.next[level] = succs[level];
+                }
+                for (int level = 0; level < topLevel; level++) {
+                    preds[level].setNext(level, node);
+                }
+                node.fullyLinked = true;
+                count.increment();
+                return;
+            } finally {
+                for (int level = 0; level <= highestLocked; level++) {
+                    preds[level].lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Удаляет точку с заданным x
+     * @return true, если точка была и удалена этим вызовом
+     */
+    public boolean removeX(double x) {
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        Node victim = null;
+        boolean marked = false;
+
+        while (true) {
+            int found = find(x, preds, succs);
+            if (!marked) {
+                if (found == -1) {
+                    return false;
+                }
+                victim = succs[found];
+                if (!victim.fullyLinked || victim.marked || victim.levels() - 1 != found) {
+                    // Узел еще вставляется на верхних уровнях или уже удаляется другим потоком
+                    if (victim.marked) {
+                        return false;
+                    }
+                    Thread.onSpinWait();
+                    continue;
+                }
+                victim.lock.lock();
+                if (victim.marked) {
+                    victim.lock.unlock();
+                    return false;
+                }
+                victim.marked = true;
+                marked = true;
+            }
+
+            int topLevel = victim.levels();
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level < topLevel; level++) {
+                    Node pred = preds[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && pred.next(level) == victim;
+                }
+                if (!valid) {
+                    continue;
+                }
+
+                for (int level = topLevel - 1; level >= 0; level--) {
+                    preds[level].setNext(level, victim.next(level));
+                }
+                victim.lock.unlock();
+                count.decrement();
+                return true;
+            } finally {
+                for (int level = 0; level <= highestLocked; level++) {
+                    preds[level].lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Наибольший x в таблице, не превосходящий заданного, или NaN, если такого нет
+     */
+    public double floorX(double x) {
+        Node node = floorNode(x, false);
+        return node == head ? Double.NaN : node.x;
+    }
+
+    /**
+     * Значение y в точке x таблицы или NaN, если такой точки нет
+     */
+    public double getYAt(double x) {
+        Node node = floorNode(x, false);
+        return node != head && node.x == x ? node.y : Double.NaN;
+    }
+
+    public int getCount() {
+        return (int) count.sum();
+    }
+
+    // i-й узел нижнего уровня, пропуская удаляемые
+    private Node nodeAt(int index) {
+        if (index >= 0) {
+            int i = 0;
+            for (Node node = head.next(0); node != tail; node = node.next(0)) {
+                if (!node.marked && i++ == index) {
+                    return node;
+                }
+            }
+        }
+        logger.error("Индекс вне диапазона: {}", index);
+        throw new IllegalArgumentException("Index out of bounds: " + index);
+    }
+
+    public double getX(int index) {
+        return nodeAt(index).x;
+    }
+
+    public double getY(int index) {
+        return nodeAt(index).y;
+    }
+
+    public void setY(int index, double value) {
+        insert(nodeAt(index).x, value);
+    }
+
+    public void remove(int index) {
+        if (!removeX(nodeAt(index).x)) {
+            logger.error("Точка с индексом {} была удалена другим потоком", index);
+            throw new IllegalStateException("Point " + index + " was removed concurrently");
+        }
+    }
+
+    public int indexOfX(double x) {
+        int i = 0;
+        for (Node node = head.next(0); node != tail && node.x <= x; node = node.next(0)) {
+            if (!node.marked) {
+                if (node.x == x) {
+                    return i;
+                }
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOfY(double y) {
+        int i = 0;
+        for (Node node = head.next(0); node != tail; node = node.next(0)) {
+            if (!node.marked) {
+                if (Double.compare(node.y, y) == 0) {
+                    return i;
+                }
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private Node first() {
+        Node node = head.next(0);
+        if (node == tail) {
+            logger.error("Обращение к границе пустой функции");
+            throw new IllegalStateException("Tabulated function is empty");
+        }
+        return node;
+    }
+
+    private Node last() {
+        Node node = floorNode(Double.POSITIVE_INFINITY, true);
+        if (node == head) {
+            logger.error("Обращение к границе пустой функции");
+            throw new IllegalStateException("Tabulated function is empty");
+        }
+        return node;
+    }
+
+    public double leftBound() {
+        return first().x;
+    }
+
+    public double rightBound() {
+        return last().x;
+    }
+
+    private static double interpolate(double x, Node left, Node right) {
+        if (left.x == right.x) {
+            return (left.y + right.y) / 2.0;
+        }
+        double leftY = left.y;
+        return leftY + (right.y - leftY) * (x - left.x) / (right.x - left.x);
+    }
+
+    private static IllegalStateException tooFewPoints() {
+        logger.error("Для интерполяции нужно хотя бы 2 точки");
+        return new IllegalStateException("At least 2 points are required for interpolation");
+    }
+
+    public double apply(double x) {
+        Node left = floorNode(x, false);
+        if (left == head) {
+            // Левее таблицы - экстраполяция по двум первым точкам
+            left = head.next(0);
+            Node right = left == tail ? tail : left.next(0);
+            if (right == tail) {
+                throw tooFewPoints();
+            }
+            return interpolate(x, left, right);
+        }
+        if (left.x == x) {
+            return left.y;
+        }
+
+        Node right = left.next(0);
+        if (right == tail) {
+            // Правее таблицы - экстраполяция по двум последним точкам
+            Node previous = floorNode(left.x, true);
+            if (previous == head) {
+                throw tooFewPoints();
+            }
+            return interpolate(x, previous, left);
+        }
+        return interpolate(x, left, right);
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        for (Node node = head.next(0); node != tail; node = node.next(0)) {
+            if (!node.marked) {
+                action.accept(node.x, node.y);
+            }
+        }
+    }
+
+    /**
+     * Слабо согласованный итератор: не бросает ConcurrentModificationException
+     * и может как увидеть, так и не увидеть одновременные изменения
+     */
+    public Iterator<Point> iterator() {
+        return new Iterator<Point>() {
+            private Node node = advance(head);
+
+            private Node advance(Node from) {
+                Node next = from.next(0);
+                while (next != tail && next.marked) {
+                    next = next.next(0);
+                }
+                return next;
+            }
+
+            public boolean hasNext() {
+                return node != tail;
+            }
+
+            public Point next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Point point = new Point(node.x, node.y);
+                node = advance(node);
+                return point;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName()).append(" size = ").append(getCount());
+        forEachPoint((x, y) -> sb.append("\n[").append(x).append("; ").append(y).append("]"));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,387 @@
+package concurrent;
+
+import exceptions.InterpolationException;
+import functions.AbstractTabulatedFunction;
+import functions.DoubleBiConsumer;
+import functions.GrowableArrayTabulatedFunction;
+import functions.IndexedAccess;
+import functions.Insertable;
+import functions.Point;
+import functions.Removable;
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Потокобезопасная табулированная функция с копированием при записи.
+ * Текущее состояние - неизменяемый снимок Snapshot, опубликованный через volatile-ссылку:
+ * читатели (apply, getX, итерация) работают со снимком без блокировок и без копирования.
+ * Каждая запись создает новый снимок и публикует его атомарно; записи выполняются
+ * по очереди. Несколько изменений выгоднее собрать в один update - тогда копирование одно.
+ *
+ * Для нескольких согласованных чтений подряд нужно взять snapshot() и читать из него:
+ * отдельные вызовы методов этой функции могут попасть в разные версии
+ */
+public class CopyOnWriteTabulatedFunction implements TabulatedFunction, Insertable, Removable {
+    private static final Logger logger = LoggerFactory.getLogger(CopyOnWriteTabulatedFunction.class);
+
+    private volatile Snapshot snapshot;
+    private final Object writeLock = new Object();
+
+    public CopyOnWriteTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues == null || yValues == null) {
+            logger.error("Один из массивов равен null");
+            throw new NullPointerException("Arrays must not be null");
+        }
+        if (xValues.length < 2) {
+            logger.error("Недостаточно точек: {}", xValues.length);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        AbstractTabulatedFunction.checkLengthIsTheSame(xValues, yValues);
+        AbstractTabulatedFunction.checkSorted(xValues);
+
+        this.snapshot = new Snapshot(xValues.clone(), yValues.clone(), 0);
+        logger.debug("Создан CopyOnWriteTabulatedFunction с {} точками", xValues.length);
+    }
+
+    public CopyOnWriteTabulatedFunction(TabulatedFunction function) {
+        double[] xValues = new double[function.getCount()];
+        double[] yValues = new double[function.getCount()];
+        function.forEachPoint(new DoubleBiConsumer() {
+            private int i = 0;
+
+            public void accept(double x, double y) {
+                xValues[i] = x;
+                yValues[i] = y;
+                i++;
+            }
+        });
+        if (xValues.length < 2) {
+            logger.error("Недостаточно точек: {}", xValues.length);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        this.snapshot = new Snapshot(xValues, yValues, 0);
+    }
+
+    /**
+     * Текущий неизменяемый снимок для согласованного чтения в несколько шагов
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Пакет изменений над рабочей копией функции
+     */
+    public interface Update {
+        void apply(GrowableArrayTabulatedFunction working);
+    }
+
+    /**
+     * Применяет пакет изменений к копии текущего снимка и публикует результат одной версией.
+     * Если пакет бросил исключение или оставил меньше 2 точек, опубликованное состояние не меняется
+     * @return опубликованный снимок
+     */
+    public Snapshot update(Update update) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            GrowableArrayTabulatedFunction working = new GrowableArrayTabulatedFunction(current.xValues, current.yValues);
+            update.apply(working);
+
+            int count = working.getCount();
+            if (count < 2) {
+                logger.error("Пакет изменений оставил {} точек, требуется минимум 2", count);
+                throw new IllegalStateException("At least 2 points are required, got " + count);
+            }
+            double[] xValues = new double[count];
+            double[] yValues = new double[count];
+            for (int i = 0; i < count; i++) {
+                xValues[i] = working.getX(i);
+                yValues[i] = working.getY(i);
+            }
+            return publish(new Snapshot(xValues, yValues, current.version + 1));
+        }
+    }
+
+    private Snapshot publish(Snapshot next) {
+        snapshot = next;
+        logger.debug("Опубликована версия {} с {} точками", next.version, next.getCount());
+        return next;
+    }
+
+    @Override
+    public void setY(int index, double value) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            current.checkIndex(index);
+            // Сетка не меняется, поэтому массив x разделяется между версиями
+            double[] yValues = current.yValues.clone();
+            yValues[index] = value;
+            publish(new Snapshot(current.xValues, yValues, current.version + 1));
+        }
+    }
+
+    @Override
+    public void insert(double x, double y) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int index = Arrays.binarySearch(current.xValues, x);
+            if (index >= 0) {
+                double[] yValues = current.yValues.clone();
+                yValues[index] = y;
+                publish(new Snapshot(current.xValues, yValues, current.version + 1));
+                return;
+            }
+
+            int insertIndex = -index - 1;
+            int count = current.xValues.length;
+            double[] xValues = new double[count + 1];
+            double[] yValues = new double[count + 1];
+            System.arraycopy(current.xValues, 0, xValues, 0, insertIndex);
+            System.arraycopy(current.yValues, 0, yValues, 0, insertIndex);
+            xValues[insertIndex] = x;
+            yValues[insertIndex] = y;
+            System.arraycopy(current.xValues, insertIndex, xValues, insertIndex + 1, count - insertIndex);
+            System.arraycopy(current.yValues, insertIndex, yValues, insertIndex + 1, count - insertIndex);
+            publish(new Snapshot(xValues, yValues, current.version + 1));
+        }
+    }
+
+    @Override
+    public void remove(int index) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            current.checkIndex(index);
+            int count = current.xValues.length;
+            if (count <= 2) {
+                logger.error("Нельзя удалить точку - требуется минимум 2 точки, текущее количество: {}", count);
+                throw new IllegalStateException("Cannot remove point - at least 2 points are required");
+            }
+
+            double[] xValues = new double[count - 1];
+            double[] yValues = new double[count - 1];
+            System.arraycopy(current.xValues, 0, xValues, 0, index);
+            System.arraycopy(current.yValues, 0, yValues, 0, index);
+            System.arraycopy(current.xValues, index + 1, xValues, index, count - index - 1);
+            System.arraycopy(current.yValues, index + 1, yValues, index, count - index - 1);
+            publish(new Snapshot(xValues, yValues, current.version + 1));
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return snapshot.getCount();
+    }
+
+    @Override
+    public double getX(int index) {
+        return snapshot.getX(index);
+    }
+
+    @Override
+    public double getY(int index) {
+        return snapshot.getY(index);
+    }
+
+    @Override
+    public int indexOfX(double x) {
+        return snapshot.indexOfX(x);
+    }
+
+    @Override
+    public int indexOfY(double y) {
+        return snapshot.indexOfY(y);
+    }
+
+    @Override
+    public double leftBound() {
+        return snapshot.leftBound();
+    }
+
+    @Override
+    public double rightBound() {
+        return snapshot.rightBound();
+    }
+
+    @Override
+    public double apply(double x) {
+        return snapshot.apply(x);
+    }
+
+    @Override
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        snapshot.applyAll(xs, from, to, out);
+    }
+
+    @Override
+    public void forEachPoint(DoubleBiConsumer action) {
+        snapshot.forEachPoint(action);
+    }
+
+    /**
+     * Итератор по снимку, актуальному на момент вызова; точки не копируются заранее
+     */
+    @Override
+    public Iterator<Point> iterator() {
+        return snapshot.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot.toString();
+    }
+
+    /**
+     * Неизменяемая версия функции. Массивы не меняются после публикации,
+     * поэтому снимок можно читать из любых потоков без синхронизации
+     */
+    public static final class Snapshot extends AbstractTabulatedFunction implements IndexedAccess {
+        private final double[] xValues;
+        private final double[] yValues;
+        private final long version;
+
+        private Snapshot(double[] xValues, double[] yValues, long version) {
+            this.xValues = xValues;
+            this.yValues = yValues;
+            this.version = version;
+        }
+
+        /**
+         * Номер версии: 0 у исходного состояния, +1 за каждую опубликованную запись
+         */
+        public long version() {
+            return version;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= xValues.length) {
+                logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, xValues.length - 1);
+                throw new IllegalArgumentException("Index out of bounds: " + index);
+            }
+        }
+
+        public int getCount() {
+            return xValues.length;
+        }
+
+        public double getX(int index) {
+            checkIndex(index);
+            return xValues[index];
+        }
+
+        public double getY(int index) {
+            checkIndex(index);
+            return yValues[index];
+        }
+
+        public void setY(int index, double value) {
+            logger.error("Попытка изменить неизменяемый снимок");
+            throw new UnsupportedOperationException("Snapshot is immutable");
+        }
+
+        public int indexOfX(double x) {
+            int index = Arrays.binarySearch(xValues, x);
+            return index >= 0 ? index : -1;
+        }
+
+        public int indexOfY(double y) {
+            for (int i = 0; i < yValues.length; i++) {
+                if (Double.compare(yValues[i], y) == 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public double leftBound() {
+            return xValues[0];
+        }
+
+        public double rightBound() {
+            return xValues[xValues.length - 1];
+        }
+
+        protected int floorIndexOfX(double x) {
+            int count = xValues.length;
+            if (x < xValues[0]) {
+                return 0;
+            }
+            if (x >= xValues[count - 1]) {
+                return count - 2;
+            }
+            return floorIndexFromSearch(Arrays.binarySearch(xValues, x), count);
+        }
+
+        protected double extrapolateLeft(double x) {
+            return interpolate(x, xValues[0], xValues[1], yValues[0], yValues[1]);
+        }
+
+        protected double extrapolateRight(double x) {
+            int count = xValues.length;
+            return interpolate(x, xValues[count - 2], xValues[count - 1], yValues[count - 2], yValues[count - 1]);
+        }
+
+        protected double interpolate(double x, int floorIndex) {
+            if (floorIndex < 0 || floorIndex >= xValues.length - 1) {
+                logger.error("Некорректный floorIndex: {} (допустимо: 0..{})", floorIndex, xValues.length - 2);
+                throw new IllegalArgumentException("Invalid floor index: " + floorIndex);
+            }
+
+            double leftX = xValues[floorIndex], rightX = xValues[floorIndex + 1];
+            if (x < leftX || x > rightX) {
+                logger.error("x={} вне интервала интерполяции [{}, {}]", x, leftX, rightX);
+                throw new InterpolationException("x is outside the interpolation interval [" + leftX + ", " + rightX + "]");
+            }
+            return interpolate(x, leftX, rightX, yValues[floorIndex], yValues[floorIndex + 1]);
+        }
+
+        public double apply(double x) {
+            int count = xValues.length;
+            if (x < xValues[0]) {
+                return extrapolateLeft(x);
+            }
+            if (x > xValues[count - 1]) {
+                return extrapolateRight(x);
+            }
+
+            int floorIndex = floorIndexOfX(x);
+            if (xValues[floorIndex] == x) {
+                return yValues[floorIndex];
+            }
+            if (xValues[floorIndex + 1] == x) {
+                return yValues[floorIndex + 1];
+            }
+            return interpolate(x, xValues[floorIndex], xValues[floorIndex + 1],
+                    yValues[floorIndex], yValues[floorIndex + 1]);
+        }
+
+        public void forEachPoint(DoubleBiConsumer action) {
+            for (int i = 0; i < xValues.length; i++) {
+                action.accept(xValues[i], yValues[i]);
+            }
+        }
+
+        public Iterator<Point> iterator() {
+            return new Iterator<Point>() {
+                private int i = 0;
+
+                public boolean hasNext() {
+                    return i < xValues.length;
+                }
+
+                public Point next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Point point = new Point(xValues[i], yValues[i]);
+                    i++;
+                    return point;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package concurrent;
+
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Атомарные операции над несколькими потокобезопасными функциями сразу.
+ * Блокировки SynchronizedTabulatedFunction (монитор) и StampedTabulatedFunction (StampedLock)
+ * захватываются в едином глобальном порядке - порядке создания оберток, - поэтому две
+ * транзакции над одними и теми же функциями, перечисленными в разном порядке, не могут
+ * взаимно заблокироваться. Остальные функции передаются в тело транзакции как есть.
+ *
+ * Тело получает обернутые функции в том же порядке, в каком они переданы, и должно работать
+ * только с ними: повторный вход в StampedTabulatedFunction из-под ее же блокировки записи
+ * заблокирует поток навсегда. Например, сумма двух общих функций без разрывов:
+ * FunctionTransaction.read(fs -> service.add(fs[0], fs[1]), a, b)
+ */
+public final class FunctionTransaction {
+    private static final Logger logger = LoggerFactory.getLogger(FunctionTransaction.class);
+
+    private static final AtomicLong LOCK_ORDER = new AtomicLong();
+
+    /**
+     * Тело транзакции
+     */
+    @FunctionalInterface
+    public interface Body<T> {
+        T apply(TabulatedFunction... functions);
+    }
+
+    private FunctionTransaction() {
+    }
+
+    static long nextLockOrder() {
+        return LOCK_ORDER.getAndIncrement();
+    }
+
+    /**
+     * Выполняет тело, не меняющее функции, на согласованном состоянии всех функций.
+     * Если все блокируемые функции - StampedTabulatedFunction, тело сначала выполняется
+     * оптимистично без блокировок и повторяется под блокировками чтения, только если
+     * за это время была запись; поэтому тело не должно иметь побочных эффектов
+     */
+    public static <T> T read(Body<? extends T> body, TabulatedFunction... functions) {
+        return execute(body, functions, false);
+    }
+
+    /**
+     * Выполняет тело под исключительными блокировками всех функций; тело может их изменять
+     */
+    public static <T> T write(Body<? extends T> body, TabulatedFunction... functions) {
+        return execute(body, functions, true);
+    }
+
+    private static <T> T execute(Body<? extends T> body, TabulatedFunction[] functions, boolean exclusive) {
+        if (body == null || functions == null) {
+            throw new NullPointerException("Body and functions must not be null");
+        }
+
+        TabulatedFunction[] views = new TabulatedFunction[functions.length];
+        List<TabulatedFunction> participants = new ArrayList<>();
+        boolean optimistic = !exclusive;
+        for (int i = 0; i < functions.length; i++) {
+            TabulatedFunction function = functions[i];
+            if (function == null) {
+                throw new NullPointerException("Function " + i + " must not be null");
+            }
+            if (function instanceof SynchronizedTabulatedFunction) {
+                views[i] = ((SynchronizedTabulatedFunction) function).delegate();
+                optimistic = false;
+            } else if (function instanceof StampedTabulatedFunction) {
+                views[i] = ((StampedTabulatedFunction) function).delegate();
+            } else {
+                views[i] = function;
+                continue;
+            }
+            if (!containsSame(participants, function)) {
+                participants.add(function);
+            }
+        }
+        participants.sort(Comparator.comparingLong(FunctionTransaction::lockOrder));
+        TabulatedFunction[] ordered = participants.toArray(new TabulatedFunction[0]);
+
+        if (optimistic && ordered.length > 0) {
+            long[] stamps = new long[ordered.length];
+            boolean acquired = true;
+            for (int i = 0; i < ordered.length && acquired; i++) {
+                stamps[i] = ((StampedTabulatedFunction) ordered[i]).lock().tryOptimisticRead();
+                acquired = stamps[i] != 0;
+            }
+            if (acquired) {
+                try {
+                    T result = body.apply(views);
+                    if (validate(ordered, stamps)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    if (validate(ordered, stamps)) {
+                        throw e;
+                    }
+                }
+                logger.trace("Оптимистичная транзакция пересеклась с записью, повтор под блокировками");
+            }
+        }
+
+        return lockAndApply(ordered, 0, body, views, exclusive);
+    }
+
+    private static boolean containsSame(List<TabulatedFunction> functions, TabulatedFunction function) {
+        for (TabulatedFunction existing : functions) {
+            if (existing == function) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long lockOrder(TabulatedFunction function) {
+        if (function instanceof SynchronizedTabulatedFunction) {
+            return ((SynchronizedTabulatedFunction) function).lockOrder;
+        }
+        return ((StampedTabulatedFunction) function).lockOrder;
+    }
+
+    private static boolean validate(TabulatedFunction[] ordered, long[] stamps) {
+        for (int i = 0; i < ordered.length; i++) {
+            if (!((StampedTabulatedFunction) ordered[i]).lock().validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Захватывает блокировки ordered[next..] по порядку и выполняет тело под всеми ними
+    private static <T> T lockAndApply(TabulatedFunction[] ordered, int next, Body<? extends T> body,
+                                      TabulatedFunction[] views, boolean exclusive) {
+        if (next == ordered.length) {
+            return body.apply(views);
+        }
+
+        // Через обертки, чтобы захват учитывали инструментированные функции
+        TabulatedFunction function = ordered[next];
+        if (function instanceof SynchronizedTabulatedFunction) {
+            return ((SynchronizedTabulatedFunction) function).doSynchronously(
+                    f -> lockAndApply(ordered, next + 1, body, views, exclusive));
+        }
+        return ((StampedTabulatedFunction) function).locked(exclusive,
+                () -> lockAndApply(ordered, next + 1, body, views, exclusive));
+    }
+}
@@ -0,0 +1,102 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.UnitFunction;
+import operations.TabulatedFunctionOperationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Пропускная способность транзакций FunctionTransaction.read(add) над двумя общими функциями
+ * при параллельных писателях, меняющих обе функции через setY.
+ * Половина транзакций перечисляет функции в порядке (a, b), половина - (b, a):
+ * без единого порядка блокировок такая смесь рано или поздно зависла бы
+ */
+public class FunctionTransactionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(FunctionTransactionBenchmark.class);
+
+    private static final int COUNT = 10_000;
+    private static final long MEASURE_MILLIS = 1000;
+    private static final int WRITERS = 2;
+    private static final int[] TRANSACTIONS = {1, 2, 4};
+
+    public static void main(String[] args) throws InterruptedException {
+        logger.info("Запуск FunctionTransactionBenchmark, доступно процессоров: {}",
+                Runtime.getRuntime().availableProcessors());
+
+        for (int transactions : TRANSACTIONS) {
+            measure("synchronized", SynchronizedTabulatedFunction::new, transactions);
+            measure("stamped", StampedTabulatedFunction::new, transactions);
+        }
+
+        logger.info("FunctionTransactionBenchmark завершил работу");
+    }
+
+    private static void measure(String name, UnaryOperator<TabulatedFunction> wrapper, int transactions)
+            throws InterruptedException {
+        TabulatedFunction a = wrapper.apply(new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, COUNT));
+        TabulatedFunction b = wrapper.apply(new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, COUNT));
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder commits = new LongAdder();
+        LongAdder writes = new LongAdder();
+        CountDownLatch started = new CountDownLatch(WRITERS + transactions);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            threads.add(new Thread(() -> {
+                started.countDown();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                while (running.get()) {
+                    TabulatedFunction target = random.nextBoolean() ? a : b;
+                    int i = random.nextInt(COUNT);
+                    target.setY(i, target.getY(i));
+                    local++;
+                }
+                writes.add(local);
+            }, "writer-" + w));
+        }
+        for (int t = 0; t < transactions; t++) {
+            boolean reversed = t % 2 == 1;
+            threads.add(new Thread(() -> {
+                started.countDown();
+                long local = 0;
+                while (running.get()) {
+                    if (reversed) {
+                        FunctionTransaction.read(fs -> service.add(fs[1], fs[0]), b, a);
+                    } else {
+                        FunctionTransaction.read(fs -> service.add(fs[0], fs[1]), a, b);
+                    }
+                    local++;
+                }
+                commits.add(local);
+            }, "transaction-" + t));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        started.await();
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double seconds = MEASURE_MILLIS / 1000.0;
+        System.out.printf("%-12s транзакций: %d  add/с: %9.0f  setY/с: %12.0f%n",
+                name, transactions, commits.sum() / seconds, writes.sum() / seconds);
+    }
+}
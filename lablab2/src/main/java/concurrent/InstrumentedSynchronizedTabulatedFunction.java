@@ -0,0 +1,122 @@
+package concurrent;
+
+import functions.DoubleBiConsumer;
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * SynchronizedTabulatedFunction, учитывающая каждый захват монитора в LockStatistics:
+ * сколько поток ждал монитор и сколько его держал. Составные операции задач
+ * (ReadTask, WriteTask, MultiplyingTask) и захваты FunctionTransaction идут через doSynchronously
+ * и учитываются одним захватом, а повторные входы в монитор внутри нее не учитываются.
+ * Стоимость - три вызова System.nanoTime() и несколько LongAdder на захват;
+ * без инструментирования используется обычная SynchronizedTabulatedFunction
+ */
+public class InstrumentedSynchronizedTabulatedFunction extends SynchronizedTabulatedFunction {
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedSynchronizedTabulatedFunction.class);
+
+    private final LockStatistics statistics;
+
+    public InstrumentedSynchronizedTabulatedFunction(TabulatedFunction function) {
+        this(function, new LockStatistics(function.getClass().getSimpleName()));
+    }
+
+    public InstrumentedSynchronizedTabulatedFunction(TabulatedFunction function, LockStatistics statistics) {
+        super(function);
+        if (statistics == null) {
+            throw new NullPointerException("Statistics must not be null");
+        }
+        this.statistics = statistics;
+        logger.debug("Включен учет захватов монитора: {}", statistics.getName());
+    }
+
+    public LockStatistics getStatistics() {
+        return statistics;
+    }
+
+    // Захватывает монитор и учитывает ожидание и удержание; повторный вход в монитор не учитывается
+    private <T> T locked(Supplier<T> action) {
+        if (Thread.holdsLock(this)) {
+            return action.get();
+        }
+        long requested = System.nanoTime();
+        synchronized (this) {
+            long acquired = System.nanoTime();
+            try {
+                return action.get();
+            } finally {
+                statistics.record(requested, acquired, System.nanoTime());
+            }
+        }
+    }
+
+    private void lockedRun(Runnable action) {
+        locked(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @Override
+    public <T> T doSynchronously(Operation<? extends T> operation) {
+        return locked(() -> super.doSynchronously(operation));
+    }
+
+    @Override
+    public int getCount() {
+        return locked(super::getCount);
+    }
+
+    @Override
+    public double getX(int index) {
+        return locked(() -> super.getX(index));
+    }
+
+    @Override
+    public double getY(int index) {
+        return locked(() -> super.getY(index));
+    }
+
+    @Override
+    public void setY(int index, double value) {
+        lockedRun(() -> super.setY(index, value));
+    }
+
+    @Override
+    public int indexOfX(double x) {
+        return locked(() -> super.indexOfX(x));
+    }
+
+    @Override
+    public int indexOfY(double y) {
+        return locked(() -> super.indexOfY(y));
+    }
+
+    @Override
+    public double leftBound() {
+        return locked(super::leftBound);
+    }
+
+    @Override
+    public double rightBound() {
+        return locked(super::rightBound);
+    }
+
+    @Override
+    public double apply(double x) {
+        return locked(() -> super.apply(x));
+    }
+
+    @Override
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        lockedRun(() -> super.applyAll(xs, from, to, out));
+    }
+
+    @Override
+    public void forEachPoint(DoubleBiConsumer action) {
+        lockedRun(() -> super.forEachPoint(action));
+    }
+}
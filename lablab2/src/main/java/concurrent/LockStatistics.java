@@ -0,0 +1,263 @@
+package concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика захватов одной блокировки: число захватов, гистограммы времени ожидания
+ * и удержания, суммарное ожидание по местам вызова.
+ * Запись одного захвата - несколько LongAdder без общей блокировки; стек вызова
+ * снимается только для захватов, ожидавших дольше порога, поэтому незаконкурированные
+ * захваты почти ничего не стоят.
+ *
+ * Гистограммы логарифмические: корзина k считает длительности из [2^(k-1), 2^k) нс,
+ * корзина 0 - нулевые, последняя корзина - все, что длиннее
+ */
+public class LockStatistics {
+    private static final Logger logger = LoggerFactory.getLogger(LockStatistics.class);
+
+    public static final int BUCKETS = 40;
+    public static final long DEFAULT_CONTENTION_THRESHOLD_NANOS = 1_000;
+
+    // Классы обертки и статистики пропускаются при поиске места вызова
+    private static final Set<String> INTERNAL_CLASSES = Set.of(
+            LockStatistics.class.getName(),
+            SynchronizedTabulatedFunction.class.getName(),
+            InstrumentedSynchronizedTabulatedFunction.class.getName(),
+            StampedTabulatedFunction.class.getName(),
+            FunctionTransaction.class.getName());
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    /**
+     * Суммарное ожидание в одном месте вызова
+     */
+    public static final class CallSite {
+        private final String site;
+        private final long contendedAcquisitions;
+        private final long waitNanos;
+
+        CallSite(String site, long contendedAcquisitions, long waitNanos) {
+            this.site = site;
+            this.contendedAcquisitions = contendedAcquisitions;
+            this.waitNanos = waitNanos;
+        }
+
+        public String getSite() {
+            return site;
+        }
+
+        public long getContendedAcquisitions() {
+            return contendedAcquisitions;
+        }
+
+        public long getWaitNanos() {
+            return waitNanos;
+        }
+
+        @Override
+        public String toString() {
+            return site + ": " + contendedAcquisitions + " раз, " + waitNanos / 1_000 + " мкс";
+        }
+    }
+
+    private static final class SiteCounters {
+        final LongAdder count = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+    }
+
+    private final String name;
+    private final long contentionThresholdNanos;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalHoldNanos = new LongAdder();
+    private final LongAdder[] waitHistogram = newHistogram();
+    private final LongAdder[] holdHistogram = newHistogram();
+    private final Map<String, SiteCounters> sites = new ConcurrentHashMap<>();
+
+    public LockStatistics(String name) {
+        this(name, DEFAULT_CONTENTION_THRESHOLD_NANOS);
+    }
+
+    /**
+     * @param contentionThresholdNanos ожидание, начиная с которого захват считается конкурентным
+     *                                 и учитывается по месту вызова
+     */
+    public LockStatistics(String name, long contentionThresholdNanos) {
+        if (name == null) {
+            throw new NullPointerException("Name must not be null");
+        }
+        if (contentionThresholdNanos < 0) {
+            logger.error("Некорректный порог конкуренции: {}", contentionThresholdNanos);
+            throw new IllegalArgumentException("Contention threshold must not be negative: " + contentionThresholdNanos);
+        }
+        this.name = name;
+        this.contentionThresholdNanos = contentionThresholdNanos;
+    }
+
+    private static LongAdder[] newHistogram() {
+        LongAdder[] histogram = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+        return histogram;
+    }
+
+    static int bucket(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * Верхняя (не включаемая) граница корзины гистограммы в наносекундах
+     */
+    public static long bucketUpperBoundNanos(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS) {
+            throw new IllegalArgumentException("Bucket out of bounds: " + bucket);
+        }
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * Учитывает один захват по моментам System.nanoTime(): запрос, получение и освобождение блокировки
+     */
+    public void record(long requestedNanos, long acquiredNanos, long releasedNanos) {
+        long wait = acquiredNanos - requestedNanos;
+        long hold = releasedNanos - acquiredNanos;
+
+        acquisitions.increment();
+        totalWaitNanos.add(wait);
+        totalHoldNanos.add(hold);
+        waitHistogram[bucket(wait)].increment();
+        holdHistogram[bucket(hold)].increment();
+
+        if (wait >= contentionThresholdNanos) {
+            contendedAcquisitions.increment();
+            SiteCounters counters = sites.computeIfAbsent(callSite(), site -> new SiteCounters());
+            counters.count.increment();
+            counters.waitNanos.add(wait);
+        }
+    }
+
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> !INTERNAL_CLASSES.contains(f.getClassName()))
+                .findFirst());
+        return frame.map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("<unknown>");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getTotalHoldNanos() {
+        return totalHoldNanos.sum();
+    }
+
+    public long[] getWaitHistogram() {
+        return snapshot(waitHistogram);
+    }
+
+    public long[] getHoldHistogram() {
+        return snapshot(holdHistogram);
+    }
+
+    private static long[] snapshot(LongAdder[] histogram) {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Места вызова с наибольшим суммарным ожиданием, по убыванию
+     */
+    public List<CallSite> getTopContendedSites(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        List<CallSite> result = new ArrayList<>();
+        for (Map.Entry<String, SiteCounters> entry : sites.entrySet()) {
+            result.add(new CallSite(entry.getKey(), entry.getValue().count.sum(), entry.getValue().waitNanos.sum()));
+        }
+        result.sort(Comparator.comparingLong(CallSite::getWaitNanos).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Обнуляет статистику; захваты, идущие одновременно со сбросом, могут учесться частично
+     */
+    public void reset() {
+        acquisitions.reset();
+        contendedAcquisitions.reset();
+        totalWaitNanos.reset();
+        totalHoldNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            waitHistogram[i].reset();
+            holdHistogram[i].reset();
+        }
+        sites.clear();
+    }
+
+    /**
+     * Текстовый отчет: сводка, непустые корзины гистограмм и пять самых конкурентных мест вызова
+     */
+    public String report() {
+        long count = getAcquisitions();
+        StringBuilder builder = new StringBuilder();
+        builder.append("Блокировка ").append(name).append(": захватов ").append(count)
+                .append(", с ожиданием ").append(getContendedAcquisitions())
+                .append(", ожидание ").append(getTotalWaitNanos() / 1_000).append(" мкс")
+                .append(", удержание ").append(getTotalHoldNanos() / 1_000).append(" мкс\n");
+        appendHistogram(builder, "ожидание", getWaitHistogram());
+        appendHistogram(builder, "удержание", getHoldHistogram());
+        for (CallSite site : getTopContendedSites(5)) {
+            builder.append("  ").append(site).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void appendHistogram(StringBuilder builder, String title, long[] counts) {
+        builder.append("  ").append(title).append(':');
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                builder.append(" <").append(i == BUCKETS - 1 ? "inf" : Long.toString(bucketUpperBoundNanos(i)))
+                        .append("нс=").append(counts[i]);
+            }
+        }
+        builder.append('\n');
+    }
+
+    /**
+     * Выводит отчет в лог при завершении JVM
+     */
+    public void dumpOnShutdown() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> logger.info("{}", report()),
+                "lock-statistics-" + name));
+    }
+}
@@ -32,22 +32,31 @@ public class MultiplyingTask implements Runnable {
             return;
         }
 
+        if (function instanceof AtomicArrayTabulatedFunction) {
+            // Каждая точка удваивается отдельным CAS - потоки не блокируют друг друга
+            ((AtomicArrayTabulatedFunction) function).updateAllY(y -> y * 2);
+            logger.info("Поток {} атомарно обработал все {} точек функции",
+                    Thread.currentThread().getName(), pointCount);
+            return;
+        }
+
         try {
             for (int i = 0; i < pointCount; i++) {
-                synchronized (function) {
+                int index = i;
+                SynchronizedTabulatedFunction.runLocked(function, () -> {
                     logger.trace("Поток {} заблокировал функцию для точки {}",
-                            Thread.currentThread().getName(), i);
+                            Thread.currentThread().getName(), index);
 
-                    double currentY = function.getY(i);
-                    logger.debug("Точка {}: текущее Y = {}", i, currentY);
+                    double currentY = function.getY(index);
+                    logger.debug("Точка {}: текущее Y = {}", index, currentY);
 
                     double newY = currentY * 2;
-                    function.setY(i, newY);
+                    function.setY(index, newY);
 
-                    logger.debug("Точка {}: Y изменено с {} на {}", i, currentY, newY);
+                    logger.debug("Точка {}: Y изменено с {} на {}", index, currentY, newY);
                     logger.trace("Поток {} разблокировал функцию после точки {}",
-                            Thread.currentThread().getName(), i);
-                }
+                            Thread.currentThread().getName(), index);
+                });
 
                 // Небольшая пауза для демонстрации многопоточности
                 if (logger.isTraceEnabled()) {
@@ -4,40 +4,33 @@ import functions.LinkedListTabulatedFunction;
 import functions.UnitFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.ArrayList;
-import java.util.List;
+
+import java.util.concurrent.CompletionException;
 
 public class MultiplyingTaskExecutor {
     private static final Logger logger = LoggerFactory.getLogger(MultiplyingTaskExecutor.class);
 
+    private static final int PASSES = 10;
+
     public static void main(String[] args) {
         logger.info("Запуск MultiplyingTaskExecutor");
 
         LinkedListTabulatedFunction function = new LinkedListTabulatedFunction(new UnitFunction(), 1, 1000, 1000);
         logger.info("Создана функция: {} точек на интервале [1, 1000]", function.getCount());
 
-        List<Thread> threads = new ArrayList<>();
-
-        for (int i = 0; i < 10; i++) {
-            MultiplyingTask task = new MultiplyingTask(function);
-            Thread thread = new Thread(task);
-            threads.add(thread);
-            logger.debug("Создан поток {} для MultiplyingTask", i + 1);
-        }
-        logger.info("Создано {} потоков для умножения функции", threads.size());
-
-        for (Thread thread : threads) {
-            thread.start();
-        }
-        logger.info("Все потоки запущены");
-
-        try {
-            logger.debug("Ожидание выполнения потоков (2 секунды)...");
-            Thread.sleep(2000);
-            logger.debug("Ожидание завершено");
-        } catch (InterruptedException e) {
-            logger.error("Главный поток был прерван во время ожидания", e);
-            Thread.currentThread().interrupt();
+        // Каждый проход удваивает функцию один раз: точки делятся между потоками пула,
+        // вместо того чтобы каждый из 10 потоков проходил всю функцию под общей блокировкой
+        try (PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofPlatformThreads(
+                Runtime.getRuntime().availableProcessors())) {
+            for (int pass = 1; pass <= PASSES; pass++) {
+                int currentPass = pass;
+                executor.submit(function, PartitionedTaskExecutor.PointOperation.multiply(2),
+                        (processed, total) -> logger.debug("Проход {}: обработано {} из {} точек",
+                                currentPass, processed, total)).join();
+            }
+            logger.info("Выполнено {} проходов умножения", PASSES);
+        } catch (CompletionException e) {
+            logger.error("Умножение функции завершилось с ошибкой", e.getCause());
         }
 
         System.out.println("Табулированная функция после выполнения потоков:");
@@ -49,4 +42,4 @@ public class MultiplyingTaskExecutor {
 
         logger.info("MultiplyingTaskExecutor завершил работу");
     }
-}
\ No newline at end of file
+}
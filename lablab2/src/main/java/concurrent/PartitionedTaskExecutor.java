@@ -0,0 +1,227 @@
+package concurrent;
+
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поэлементная обработка табулированной функции в пуле потоков.
+ * Диапазон индексов делится на непересекающиеся куски, каждый кусок - отдельная задача пула,
+ * поэтому каждая точка обрабатывается ровно один раз, а потоки не конкурируют за блокировку
+ * всей функции (в отличие от MultiplyingTask, где каждый поток проходит всю функцию).
+ * Функция должна допускать одновременный setY для разных индексов - это верно для функций
+ * на массивах, LinkedListTabulatedFunction и потокобезопасных оберток; для функций без
+ * IndexedAccess getY(i) линеен и выигрыша от деления не будет
+ */
+public class PartitionedTaskExecutor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedTaskExecutor.class);
+
+    // Кусков на поток: запас для выравнивания нагрузки, если потоки работают с разной скоростью
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_SIZE = 256;
+    // Как часто внутри куска проверяется отмена
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    /**
+     * Поэлементная операция: новое значение y по координатам точки
+     */
+    @FunctionalInterface
+    public interface PointOperation {
+        double apply(double x, double y);
+
+        static PointOperation multiply(double factor) {
+            return (x, y) -> y * factor;
+        }
+
+        static PointOperation add(double constant) {
+            return (x, y) -> y + constant;
+        }
+    }
+
+    /**
+     * Получает число обработанных точек после завершения каждого куска.
+     * Вызывается из потоков пула, возможно одновременно
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int processedPoints, int totalPoints);
+    }
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final boolean ownsExecutor;
+    private final int chunkSize;
+
+    /**
+     * Пул из threads платформенных потоков; закрывается вместе с исполнителем
+     */
+    public static PartitionedTaskExecutor ofPlatformThreads(int threads) {
+        if (threads < 1) {
+            logger.error("Некорректное число потоков: {}", threads);
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        return new PartitionedTaskExecutor(Executors.newFixedThreadPool(threads), threads, true, 0);
+    }
+
+    /**
+     * Виртуальный поток на каждый кусок; число кусков рассчитывается по числу процессоров
+     */
+    public static PartitionedTaskExecutor ofVirtualThreads() {
+        return new PartitionedTaskExecutor(Executors.newVirtualThreadPerTaskExecutor(),
+                Runtime.getRuntime().availableProcessors(), true, 0);
+    }
+
+    /**
+     * Работа в существующем ForkJoinPool; пул не закрывается вместе с исполнителем
+     */
+    public static PartitionedTaskExecutor ofForkJoinPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("Pool must not be null");
+        }
+        return new PartitionedTaskExecutor(pool, pool.getParallelism(), false, 0);
+    }
+
+    /**
+     * Работа в произвольном пуле с заданным размером куска; пул не закрывается вместе с исполнителем
+     * @param chunkSize число точек в одной задаче, 0 - подбирать по parallelism
+     */
+    public PartitionedTaskExecutor(ExecutorService executor, int parallelism, int chunkSize) {
+        this(executor, parallelism, false, chunkSize);
+        if (executor == null) {
+            throw new NullPointerException("Executor must not be null");
+        }
+    }
+
+    private PartitionedTaskExecutor(ExecutorService executor, int parallelism, boolean ownsExecutor, int chunkSize) {
+        if (parallelism < 1) {
+            logger.error("Некорректный уровень параллелизма: {}", parallelism);
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (chunkSize < 0) {
+            logger.error("Некорректный размер куска: {}", chunkSize);
+            throw new IllegalArgumentException("Chunk size must not be negative: " + chunkSize);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ownsExecutor = ownsExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    int chunkSizeFor(int count) {
+        if (chunkSize > 0) {
+            return chunkSize;
+        }
+        int chunks = parallelism * CHUNKS_PER_THREAD;
+        return Math.max(MIN_CHUNK_SIZE, (count + chunks - 1) / chunks);
+    }
+
+    public CompletableFuture<TabulatedFunction> submit(TabulatedFunction function, PointOperation operation) {
+        return submit(function, operation, null);
+    }
+
+    /**
+     * Запускает operation для всех точек функции и сразу возвращает future,
+     * которое завершается самой функцией после обработки последнего куска.
+     * Отмена future (cancel) останавливает обработку: еще не начатые куски пропускаются,
+     * начатые прерываются на ближайшей проверке, уже записанные значения остаются.
+     * Исключение в operation или setY завершает future с этим исключением и отменяет остальные куски
+     * @param listener получатель прогресса, может быть null
+     */
+    public CompletableFuture<TabulatedFunction> submit(TabulatedFunction function, PointOperation operation,
+                                                       ProgressListener listener) {
+        if (function == null || operation == null) {
+            throw new NullPointerException("Function and operation must not be null");
+        }
+
+        CompletableFuture<TabulatedFunction> result = new CompletableFuture<>();
+        int count = function.getCount();
+        int size = chunkSizeFor(count);
+        int chunks = (count + size - 1) / size;
+        AtomicInteger remainingChunks = new AtomicInteger(chunks);
+        AtomicInteger processedPoints = new AtomicInteger();
+        logger.debug("Запуск обработки {} точек кусками по {} ({} задач)", count, size, chunks);
+        if (chunks == 0) {
+            // Пустая функция: ни одного куска, который завершил бы future
+            result.complete(function);
+            return result;
+        }
+
+        for (int c = 0; c < chunks; c++) {
+            int from = c * size;
+            int to = Math.min(count, from + size);
+            Runnable chunk = () -> {
+                try {
+                    if (!processChunk(function, operation, from, to, result)) {
+                        return;
+                    }
+                    int processed = processedPoints.addAndGet(to - from);
+                    if (listener != null) {
+                        listener.onProgress(processed, count);
+                    }
+                    if (remainingChunks.decrementAndGet() == 0) {
+                        logger.debug("Обработка {} точек завершена", count);
+                        result.complete(function);
+                    }
+                } catch (RuntimeException | Error e) {
+                    logger.error("Ошибка при обработке точек [{}, {})", from, to, e);
+                    result.completeExceptionally(e);
+                }
+            };
+            try {
+                executor.execute(chunk);
+            } catch (RejectedExecutionException e) {
+                logger.error("Пул отклонил задачу для точек [{}, {})", from, to, e);
+                result.completeExceptionally(e);
+                break;
+            }
+        }
+        return result;
+    }
+
+    // false, если обработка прервана отменой или ошибкой в другом куске
+    private static boolean processChunk(TabulatedFunction function, PointOperation operation, int from, int to,
+                                        CompletableFuture<?> result) {
+        if (function instanceof AtomicArrayTabulatedFunction) {
+            // Куски не пересекаются, но CAS не теряет обновления, если функцию одновременно меняет кто-то еще
+            AtomicArrayTabulatedFunction atomic = (AtomicArrayTabulatedFunction) function;
+            for (int i = from; i < to; i++) {
+                if ((i - from) % CANCEL_CHECK_INTERVAL == 0 && result.isDone()) {
+                    return false;
+                }
+                double x = atomic.getX(i);
+                atomic.updateY(i, y -> operation.apply(x, y));
+            }
+            return true;
+        }
+
+        for (int i = from; i < to; i++) {
+            if ((i - from) % CANCEL_CHECK_INTERVAL == 0 && result.isDone()) {
+                return false;
+            }
+            function.setY(i, operation.apply(function.getX(i), function.getY(i)));
+        }
+        return true;
+    }
+
+    /**
+     * Закрывает пул, если он был создан самим исполнителем, дожидаясь уже запущенных задач
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.close();
+            logger.debug("Пул исполнителя закрыт");
+        }
+    }
+}
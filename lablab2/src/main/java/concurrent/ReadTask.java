@@ -34,21 +34,22 @@ public class ReadTask implements Runnable {
 
         try {
             for (int i = 0; i < pointCount; i++) {
-                synchronized (function) {
+                int index = i;
+                SynchronizedTabulatedFunction.runLocked(function, () -> {
                     logger.trace("Поток {} заблокировал функцию для чтения точки {}",
-                            Thread.currentThread().getName(), i);
+                            Thread.currentThread().getName(), index);
 
-                    double x = function.getX(i);
-                    double y = function.getY(i);
+                    double x = function.getX(index);
+                    double y = function.getY(index);
 
-                    logger.debug("Точка {}: x = {}, y = {}", i, x, y);
+                    logger.debug("Точка {}: x = {}, y = {}", index, x, y);
 
                     // Сохраняем оригинальный вывод для совместимости
-                    System.out.printf("After read: i = %d, x = %f, y = %f%n", i, x, y);
+                    System.out.printf("After read: i = %d, x = %f, y = %f%n", index, x, y);
 
                     logger.trace("Поток {} разблокировал функцию после чтения точки {}",
-                            Thread.currentThread().getName(), i);
-                }
+                            Thread.currentThread().getName(), index);
+                });
 
                 // Небольшая пауза для демонстрации многопоточности (только в trace режиме)
                 if (logger.isTraceEnabled()) {
@@ -1,6 +1,5 @@
 package concurrent;
 
-import functions.TabulatedFunction;
 import functions.LinkedListTabulatedFunction;
 import functions.ConstantFunction;
 import org.slf4j.Logger;
@@ -10,6 +9,8 @@ public class ReadWriteTaskExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(ReadWriteTaskExecutor.class);
 
+    private static final int BATCH_SIZE = 64;
+
     public static void main(String[] args) {
         logger.info("Запуск ReadWriteTaskExecutor");
 
@@ -17,28 +18,71 @@ public class ReadWriteTaskExecutor {
         ConstantFunction constantFunction = new ConstantFunction(-1);
         logger.debug("Создана ConstantFunction со значением: -1");
 
-        TabulatedFunction function = new LinkedListTabulatedFunction(
+        SynchronizedTabulatedFunction function = new SynchronizedTabulatedFunction(new LinkedListTabulatedFunction(
                 constantFunction, 1, 1000, 1000
-        );
+        ));
         logger.info("Создана TabulatedFunction: {} точек на интервале [1, 1000]", function.getCount());
 
-        ReadTask readTask = new ReadTask(function);
-        WriteTask writeTask = new WriteTask(function, 0.5);
-        logger.debug("Задачи ReadTask и WriteTask созданы");
+        // Писатель публикует обновления в буфер, применяющий поток переносит их в функцию пачками,
+        // читатель читает точку только после того, как применяющий поток ее обработал
+        UpdateRingBuffer buffer = new UpdateRingBuffer(256, UpdateRingBuffer.WaitStrategy.PARK);
+        UpdateRingBuffer.Consumer applier = buffer.newConsumer();
+        UpdateRingBuffer.Consumer reader = buffer.newConsumer();
+        double value = 0.5;
+
+        Thread writeThread = new Thread(() -> {
+            try {
+                for (int i = 0; i < function.getCount(); i++) {
+                    buffer.publish(i, function.getX(i), value);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                buffer.close();
+            }
+            logger.info("Писатель опубликовал все обновления");
+        }, "writer");
+
+        Thread applyThread = new Thread(() -> {
+            UpdateRingBuffer.UpdateHandler apply = (index, x, y) -> function.setY(index, y);
+            try {
+                while (applier.awaitAvailable() >= 0) {
+                    // Одна блокировка функции на всю пачку вместо блокировки на каждую точку
+                    int applied = function.doSynchronously(f -> applier.drain(apply, BATCH_SIZE));
+                    logger.debug("Применено обновлений в пачке: {}", applied);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            logger.info("Все обновления применены к функции");
+        }, "applier");
 
-        Thread readThread = new Thread(readTask);
-        Thread writeThread = new Thread(writeTask);
-        logger.info("Потоки инициализированы: читающий и пишущий");
+        Thread readThread = new Thread(() -> {
+            UpdateRingBuffer.UpdateHandler read = (index, x, y) ->
+                    System.out.printf("After read: i = %d, x = %f, y = %f%n", index, x, function.getY(index));
+            try {
+                long available;
+                while ((available = reader.awaitAvailable()) >= 0) {
+                    // Чтение после записи: точки читаются только после того, как применяющий поток их обработал
+                    applier.awaitSequence(available);
+                    reader.drain(read, (int) (available - reader.getSequence()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "reader");
 
         readThread.start();
+        applyThread.start();
         writeThread.start();
         logger.info("Потоки запущены");
 
         try {
             logger.debug("Ожидание завершения потоков...");
-            readThread.join();
             writeThread.join();
-            logger.info("Оба потока успешно завершились");
+            applyThread.join();
+            readThread.join();
+            logger.info("Все потоки успешно завершились");
         } catch (InterruptedException e) {
             logger.error("Главный поток был прерван во время ожидания", e);
             Thread.currentThread().interrupt();
@@ -47,4 +91,4 @@ public class ReadWriteTaskExecutor {
         System.out.println("\nВсе потоки завершили выполнение.");
         logger.info("ReadWriteTaskExecutor завершил работу");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package concurrent;
+
+import functions.DoubleBiConsumer;
+import functions.Point;
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Потокобезопасная обертка табулированной функции на StampedLock.
+ * Чтения (getX, getY, apply и т.д.) сначала выполняются оптимистично без блокировки
+ * и повторяются под блокировкой чтения, только если за это время была запись.
+ * Поэтому при редких записях читатели не мешают друг другу, в отличие от
+ * SynchronizedTabulatedFunction. Исключение, брошенное при оптимистичном чтении,
+ * пробрасывается только если чтение не пересеклось с записью.
+ *
+ * Обернутую функцию можно изменять только через эту обертку (setY, doWrite).
+ * С LockStatistics учитывается каждый захват блокировки чтения или записи, в том числе
+ * повтор чтения после неудачной проверки и захваты FunctionTransaction; оптимистичные
+ * чтения блокировку не берут и не учитываются
+ */
+public class StampedTabulatedFunction implements TabulatedFunction {
+    private static final Logger logger = LoggerFactory.getLogger(StampedTabulatedFunction.class);
+
+    private final TabulatedFunction function;
+    private final StampedLock lock = new StampedLock();
+    private final LockStatistics statistics;
+    // Место функции в глобальном порядке захвата блокировок FunctionTransaction
+    final long lockOrder = FunctionTransaction.nextLockOrder();
+
+    public StampedTabulatedFunction(TabulatedFunction function) {
+        this(function, null);
+    }
+
+    /**
+     * @param statistics статистика захватов блокировки или null, чтобы не вести учет
+     */
+    public StampedTabulatedFunction(TabulatedFunction function, LockStatistics statistics) {
+        if (function == null) {
+            throw new NullPointerException("Function must not be null");
+        }
+        this.function = function;
+        this.statistics = statistics;
+        logger.debug("Создан StampedTabulatedFunction для функции: {}, учет захватов: {}",
+                function.getClass().getSimpleName(), statistics != null);
+    }
+
+    /**
+     * @return статистика захватов или null, если учет не ведется
+     */
+    public LockStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Составная операция над обернутой функцией
+     */
+    public interface Operation<T> {
+        T apply(TabulatedFunction function);
+    }
+
+    /**
+     * Выполняет составное чтение под блокировкой чтения; операция не должна менять функцию
+     */
+    public <T> T doRead(Operation<? extends T> operation) {
+        return locked(false, () -> operation.apply(function));
+    }
+
+    /**
+     * Выполняет составное изменение под блокировкой записи
+     */
+    public <T> T doWrite(Operation<? extends T> operation) {
+        return locked(true, () -> operation.apply(function));
+    }
+
+    // Выполняет действие под блокировкой записи или чтения, учитывая захват в статистике
+    <T> T locked(boolean exclusive, Supplier<? extends T> action) {
+        if (statistics == null) {
+            long stamp = exclusive ? lock.writeLock() : lock.readLock();
+            try {
+                return action.get();
+            } finally {
+                lock.unlock(stamp);
+            }
+        }
+        long requested = System.nanoTime();
+        long stamp = exclusive ? lock.writeLock() : lock.readLock();
+        long acquired = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long released = System.nanoTime();
+            lock.unlock(stamp);
+            statistics.record(requested, acquired, released);
+        }
+    }
+
+    // Обернутая функция и блокировка для FunctionTransaction
+    TabulatedFunction delegate() {
+        return function;
+    }
+
+    StampedLock lock() {
+        return lock;
+    }
+
+    // Чтение без блокировки с повтором под блокировкой чтения, если за это время была запись.
+    // Исключение оптимистичного чтения пробрасывается, только если оно не пересеклось с записью
+    private double optimisticRead(ToDoubleFunction<TabulatedFunction> read) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                double value = read.applyAsDouble(function);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return locked(false, () -> read.applyAsDouble(function));
+    }
+
+    private int optimisticReadInt(ToIntFunction<TabulatedFunction> read) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int value = read.applyAsInt(function);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return locked(false, () -> read.applyAsInt(function));
+    }
+
+    @Override
+    public int getCount() {
+        return optimisticReadInt(TabulatedFunction::getCount);
+    }
+
+    @Override
+    public double getX(int index) {
+        return optimisticRead(f -> f.getX(index));
+    }
+
+    @Override
+    public double getY(int index) {
+        return optimisticRead(f -> f.getY(index));
+    }
+
+    @Override
+    public void setY(int index, double value) {
+        locked(true, () -> {
+            function.setY(index, value);
+            return null;
+        });
+    }
+
+    @Override
+    public int indexOfX(double x) {
+        return optimisticReadInt(f -> f.indexOfX(x));
+    }
+
+    @Override
+    public int indexOfY(double y) {
+        return optimisticReadInt(f -> f.indexOfY(y));
+    }
+
+    @Override
+    public double leftBound() {
+        return optimisticRead(TabulatedFunction::leftBound);
+    }
+
+    @Override
+    public double rightBound() {
+        return optimisticRead(TabulatedFunction::rightBound);
+    }
+
+    @Override
+    public double apply(double x) {
+        return optimisticRead(f -> f.apply(x));
+    }
+
+    // Длинные проходы сразу берут блокировку чтения: оптимистичный повтор обошелся бы дороже
+    @Override
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        locked(false, () -> {
+            function.applyAll(xs, from, to, out);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachPoint(DoubleBiConsumer action) {
+        locked(false, () -> {
+            function.forEachPoint(action);
+            return null;
+        });
+    }
+
+    /**
+     * Итератор по копии точек, снятой под блокировкой чтения
+     */
+    @Override
+    public Iterator<Point> iterator() {
+        double[][] copy = doRead(f -> {
+            double[] xValues = new double[f.getCount()];
+            double[] yValues = new double[f.getCount()];
+            f.forEachPoint(new DoubleBiConsumer() {
+                private int i = 0;
+
+                public void accept(double x, double y) {
+                    xValues[i] = x;
+                    yValues[i] = y;
+                    i++;
+                }
+            });
+            return new double[][]{xValues, yValues};
+        });
+
+        return new Iterator<Point>() {
+            private int currentIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return currentIndex < copy[0].length;
+            }
+
+            @Override
+            public Point next() {
+                if (!hasNext()) {
+                    logger.warn("Попытка получить next() при отсутствии элементов");
+                    throw new NoSuchElementException("No more elements in iterator");
+                }
+                Point point = new Point(copy[0][currentIndex], copy[1][currentIndex]);
+                currentIndex++;
+                return point;
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package concurrent;
 
+import functions.DoubleBiConsumer;
 import functions.Point;
 import functions.TabulatedFunction;
 import operations.TabulatedFunctionOperationService;
@@ -12,6 +13,8 @@ import java.util.NoSuchElementException;
 public class SynchronizedTabulatedFunction implements TabulatedFunction {
     private static final Logger logger = LoggerFactory.getLogger(SynchronizedTabulatedFunction.class);
     private final TabulatedFunction function;
+    // Место функции в глобальном порядке захвата блокировок FunctionTransaction
+    final long lockOrder = FunctionTransaction.nextLockOrder();
 
     public SynchronizedTabulatedFunction(TabulatedFunction function) {
         this.function = function;
@@ -23,70 +26,85 @@ public class SynchronizedTabulatedFunction implements TabulatedFunction {
     }
 
     public synchronized <T> T doSynchronously(Operation<? extends T> operation) {
-        logger.trace("Выполнение синхронной операции");
         return operation.apply(this);
     }
 
+    /**
+     * Выполняет действие под монитором функции. Для SynchronizedTabulatedFunction это тот же монитор,
+     * что у synchronized (function), но через doSynchronously, чтобы его захват видели наследники
+     * (InstrumentedSynchronizedTabulatedFunction)
+     */
+    static void runLocked(TabulatedFunction function, Runnable action) {
+        if (function instanceof SynchronizedTabulatedFunction) {
+            ((SynchronizedTabulatedFunction) function).doSynchronously(func -> {
+                action.run();
+                return null;
+            });
+        } else {
+            synchronized (function) {
+                action.run();
+            }
+        }
+    }
+
+    // Обернутая функция для FunctionTransaction, которая сама держит монитор
+    TabulatedFunction delegate() {
+        return function;
+    }
+
     @Override
     public synchronized int getCount() {
-        logger.trace("Получение количества точек: {}", function.getCount());
         return function.getCount();
     }
 
     @Override
     public synchronized double getX(int index) {
-        double x = function.getX(index);
-        logger.trace("Получение X[{}] = {}", index, x);
-        return x;
+        return function.getX(index);
     }
 
     @Override
     public synchronized double getY(int index) {
-        double y = function.getY(index);
-        logger.trace("Получение Y[{}] = {}", index, y);
-        return y;
+        return function.getY(index);
     }
 
     @Override
     public synchronized void setY(int index, double value) {
-        double oldValue = function.getY(index);
         function.setY(index, value);
-        logger.debug("Изменение Y[{}] с {} на {}", index, oldValue, value);
     }
 
     @Override
     public synchronized int indexOfX(double x) {
-        int index = function.indexOfX(x);
-        logger.trace("Поиск индекса X={}, результат: {}", x, index);
-        return index;
+        return function.indexOfX(x);
     }
 
     @Override
     public synchronized int indexOfY(double y) {
-        int index = function.indexOfY(y);
-        logger.trace("Поиск индекса Y={}, результат: {}", y, index);
-        return index;
+        return function.indexOfY(y);
     }
 
     @Override
     public synchronized double leftBound() {
-        double bound = function.leftBound();
-        logger.trace("Левая граница: {}", bound);
-        return bound;
+        return function.leftBound();
     }
 
     @Override
     public synchronized double rightBound() {
-        double bound = function.rightBound();
-        logger.trace("Правая граница: {}", bound);
-        return bound;
+        return function.rightBound();
     }
 
     @Override
     public synchronized double apply(double x) {
-        double result = function.apply(x);
-        logger.trace("Применение функции к X={}, результат: {}", x, result);
-        return result;
+        return function.apply(x);
+    }
+
+    @Override
+    public synchronized void applyAll(double[] xs, int from, int to, double[] out) {
+        function.applyAll(xs, from, to, out);
+    }
+
+    @Override
+    public synchronized void forEachPoint(DoubleBiConsumer action) {
+        function.forEachPoint(action);
     }
 
     @Override
@@ -102,9 +120,7 @@ public class SynchronizedTabulatedFunction implements TabulatedFunction {
 
                 @Override
                 public boolean hasNext() {
-                    boolean hasNext = currentIndex < points.length;
-                    logger.trace("Проверка hasNext: {}", hasNext);
-                    return hasNext;
+                    return currentIndex < points.length;
                 }
 
                 @Override
@@ -113,9 +129,7 @@ public class SynchronizedTabulatedFunction implements TabulatedFunction {
                         logger.warn("Попытка получить next() при отсутствии элементов");
                         throw new NoSuchElementException("No more elements in iterator");
                     }
-                    Point point = points[currentIndex++];
-                    logger.trace("Получена точка: x={}, y={}", point.x, point.y);
-                    return point;
+                    return points[currentIndex++];
                 }
 
                 @Override
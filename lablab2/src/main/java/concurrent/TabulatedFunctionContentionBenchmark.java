@@ -0,0 +1,87 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пропускная способность читателей при одном писателе: SynchronizedTabulatedFunction
+ * против StampedTabulatedFunction. Писатель непрерывно вызывает setY,
+ * читатели - apply в случайных точках; измерение длится MEASURE_MILLIS
+ */
+public class TabulatedFunctionContentionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TabulatedFunctionContentionBenchmark.class);
+
+    private static final int COUNT = 10_000;
+    private static final long MEASURE_MILLIS = 1000;
+    private static final int[] READERS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws InterruptedException {
+        logger.info("Запуск TabulatedFunctionContentionBenchmark, доступно процессоров: {}",
+                Runtime.getRuntime().availableProcessors());
+
+        for (int readers : READERS) {
+            double monitor = measure(new SynchronizedTabulatedFunction(
+                    new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, COUNT)), readers);
+            double stamped = measure(new StampedTabulatedFunction(
+                    new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, COUNT)), readers);
+            System.out.printf("читателей: %d  synchronized: %8.2f млн/с  stamped: %8.2f млн/с%n",
+                    readers, monitor, stamped);
+        }
+
+        logger.info("TabulatedFunctionContentionBenchmark завершил работу");
+    }
+
+    // Суммарное число вызовов apply всеми читателями в секунду, в миллионах
+    private static double measure(TabulatedFunction function, int readers) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        CountDownLatch started = new CountDownLatch(readers + 1);
+        List<Thread> threads = new ArrayList<>();
+
+        threads.add(new Thread(() -> {
+            started.countDown();
+            int i = 0;
+            while (running.get()) {
+                function.setY(i, function.getY(i));
+                i = (i + 1) % COUNT;
+            }
+        }, "writer"));
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                started.countDown();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                double sink = 0;
+                long local = 0;
+                while (running.get()) {
+                    sink += function.apply(random.nextDouble());
+                    local++;
+                }
+                reads.add(local);
+                if (Double.isNaN(sink)) {
+                    System.out.println(sink);
+                }
+            }, "reader-" + r));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        started.await();
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return reads.sum() / (MEASURE_MILLIS * 1000.0);
+    }
+}
@@ -0,0 +1,303 @@
+package concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ограниченный кольцевой буфер обновлений точек (index, x, y) между одним производителем
+ * и несколькими потребителями. Слоты - заранее выделенные примитивные массивы, поэтому
+ * публикация и чтение ничего не выделяют.
+ *
+ * Каждый потребитель (Consumer) видит все обновления в порядке публикации и продвигает
+ * собственную позицию; производитель ждет, пока самый медленный потребитель освободит слот.
+ * Номер, возвращаемый publish, делает видимость явной: после consumer.awaitSequence(n)
+ * этот потребитель уже обработал обновление n и все предыдущие.
+ *
+ * publish вызывает только один поток; каждый Consumer обслуживается одним потоком.
+ * Потребителей нужно создать до начала публикации - новый потребитель видит только
+ * обновления, опубликованные после его создания
+ */
+public class UpdateRingBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(UpdateRingBuffer.class);
+
+    /**
+     * Как ждать, пока появятся данные или освободится место
+     */
+    public enum WaitStrategy {
+        /**
+         * Непрерывный опрос: минимальная задержка, но поток занимает процессор все время ожидания
+         */
+        BUSY_SPIN {
+            void idle(int attempt) {
+                Thread.onSpinWait();
+            }
+        },
+        /**
+         * Короткий опрос, затем Thread.yield()
+         */
+        YIELD {
+            void idle(int attempt) {
+                if (attempt < SPIN_ATTEMPTS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        },
+        /**
+         * Короткий опрос, затем засыпание на PARK_NANOS: процессор свободен, задержка выше
+         */
+        PARK {
+            void idle(int attempt) {
+                if (attempt < SPIN_ATTEMPTS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        };
+
+        private static final int SPIN_ATTEMPTS = 100;
+        private static final long PARK_NANOS = 50_000;
+
+        abstract void idle(int attempt);
+    }
+
+    /**
+     * Обработчик одного обновления
+     */
+    @FunctionalInterface
+    public interface UpdateHandler {
+        void onUpdate(int index, double x, double y);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final int[] indices;
+    private final double[] xValues;
+    private final double[] yValues;
+    private final WaitStrategy waitStrategy;
+
+    // Номер последнего опубликованного обновления; запись с release-семантикой после заполнения слота
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private volatile Consumer[] consumers = new Consumer[0];
+    private volatile boolean closed;
+
+    // Поля только потока-производителя
+    private long nextSequence = 0;
+    private long cachedGate = -1;
+
+    /**
+     * @param capacity число слотов, степень двойки
+     */
+    public UpdateRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            logger.error("Емкость буфера должна быть степенью двойки: {}", capacity);
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        if (waitStrategy == null) {
+            throw new NullPointerException("Wait strategy must not be null");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.indices = new int[capacity];
+        this.xValues = new double[capacity];
+        this.yValues = new double[capacity];
+        this.waitStrategy = waitStrategy;
+        logger.debug("Создан UpdateRingBuffer на {} слотов, ожидание {}", capacity, waitStrategy);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Номер последнего опубликованного обновления, -1 если публикаций не было
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Регистрирует нового потребителя, начинающего после последнего опубликованного обновления
+     */
+    public synchronized Consumer newConsumer() {
+        Consumer consumer = new Consumer(cursor.get());
+        Consumer[] current = consumers;
+        Consumer[] updated = new Consumer[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = consumer;
+        consumers = updated;
+        return consumer;
+    }
+
+    /**
+     * Публикует обновление, при заполненном буфере ожидая самого медленного потребителя
+     * @return номер обновления
+     */
+    public long publish(int index, double x, double y) throws InterruptedException {
+        long sequence = nextSequence;
+        long wrapPoint = sequence - capacity;
+        if (wrapPoint > cachedGate) {
+            int attempt = 0;
+            while (wrapPoint > (cachedGate = minimumConsumerSequence(sequence - 1))) {
+                checkOpen();
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                waitStrategy.idle(attempt++);
+            }
+        }
+        return write(sequence, index, x, y);
+    }
+
+    /**
+     * Публикует обновление, только если в буфере есть место
+     * @return номер обновления или -1, если буфер заполнен
+     */
+    public long tryPublish(int index, double x, double y) {
+        long sequence = nextSequence;
+        if (sequence - capacity > cachedGate
+                && sequence - capacity > (cachedGate = minimumConsumerSequence(sequence - 1))) {
+            return -1;
+        }
+        return write(sequence, index, x, y);
+    }
+
+    private long write(long sequence, int index, double x, double y) {
+        checkOpen();
+        int slot = (int) (sequence & mask);
+        indices[slot] = index;
+        xValues[slot] = x;
+        yValues[slot] = y;
+        nextSequence = sequence + 1;
+        cursor.lazySet(sequence);
+        return sequence;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            logger.error("Публикация в закрытый буфер");
+            throw new IllegalStateException("Ring buffer is closed");
+        }
+    }
+
+    private long minimumConsumerSequence(long published) {
+        long minimum = published;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Завершает публикацию: потребители дочитывают оставшиеся обновления, после чего await возвращает -1
+     */
+    public void close() {
+        closed = true;
+        logger.debug("UpdateRingBuffer закрыт на обновлении {}", cursor.get());
+    }
+
+    /**
+     * Потребитель, получающий все обновления буфера пачками
+     */
+    public final class Consumer {
+        // Номер последнего обработанного обновления
+        private final AtomicLong sequence;
+
+        private Consumer(long start) {
+            this.sequence = new AtomicLong(start);
+        }
+
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        /**
+         * Обрабатывает до maxBatch уже опубликованных обновлений, не ожидая новых.
+         * Если обработчик бросил исключение, позиция остается на последнем успешно обработанном
+         * @return число обработанных обновлений
+         */
+        public int drain(UpdateHandler handler, int maxBatch) {
+            if (maxBatch < 1) {
+                throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+            }
+            long current = sequence.get();
+            long available = cursor.get();
+            if (available <= current) {
+                return 0;
+            }
+
+            long end = Math.min(available, current + maxBatch);
+            long processed = current;
+            try {
+                while (processed < end) {
+                    int slot = (int) ((processed + 1) & mask);
+                    handler.onUpdate(indices[slot], xValues[slot], yValues[slot]);
+                    processed++;
+                }
+            } finally {
+                sequence.lazySet(processed);
+            }
+            return (int) (end - current);
+        }
+
+        /**
+         * Ожидает хотя бы одно необработанное обновление
+         * @return номер последнего опубликованного обновления или -1, если буфер закрыт
+         * и все обновления обработаны
+         */
+        public long awaitAvailable() throws InterruptedException {
+            int attempt = 0;
+            while (true) {
+                long available = cursor.get();
+                if (available > sequence.get()) {
+                    return available;
+                }
+                // cursor перечитывается после closed: последняя публикация предшествует close()
+                if (closed && cursor.get() == sequence.get()) {
+                    return -1;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                waitStrategy.idle(attempt++);
+            }
+        }
+
+        /**
+         * Ожидает хотя бы одно обновление и обрабатывает до maxBatch обновлений
+         * @return число обработанных обновлений или -1, если буфер закрыт и все обновления обработаны
+         */
+        public int await(UpdateHandler handler, int maxBatch) throws InterruptedException {
+            if (awaitAvailable() < 0) {
+                return -1;
+            }
+            return drain(handler, maxBatch);
+        }
+
+        /**
+         * Ожидает, пока этот потребитель обработает обновление с номером target
+         */
+        public void awaitSequence(long target) throws InterruptedException {
+            int attempt = 0;
+            while (sequence.get() < target) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                waitStrategy.idle(attempt++);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.UnitFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Пропускная способность обновлений SynchronizedTabulatedFunction при параллельном читателе:
+ * запись каждой точки под своей блокировкой (как WriteTask) против публикации в UpdateRingBuffer
+ * с применением пачками по BATCH_SIZE под одной блокировкой, для каждой стратегии ожидания
+ */
+public class UpdateRingBufferBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(UpdateRingBufferBenchmark.class);
+
+    private static final int COUNT = 1000;
+    private static final int UPDATES = 2_000_000;
+    private static final int BATCH_SIZE = 256;
+    private static final int CAPACITY = 4096;
+
+    public static void main(String[] args) throws InterruptedException {
+        logger.info("Запуск UpdateRingBufferBenchmark, доступно процессоров: {}",
+                Runtime.getRuntime().availableProcessors());
+
+        for (int round = 0; round < 2; round++) {
+            System.out.printf("раунд %d%n", round + 1);
+            System.out.printf("  %-22s %8.2f млн/с%n", "блокировка на точку", direct());
+            for (UpdateRingBuffer.WaitStrategy strategy : UpdateRingBuffer.WaitStrategy.values()) {
+                System.out.printf("  %-22s %8.2f млн/с%n", "буфер " + strategy, pipelined(strategy));
+            }
+        }
+
+        logger.info("UpdateRingBufferBenchmark завершил работу");
+    }
+
+    private static double direct() throws InterruptedException {
+        SynchronizedTabulatedFunction function = newFunction();
+        Thread reader = startReader(function);
+        long start = System.nanoTime();
+        for (int k = 0; k < UPDATES; k++) {
+            int index = k % COUNT;
+            function.doSynchronously(f -> {
+                f.setY(index, f.getY(index) + 1);
+                return null;
+            });
+        }
+        double rate = UPDATES / ((System.nanoTime() - start) / 1e3);
+        reader.interrupt();
+        reader.join();
+        return rate;
+    }
+
+    private static double pipelined(UpdateRingBuffer.WaitStrategy strategy) throws InterruptedException {
+        SynchronizedTabulatedFunction function = newFunction();
+        UpdateRingBuffer buffer = new UpdateRingBuffer(CAPACITY, strategy);
+        UpdateRingBuffer.Consumer applier = buffer.newConsumer();
+        UpdateRingBuffer.UpdateHandler apply = (index, x, y) -> function.setY(index, function.getY(index) + y);
+        Thread applyThread = new Thread(() -> {
+            try {
+                while (applier.awaitAvailable() >= 0) {
+                    function.doSynchronously(f -> applier.drain(apply, BATCH_SIZE));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "applier");
+        Thread reader = startReader(function);
+
+        long start = System.nanoTime();
+        applyThread.start();
+        for (int k = 0; k < UPDATES; k++) {
+            int index = k % COUNT;
+            buffer.publish(index, index, 1.0);
+        }
+        buffer.close();
+        applyThread.join();
+        double rate = UPDATES / ((System.nanoTime() - start) / 1e3);
+        reader.interrupt();
+        reader.join();
+
+        if (function.getY(0) != 1.0 + UPDATES / COUNT) {
+            throw new IllegalStateException("Lost updates: " + function.getY(0));
+        }
+        return rate;
+    }
+
+    private static SynchronizedTabulatedFunction newFunction() {
+        return new SynchronizedTabulatedFunction(new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, COUNT));
+    }
+
+    private static Thread startReader(SynchronizedTabulatedFunction function) {
+        Thread reader = new Thread(() -> {
+            double sink = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                sink += function.apply(0.5);
+            }
+            if (Double.isNaN(sink)) {
+                System.out.println(sink);
+            }
+        }, "reader");
+        reader.start();
+        return reader;
+    }
+}
@@ -31,14 +31,15 @@ public class WriteTask implements Runnable {
 
         try {
             for (int i = 0; i < pointCount; i++) {
-                synchronized (function) {
-                    double oldValue = function.getY(i);
-                    function.setY(i, value);
-                    logger.debug("Точка {}: Y изменен с {} на {}", i, oldValue, value);
+                int index = i;
+                SynchronizedTabulatedFunction.runLocked(function, () -> {
+                    double oldValue = function.getY(index);
+                    function.setY(index, value);
+                    logger.debug("Точка {}: Y изменен с {} на {}", index, oldValue, value);
 
                     // Сохраняем оригинальный вывод
-                    System.out.printf("Writing for index %d complete%n", i);
-                }
+                    System.out.printf("Writing for index %d complete%n", index);
+                });
             }
 
             logger.info("Поток {} завершил запись значения {} во все {} точек",
@@ -16,49 +16,99 @@ public abstract class AbstractTabulatedFunction implements TabulatedFunction {
     protected abstract double interpolate(double x, int floorIndex);
 
     protected double interpolate(double x, double leftX, double rightX, double leftY, double rightY) {
-        logger.trace("Интерполяция: x={}, leftX={}, rightX={}, leftY={}, rightY={}",
-                x, leftX, rightX, leftY, rightY);
-
         if (leftX == rightX) {
-            logger.debug("Граничные точки совпадают, возвращаем среднее значение");
             return (leftY + rightY) / 2.0;
         }
 
-        double result = leftY + (rightY - leftY) * (x - leftX) / (rightX - leftX);
-        logger.debug("Результат интерполяции: {}", result);
-        return result;
+        return leftY + (rightY - leftY) * (x - leftX) / (rightX - leftX);
     }
 
     public double apply(double x) {
-        logger.debug("Вычисление apply для x={}", x);
-
         if (getCount() == 0) {
             logger.error("Попытка вычислить значение для пустой табулированной функции");
             throw new IllegalStateException("Tabulated function is empty");
         }
 
         if (x < leftBound()) {
-            logger.debug("x={} меньше левой границы {}, используем экстраполяцию слева", x, leftBound());
             return extrapolateLeft(x);
         } else if (x > rightBound()) {
-            logger.debug("x={} больше правой границы {}, используем экстраполяцию справа", x, rightBound());
             return extrapolateRight(x);
         } else {
-            int exactIndex = indexOfX(x);
-            if (exactIndex != -1) {
-                logger.debug("Точное совпадение x={} найдено в индексе {}", x, exactIndex);
-                return getY(exactIndex);
+            // Один поиск интервала вместо indexOfX + floorIndexOfX: точное совпадение
+            // может быть только на одной из границ найденного интервала
+            int floorIndex = floorIndexOfX(x);
+
+            if (floorIndex < 0 || floorIndex >= getCount()) {
+                logger.error("Некорректный floorIndex: {} для x={}", floorIndex, x);
+                throw new IllegalStateException("Invalid floor index calculated: " + floorIndex);
+            }
+            if (getX(floorIndex) == x) {
+                return getY(floorIndex);
+            }
+            if (floorIndex + 1 < getCount() && getX(floorIndex + 1) == x) {
+                return getY(floorIndex + 1);
+            }
+
+            return interpolate(x, floorIndex);
+        }
+    }
+
+    /**
+     * Бинарный поиск x в таблице через getX, сравнение как в Double.compare
+     * @param x значение аргумента для поиска
+     * @return индекс x, либо -(точка вставки) - 1, если x не найден
+     */
+    protected int binarySearchX(double x) {
+        int low = 0;
+        int high = getCount() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(getX(mid), x);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
             } else {
-                int floorIndex = floorIndexOfX(x);
-                logger.debug("Интерполяция x={} в интервале с индексом {}", x, floorIndex);
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
 
-                if (floorIndex < 0 || floorIndex >= getCount()) {
-                    logger.error("Некорректный floorIndex: {} для x={}", floorIndex, x);
-                    throw new IllegalStateException("Invalid floor index calculated: " + floorIndex);
-                }
-                return interpolate(x, floorIndex);
+    /**
+     * Индекс левой границы интервала для x по результату бинарного поиска.
+     * Для x левее таблицы возвращает 0, для x правее или на правой границе - count-2
+     * @param searchResult результат binarySearchX или Arrays.binarySearch
+     * @param count количество точек (не менее 2)
+     */
+    protected static int floorIndexFromSearch(int searchResult, int count) {
+        int floorIndex = searchResult >= 0 ? searchResult : -searchResult - 2;
+        if (floorIndex < 0) {
+            return 0;
+        }
+        return Math.min(floorIndex, count - 2);
+    }
+
+    /**
+     * Проверяет, что сетка x равномерна с относительной точностью 1e-9 от шага
+     * @return обратный шаг сетки, либо 0, если сетка неравномерна
+     */
+    protected static double uniformInverseStep(double[] xValues, int count) {
+        if (count < 3) {
+            return count == 2 ? 1.0 / (xValues[1] - xValues[0]) : 0;
+        }
+
+        double first = xValues[0];
+        double step = (xValues[count - 1] - first) / (count - 1);
+        double tolerance = Math.abs(step) * 1e-9;
+
+        for (int i = 1; i < count - 1; i++) {
+            if (Math.abs(xValues[i] - (first + i * step)) > tolerance) {
+                return 0;
             }
         }
+        return 1.0 / step;
     }
 
     public static void checkLengthIsTheSame(double[] xValues, double[] yValues) {
@@ -92,9 +142,7 @@ public abstract class AbstractTabulatedFunction implements TabulatedFunction {
         StringBuilder sb = new StringBuilder();
         sb.append(getClass().getSimpleName()).append(" size = ").append(getCount());
 
-        for (Point point : this) {
-            sb.append("\n[").append(point.x).append("; ").append(point.y).append("]");
-        }
+        forEachPoint((x, y) -> sb.append("\n[").append(x).append("; ").append(y).append("]"));
 
         String result = sb.toString();
         logger.debug("Сгенерировано строковое представление: {}", result);
@@ -157,14 +205,11 @@ public abstract class AbstractTabulatedFunction implements TabulatedFunction {
     }
 
     public Iterator<Point> iterator() {
-        logger.trace("Создание итератора для функции");
         return new Iterator<Point>() {
             private int currentIndex = 0;
 
             public boolean hasNext() {
-                boolean hasNext = currentIndex < getCount();
-                logger.trace("Проверка наличия следующей точки: {}", hasNext);
-                return hasNext;
+                return currentIndex < getCount();
             }
 
             public Point next() {
@@ -174,7 +219,6 @@ public abstract class AbstractTabulatedFunction implements TabulatedFunction {
                 }
 
                 Point point = new Point(getX(currentIndex), getY(currentIndex));
-                logger.trace("Возвращена точка {}: [{}, {}]", currentIndex, point.x, point.y);
                 currentIndex++;
                 return point;
             }
@@ -4,19 +4,26 @@ import exceptions.InterpolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Iterator;
 
 public class ArrayTabulatedFunction extends AbstractTabulatedFunction
-        implements Insertable, Removable, Iterable<Point>, Cloneable, Serializable {
+        implements Insertable, Removable, Iterable<Point>, IndexedAccess, Cloneable, Serializable {
 
     private static final Logger logger = LoggerFactory.getLogger(ArrayTabulatedFunction.class);
     private static final long serialVersionUID = 8305720685834923448L;
 
+    // Сериализуемая форма - эти два массива целиком: она уже плоская, поэтому остается стандартной
     private double[] xValues;
     private double[] yValues;
 
+    // Обратный шаг равномерной сетки для поиска интервала за O(1), 0 - сетка неравномерна
+    private transient double inverseStep;
+
     public ArrayTabulatedFunction(double[] xValues, double[] yValues) {
         logger.debug("Создание ArrayTabulatedFunction из массивов: xValues.length={}, yValues.length={}",
                 xValues != null ? xValues.length : "null", yValues != null ? yValues.length : "null");
@@ -34,6 +41,7 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
         checkSorted(xValues);
         this.xValues = Arrays.copyOf(xValues, xValues.length);
         this.yValues = Arrays.copyOf(yValues, yValues.length);
+        this.inverseStep = uniformInverseStep(this.xValues, this.xValues.length);
 
         logger.info("Создан ArrayTabulatedFunction с {} точками", this.xValues.length);
     }
@@ -62,6 +70,7 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
             this.xValues[i] = xFrom + i * step;
             this.yValues[i] = func.apply(this.xValues[i]);
         }
+        this.inverseStep = uniformInverseStep(this.xValues, count);
 
         logger.info("Создан ArrayTabulatedFunction из функции с {} точками", count);
     }
@@ -69,19 +78,15 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
     public void insert(double x, double y) {
         logger.debug("Вставка точки: x={}, y={}", x, y);
 
-        int index = indexOfX(x);
-        if (index != -1) {
+        int index = Arrays.binarySearch(xValues, x);
+        if (index >= 0) {
             logger.debug("Точка с x={} существует, обновление Y", x);
             setY(index, y);
         } else {
             int count = getCount();
             double[] newXValues = new double[count + 1];
             double[] newYValues = new double[count + 1];
-            int insertIndex = 0;
-
-            while (insertIndex < count && xValues[insertIndex] < x) {
-                insertIndex++;
-            }
+            int insertIndex = -index - 1;
 
             System.arraycopy(xValues, 0, newXValues, 0, insertIndex);
             System.arraycopy(yValues, 0, newYValues, 0, insertIndex);
@@ -91,6 +96,7 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
             System.arraycopy(yValues, insertIndex, newYValues, insertIndex + 1, count - insertIndex);
             xValues = newXValues;
             yValues = newYValues;
+            inverseStep = uniformInverseStep(xValues, xValues.length);
 
             logger.debug("Вставлена новая точка, count={}", getCount());
         }
@@ -120,126 +126,102 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
 
         xValues = newXValues;
         yValues = newYValues;
+        inverseStep = uniformInverseStep(xValues, xValues.length);
 
         logger.debug("Точка удалена, новый count={}", getCount());
     }
 
     public int getCount() {
-        logger.trace("Получение количества точек: {}", xValues != null ? xValues.length : 0);
         return xValues.length;
     }
 
     public double getX(int index) {
-        logger.trace("Получение X по индексу: {}", index);
         if (index < 0 || index >= getCount()) {
             logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, getCount() - 1);
             throw new IllegalArgumentException("Index out of bounds: " + index);
         }
-        double result = xValues[index];
-        logger.trace("X[{}] = {}", index, result);
-        return result;
+        return xValues[index];
     }
 
     public double getY(int index) {
-        logger.trace("Получение Y по индексу: {}", index);
         if (index < 0 || index >= getCount()) {
             logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, getCount() - 1);
             throw new IllegalArgumentException("Index out of bounds: " + index);
         }
-        double result = yValues[index];
-        logger.trace("Y[{}] = {}", index, result);
-        return result;
+        return yValues[index];
     }
 
     public void setY(int index, double value) {
-        logger.debug("Установка Y[{}] = {}", index, value);
         if (index < 0 || index >= getCount()) {
             logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, getCount() - 1);
             throw new IllegalArgumentException("Index out of bounds: " + index);
         }
-        double oldValue = yValues[index];
         yValues[index] = value;
-        logger.debug("Y[{}] изменен с {} на {}", index, oldValue, value);
     }
 
     public int indexOfX(double x) {
-        logger.trace("Поиск индекса по X: {}", x);
-        for (int i = 0; i < getCount(); i++) {
-            if (Double.compare(xValues[i], x) == 0) {
-                logger.trace("Найден индекс {} для X={}", i, x);
-                return i;
-            }
-        }
-        logger.trace("X={} не найден", x);
-        return -1;
+        int index = Arrays.binarySearch(xValues, x);
+        return index >= 0 ? index : -1;
     }
 
     public int indexOfY(double y) {
-        logger.trace("Поиск индекса по Y: {}", y);
         for (int i = 0; i < getCount(); i++) {
             if (Double.compare(yValues[i], y) == 0) {
-                logger.trace("Найден индекс {} для Y={}", i, y);
                 return i;
             }
         }
-        logger.trace("Y={} не найден", y);
         return -1;
     }
 
     public double leftBound() {
-        double result = xValues[0];
-        logger.trace("Левая граница: {}", result);
-        return result;
+        return xValues[0];
     }
 
     public double rightBound() {
-        double result = xValues[getCount() - 1];
-        logger.trace("Правая граница: {}", result);
-        return result;
+        return xValues[getCount() - 1];
     }
 
     protected int floorIndexOfX(double x) {
-        logger.trace("Поиск floorIndexOfX для x={}", x);
-
         int count = getCount();
         if (x < xValues[0]) {
-            logger.trace("x={} меньше левой границы, возвращаем 0", x);
             return 0;
         }
         if (x >= xValues[count - 1]) {
-            logger.trace("x={} больше правой границы, возвращаем {}", x, count - 2);
             return count - 2;
         }
 
-        for (int i = 0; i < count - 1; i++) {
-            if (x >= xValues[i] && x < xValues[i + 1]) {
-                logger.trace("Найден floorIndexOfX: {} для x={}", i, x);
-                return i;
-            }
+        return inverseStep != 0
+                ? uniformFloorIndexOfX(x, count)
+                : floorIndexFromSearch(Arrays.binarySearch(xValues, x), count);
+    }
+
+    // Поиск интервала на равномерной сетке: оценка по шагу и поправка на ошибку округления
+    private int uniformFloorIndexOfX(double x, int count) {
+        double estimate = (x - xValues[0]) * inverseStep;
+        int floorIndex = estimate >= count - 2 ? count - 2 : (int) estimate;
+        if (floorIndex < 0) {
+            floorIndex = 0;
         }
 
-        logger.trace("Возвращаем floorIndexOfX: {} для x={}", count - 2, x);
-        return count - 2;
+        while (floorIndex > 0 && xValues[floorIndex] > x) {
+            floorIndex--;
+        }
+        while (floorIndex < count - 2 && xValues[floorIndex + 1] <= x) {
+            floorIndex++;
+        }
+        return floorIndex;
     }
 
     protected double extrapolateLeft(double x) {
-        logger.debug("Экстраполяция слева для x={}", x);
-        double result = interpolate(x, xValues[0], xValues[1], yValues[0], yValues[1]);
-        logger.debug("Результат экстраполяции слева: {}", result);
-        return result;
+        return interpolate(x, xValues[0], xValues[1], yValues[0], yValues[1]);
     }
 
     protected double extrapolateRight(double x) {
-        logger.debug("Экстраполяция справа для x={}", x);
         int count = getCount();
-        double result = interpolate(x, xValues[count - 2], xValues[count - 1], yValues[count - 2], yValues[count - 1]);
-        logger.debug("Результат экстраполяции справа: {}", result);
-        return result;
+        return interpolate(x, xValues[count - 2], xValues[count - 1], yValues[count - 2], yValues[count - 1]);
     }
 
     protected double interpolate(double x, int floorIndex) {
-        logger.debug("Интерполяция для x={} в интервале {}", x, floorIndex);
-
         if (floorIndex < 0 || floorIndex >= getCount() - 1) {
             logger.error("Некорректный floorIndex: {} (допустимо: 0..{})", floorIndex, getCount() - 2);
             throw new IllegalArgumentException("Invalid floor index: " + floorIndex);
@@ -251,45 +233,83 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
             throw new InterpolationException("x is outside the interpolation interval [" + leftX + ", " + rightX + "]");
         }
 
-        double result = interpolate(x, leftX, rightX, yValues[floorIndex], yValues[floorIndex + 1]);
-        logger.debug("Результат интерполяции: {}", result);
-        return result;
+        return interpolate(x, leftX, rightX, yValues[floorIndex], yValues[floorIndex + 1]);
     }
 
     protected double interpolate(double x, double leftX, double rightX, double leftY, double rightY) {
-        logger.trace("Линейная интерполяция: x={}, x0={}, x1={}, y0={}, y1={}", x, leftX, rightX, leftY, rightY);
-
         if (leftX == rightX) {
-            logger.debug("Граничные точки совпадают, возвращаем среднее значение");
             return (leftY + rightY) / 2.0;
         }
 
-        double result = leftY + ((x - leftX) * (rightY - leftY)) / (rightX - leftX);
-        logger.trace("Результат линейной интерполяции: {}", result);
-        return result;
+        return leftY + ((x - leftX) * (rightY - leftY)) / (rightX - leftX);
     }
 
     public double apply(double x) {
-        logger.debug("Вычисление apply для x={}", x);
-
         if (x < xValues[0]) {
-            logger.debug("x={} меньше левой границы, используем экстраполяцию слева", x);
             return extrapolateLeft(x);
         }
         if (x > xValues[getCount() - 1]) {
-            logger.debug("x={} больше правой границы, используем экстраполяцию справа", x);
             return extrapolateRight(x);
         }
 
-        int exactIndex = indexOfX(x);
-        if (exactIndex != -1) {
-            logger.debug("Точное совпадение x={} найдено в индексе {}", x, exactIndex);
-            return yValues[exactIndex];
+        int floorIndex = floorIndexOfX(x);
+        if (xValues[floorIndex] == x) {
+            return yValues[floorIndex];
+        }
+        if (xValues[floorIndex + 1] == x) {
+            return yValues[floorIndex + 1];
         }
 
-        int floorIndex = floorIndexOfX(x);
-        logger.debug("Интерполяция x={} в интервале с индексом {}", x, floorIndex);
-        return interpolate(x, floorIndex);
+        return interpolate(x, xValues[floorIndex], xValues[floorIndex + 1],
+                yValues[floorIndex], yValues[floorIndex + 1]);
+    }
+
+    /**
+     * Вычисляет значения для диапазона аргументов одним проходом слиянием:
+     * для возрастающих xs интервал таблицы только сдвигается вправо, поэтому
+     * весь проход стоит O(n + m). Неупорядоченные аргументы ищутся заново
+     */
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        MathFunction.checkRange(xs, from, to, out);
+
+        int count = xValues.length;
+        double leftX = xValues[0];
+        double rightX = xValues[count - 1];
+        int floorIndex = 0;
+
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            if (x < leftX) {
+                out[i] = interpolate(x, xValues[0], xValues[1], yValues[0], yValues[1]);
+                continue;
+            }
+            if (x > rightX) {
+                out[i] = interpolate(x, xValues[count - 2], xValues[count - 1], yValues[count - 2], yValues[count - 1]);
+                continue;
+            }
+
+            if (x < xValues[floorIndex]) {
+                floorIndex = floorIndexOfX(x);
+            }
+            while (floorIndex < count - 2 && xValues[floorIndex + 1] <= x) {
+                floorIndex++;
+            }
+
+            if (xValues[floorIndex] == x) {
+                out[i] = yValues[floorIndex];
+            } else if (xValues[floorIndex + 1] == x) {
+                out[i] = yValues[floorIndex + 1];
+            } else {
+                out[i] = interpolate(x, xValues[floorIndex], xValues[floorIndex + 1],
+                        yValues[floorIndex], yValues[floorIndex + 1]);
+            }
+        }
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        for (int i = 0; i < xValues.length; i++) {
+            action.accept(xValues[i], yValues[i]);
+        }
     }
 
     public ArrayTabulatedFunction clone() {
@@ -338,15 +358,20 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
         return result;
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (xValues == null || yValues == null || xValues.length != yValues.length || xValues.length < 2) {
+            throw new InvalidObjectException("xValues and yValues must be non-null arrays of equal length, at least 2");
+        }
+        inverseStep = uniformInverseStep(xValues, xValues.length);
+    }
+
     public Iterator<Point> iterator() {
-        logger.trace("Создание итератора");
         return new Iterator<Point>() {
             private int i = 0;
 
             public boolean hasNext() {
-                boolean hasNext = i < getCount();
-                logger.trace("Проверка наличия следующей точки: {}", hasNext);
-                return hasNext;
+                return i < getCount();
             }
 
             public Point next() {
@@ -355,7 +380,6 @@ public class ArrayTabulatedFunction extends AbstractTabulatedFunction
                     throw new java.util.NoSuchElementException();
                 }
                 Point point = new Point(xValues[i], yValues[i]);
-                logger.trace("Итератор вернул точку {}: [{}, {}]", i, point.x, point.y);
                 i++;
                 return point;
             }
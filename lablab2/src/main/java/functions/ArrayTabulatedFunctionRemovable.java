@@ -1,8 +1,18 @@
 package functions;
 
-public class ArrayTabulatedFunctionRemovable implements Removable {
-    private double[] xValues;
-    private double[] yValues;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+public class ArrayTabulatedFunctionRemovable implements Removable, Serializable {
+    private static final long serialVersionUID = 2417150907374632918L;
+
+    // В поток пишутся только первые count элементов, см. writeObject
+    private transient double[] xValues;
+    private transient double[] yValues;
     private int count;
 
     // Конструкторы
@@ -101,6 +111,21 @@ public class ArrayTabulatedFunctionRemovable implements Removable {
         return xValues[count - 1];
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(Arrays.copyOf(xValues, count));
+        out.writeObject(Arrays.copyOf(yValues, count));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        xValues = (double[]) in.readObject();
+        yValues = (double[]) in.readObject();
+        if (count < 2 || xValues.length != count || yValues.length != count) {
+            throw new InvalidObjectException("Array length does not match count " + count);
+        }
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("ArrayTabulatedFunctionRemovable[");
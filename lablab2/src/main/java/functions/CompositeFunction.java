@@ -30,6 +30,14 @@ public class CompositeFunction implements MathFunction {
         return secondFunction.apply(intermediateResult);
     }
 
+    //Применяет сложную функцию ко всему диапазону: первая функция пишет
+    //промежуточные значения прямо в out, вторая обрабатывает их на месте
+
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        firstFunction.applyAll(xs, from, to, out);
+        secondFunction.applyAll(out, from, to, out);
+    }
+
     public MathFunction getFirstFunction() {
         return firstFunction;
     }
@@ -1,5 +1,7 @@
 package functions;
 
+import java.util.Arrays;
+
 public class ConstantFunction implements MathFunction {
     private final double value;
 
@@ -8,5 +10,10 @@ public class ConstantFunction implements MathFunction {
     }
 
     public double apply(double x) {return value;}
+
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        MathFunction.checkRange(xs, from, to, out);
+        Arrays.fill(out, from, to, value);
+    }
 }
 
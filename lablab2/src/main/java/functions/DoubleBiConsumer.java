@@ -0,0 +1,16 @@
+package functions;
+
+/**
+ * Обработчик точки табулированной функции, принимающий x и y как примитивы.
+ * Используется в TabulatedFunction.forEachPoint, чтобы обходить точки без создания объектов Point
+ */
+@FunctionalInterface
+public interface DoubleBiConsumer {
+
+    /**
+     * Обрабатывает одну точку
+     * @param x значение аргумента
+     * @param y значение функции
+     */
+    void accept(double x, double y);
+}
@@ -0,0 +1,383 @@
+package functions;
+
+import exceptions.InterpolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Табулированная функция на массивах с запасом емкости.
+ * В отличие от ArrayTabulatedFunction вставка и удаление не пересоздают массивы:
+ * емкость растет в 1.5 раза при переполнении, точки сдвигаются на месте,
+ * а место вставки ищется бинарным поиском. Поэтому потоковое добавление точек
+ * стоит амортизированно O(1) выделений памяти на точку.
+ * Лишняя емкость освобождается только явным вызовом trimToSize
+ */
+public class GrowableArrayTabulatedFunction extends AbstractTabulatedFunction
+        implements Insertable, Removable, Iterable<Point>, IndexedAccess, Cloneable, Serializable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrowableArrayTabulatedFunction.class);
+    private static final long serialVersionUID = -4128733690452178145L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // В поток пишутся только первые count элементов, см. writeObject
+    private transient double[] xValues;
+    private transient double[] yValues;
+    private int count;
+
+    public GrowableArrayTabulatedFunction() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GrowableArrayTabulatedFunction(int initialCapacity) {
+        if (initialCapacity < 0) {
+            logger.error("Отрицательная емкость: {}", initialCapacity);
+            throw new IllegalArgumentException("Capacity must not be negative: " + initialCapacity);
+        }
+        this.xValues = new double[initialCapacity];
+        this.yValues = new double[initialCapacity];
+        logger.debug("Создан пустой GrowableArrayTabulatedFunction с емкостью {}", initialCapacity);
+    }
+
+    public GrowableArrayTabulatedFunction(double[] xValues, double[] yValues) {
+        if (xValues == null || yValues == null) {
+            logger.error("Один из массивов равен null");
+            throw new NullPointerException("Arrays must not be null");
+        }
+        if (xValues.length < 2) {
+            logger.error("Недостаточно точек: {}", xValues.length);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+
+        checkLengthIsTheSame(xValues, yValues);
+        checkSorted(xValues);
+        this.xValues = Arrays.copyOf(xValues, xValues.length);
+        this.yValues = Arrays.copyOf(yValues, yValues.length);
+        this.count = xValues.length;
+
+        logger.info("Создан GrowableArrayTabulatedFunction с {} точками", count);
+    }
+
+    public GrowableArrayTabulatedFunction(MathFunction func, double xFrom, double xTo, int count) {
+        if (func == null) {
+            logger.error("Функция равна null");
+            throw new NullPointerException("Function must not be null");
+        }
+        if (count < 2) {
+            logger.error("Недостаточно точек: {}", count);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        if (xFrom >= xTo) {
+            logger.error("Некорректный диапазон: xFrom={} >= xTo={}", xFrom, xTo);
+            throw new IllegalArgumentException("xFrom must be less than xTo");
+        }
+
+        this.xValues = new double[count];
+        this.yValues = new double[count];
+        this.count = count;
+        double step = (xTo - xFrom) / (count - 1);
+
+        for (int i = 0; i < count; i++) {
+            this.xValues[i] = xFrom + i * step;
+            this.yValues[i] = func.apply(this.xValues[i]);
+        }
+
+        logger.info("Создан GrowableArrayTabulatedFunction из функции с {} точками", count);
+    }
+
+    /**
+     * Текущая емкость массивов (не меньше getCount())
+     */
+    public int capacity() {
+        return xValues.length;
+    }
+
+    /**
+     * Гарантирует емкость не меньше minCapacity, увеличивая ее не менее чем в 1.5 раза
+     */
+    public void ensureCapacity(int minCapacity) {
+        int capacity = xValues.length;
+        if (minCapacity <= capacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        xValues = Arrays.copyOf(xValues, newCapacity);
+        yValues = Arrays.copyOf(yValues, newCapacity);
+        logger.debug("Емкость увеличена с {} до {}", capacity, newCapacity);
+    }
+
+    /**
+     * Уменьшает емкость массивов до текущего количества точек
+     */
+    public void trimToSize() {
+        if (xValues.length != count) {
+            logger.debug("Емкость уменьшена с {} до {}", xValues.length, count);
+            xValues = Arrays.copyOf(xValues, count);
+            yValues = Arrays.copyOf(yValues, count);
+        }
+    }
+
+    public void insert(double x, double y) {
+        int index = Arrays.binarySearch(xValues, 0, count, x);
+        if (index >= 0) {
+            yValues[index] = y;
+            return;
+        }
+
+        int insertIndex = -index - 1;
+        ensureCapacity(count + 1);
+        System.arraycopy(xValues, insertIndex, xValues, insertIndex + 1, count - insertIndex);
+        System.arraycopy(yValues, insertIndex, yValues, insertIndex + 1, count - insertIndex);
+        xValues[insertIndex] = x;
+        yValues[insertIndex] = y;
+        count++;
+    }
+
+    /**
+     * Вставляет пачку точек одним проходом слиянием с конца массивов.
+     * Семантика как у последовательных вызовов insert: совпавшие x заменяют y
+     * @param xs строго возрастающие значения аргумента
+     * @param ys значения функции
+     */
+    public void insertAll(double[] xs, double[] ys) {
+        if (xs == null || ys == null) {
+            logger.error("Один из массивов равен null");
+            throw new NullPointerException("Arrays must not be null");
+        }
+        checkLengthIsTheSame(xs, ys);
+        checkSorted(xs);
+
+        int batch = xs.length;
+        if (batch == 0) {
+            return;
+        }
+        ensureCapacity(count + batch);
+
+        // Слияние справа налево: запись никогда не обгоняет чтение старых точек
+        int i = count - 1;
+        int j = batch - 1;
+        int write = count + batch - 1;
+        while (j >= 0) {
+            if (i >= 0 && xValues[i] > xs[j]) {
+                xValues[write] = xValues[i];
+                yValues[write] = yValues[i];
+                i--;
+            } else {
+                xValues[write] = xs[j];
+                yValues[write] = ys[j];
+                if (i >= 0 && xValues[i] == xs[j]) {
+                    i--;
+                }
+                j--;
+            }
+            write--;
+        }
+
+        // Совпавшие x оставили пустые места между нетронутым началом и слитой частью
+        int gap = write - i;
+        int merged = count + batch - 1 - write;
+        if (gap > 0) {
+            System.arraycopy(xValues, write + 1, xValues, i + 1, merged);
+            System.arraycopy(yValues, write + 1, yValues, i + 1, merged);
+        }
+        count = i + 1 + merged;
+
+        logger.debug("Вставлено {} точек, совпавших x: {}, count={}", batch, gap, count);
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+
+        int tail = count - index - 1;
+        System.arraycopy(xValues, index + 1, xValues, index, tail);
+        System.arraycopy(yValues, index + 1, yValues, index, tail);
+        count--;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return xValues[index];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return yValues[index];
+    }
+
+    public void setY(int index, double value) {
+        checkIndex(index);
+        yValues[index] = value;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, count - 1);
+            throw new IllegalArgumentException("Index out of bounds: " + index);
+        }
+    }
+
+    public int indexOfX(double x) {
+        int index = Arrays.binarySearch(xValues, 0, count, x);
+        return index >= 0 ? index : -1;
+    }
+
+    public int indexOfY(double y) {
+        for (int i = 0; i < count; i++) {
+            if (Double.compare(yValues[i], y) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double leftBound() {
+        if (count == 0) {
+            logger.error("Попытка получить левую границу пустой функции");
+            throw new IllegalStateException("Empty function");
+        }
+        return xValues[0];
+    }
+
+    public double rightBound() {
+        if (count == 0) {
+            logger.error("Попытка получить правую границу пустой функции");
+            throw new IllegalStateException("Empty function");
+        }
+        return xValues[count - 1];
+    }
+
+    protected int floorIndexOfX(double x) {
+        if (count < 2) {
+            logger.error("Недостаточно данных для поиска floorIndexOfX: count={}", count);
+            throw new IllegalStateException("Insufficient data");
+        }
+        if (x < xValues[0]) {
+            return 0;
+        }
+        if (x >= xValues[count - 1]) {
+            return count - 2;
+        }
+
+        return floorIndexFromSearch(Arrays.binarySearch(xValues, 0, count, x), count);
+    }
+
+    protected double extrapolateLeft(double x) {
+        return interpolate(x, xValues[0], xValues[1], yValues[0], yValues[1]);
+    }
+
+    protected double extrapolateRight(double x) {
+        return interpolate(x, xValues[count - 2], xValues[count - 1], yValues[count - 2], yValues[count - 1]);
+    }
+
+    protected double interpolate(double x, int floorIndex) {
+        if (floorIndex < 0 || floorIndex >= count - 1) {
+            logger.error("Некорректный floorIndex: {} (допустимо: 0..{})", floorIndex, count - 2);
+            throw new IllegalArgumentException("Invalid floor index: " + floorIndex);
+        }
+
+        double leftX = xValues[floorIndex], rightX = xValues[floorIndex + 1];
+        if (x < leftX || x > rightX) {
+            logger.error("x={} вне интервала интерполяции [{}, {}]", x, leftX, rightX);
+            throw new InterpolationException("x is outside the interpolation interval [" + leftX + ", " + rightX + "]");
+        }
+
+        return interpolate(x, leftX, rightX, yValues[floorIndex], yValues[floorIndex + 1]);
+    }
+
+    public double apply(double x) {
+        if (count < 2) {
+            logger.error("Недостаточно данных для вычисления значения: count={}", count);
+            throw new IllegalStateException("Insufficient data");
+        }
+        if (x < xValues[0]) {
+            return extrapolateLeft(x);
+        }
+        if (x > xValues[count - 1]) {
+            return extrapolateRight(x);
+        }
+
+        int floorIndex = floorIndexOfX(x);
+        if (xValues[floorIndex] == x) {
+            return yValues[floorIndex];
+        }
+        if (xValues[floorIndex + 1] == x) {
+            return yValues[floorIndex + 1];
+        }
+
+        return interpolate(x, xValues[floorIndex], xValues[floorIndex + 1],
+                yValues[floorIndex], yValues[floorIndex + 1]);
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(xValues[i], yValues[i]);
+        }
+    }
+
+    public GrowableArrayTabulatedFunction clone() {
+        try {
+            GrowableArrayTabulatedFunction cloned = (GrowableArrayTabulatedFunction) super.clone();
+            cloned.xValues = Arrays.copyOf(xValues, xValues.length);
+            cloned.yValues = Arrays.copyOf(yValues, yValues.length);
+            logger.debug("Клонирована функция с {} точками", count);
+            return cloned;
+        } catch (CloneNotSupportedException e) {
+            logger.error("Ошибка клонирования", e);
+            throw new AssertionError("Clone should be supported");
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(Arrays.copyOf(xValues, count));
+        out.writeObject(Arrays.copyOf(yValues, count));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        xValues = (double[]) in.readObject();
+        yValues = (double[]) in.readObject();
+        if (xValues.length != count || yValues.length != count) {
+            throw new InvalidObjectException("Array length does not match count " + count);
+        }
+    }
+
+    public Iterator<Point> iterator() {
+        return new Iterator<Point>() {
+            private int i = 0;
+
+            public boolean hasNext() {
+                return i < count;
+            }
+
+            public Point next() {
+                if (!hasNext()) {
+                    logger.error("Попытка получить следующую точку при отсутствии элементов");
+                    throw new NoSuchElementException();
+                }
+                Point point = new Point(xValues[i], yValues[i]);
+                i++;
+                return point;
+            }
+
+            public void remove() {
+                logger.error("Попытка вызвать remove() у итератора");
+                throw new UnsupportedOperationException("remove");
+            }
+        };
+    }
+}
@@ -5,4 +5,9 @@ public class IdentityFunction implements MathFunction {
     public double apply(double x) {
         return x;
     }
+
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        MathFunction.checkRange(xs, from, to, out);
+        System.arraycopy(xs, from, out, from, to - from);
+    }
 }
@@ -0,0 +1,10 @@
+package functions;
+
+/**
+ * Маркер табулированной функции с быстрым доступом по номеру точки: getX(i) и getY(i)
+ * за O(1), без прохода от начала. Алгоритмы, которые обращаются к точкам по номеру
+ * (параллельные операции, деление на куски), проверяют его и иначе сначала копируют
+ * точки в массивы одним обходом
+ */
+public interface IndexedAccess {
+}
@@ -5,14 +5,21 @@ import exceptions.InterpolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
-public class LinkedListTabulatedFunction extends AbstractTabulatedFunction implements Iterable<Point>, Cloneable, Serializable {
+public class LinkedListTabulatedFunction extends AbstractTabulatedFunction implements Insertable, Iterable<Point>, IndexedAccess, Cloneable, Serializable {
     private static final Logger logger = LoggerFactory.getLogger(LinkedListTabulatedFunction.class);
     private static final long serialVersionUID = 123456789L;
 
+    // Узлы сериализуются только в потоках прежнего формата, см. readObject
     private class Node implements Serializable {
         private static final long serialVersionUID = 987654321L;
         Point value;
@@ -26,10 +33,23 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
     private Node head;
     private int count;
 
+    // В поток пишутся count и два массива double (см. writeObject), а не цепочка узлов:
+    // стандартная сериализация обходила список рекурсивно и на длинных списках
+    // переполняла стек
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("count", int.class)
+    };
+
+    // Индексный слой: nodes[i] - i-й узел списка, один плоский массив ссылок.
+    // Дает доступ по номеру за O(1) и бинарный поиск по x за O(log n); вставка
+    // сдвигает хвост массива через arraycopy и поэтому стоит O(n) на вызов
+    private transient Node[] nodes;
+
     public LinkedListTabulatedFunction() {
         logger.debug("Создание пустого LinkedListTabulatedFunction");
         this.head = null;
         this.count = 0;
+        this.nodes = new Node[2];
     }
 
     public LinkedListTabulatedFunction(double[] xValues, double[] yValues) {
@@ -51,13 +71,16 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
 
         checkSorted(xValues);
         this.count = xValues.length;
+        this.nodes = new Node[count];
         head = new Node(new Point(xValues[0], yValues[0]));
+        nodes[0] = head;
         Node current = head;
 
         for (int i = 1; i < count; i++) {
             Node node = new Node(new Point(xValues[i], yValues[i]));
             current.next = node;
             current = node;
+            nodes[i] = node;
         }
 
         logger.info("Создан LinkedListTabulatedFunction с {} точками", count);
@@ -80,8 +103,10 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
         }
 
         this.count = count;
+        this.nodes = new Node[count];
         double step = (xTo - xFrom) / (count - 1);
         head = new Node(new Point(xFrom, func.apply(xFrom)));
+        nodes[0] = head;
         Node current = head;
 
         for (int i = 1; i < count; i++) {
@@ -90,47 +115,43 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
             Node node = new Node(new Point(x, y));
             current.next = node;
             current = node;
+            nodes[i] = node;
         }
 
         logger.info("Создан LinkedListTabulatedFunction из функции с {} точками", count);
     }
 
     public int getCount() {
-        logger.trace("Получение количества точек: {}", count);
         return count;
     }
 
     public double getX(int index) {
-        logger.trace("Получение X по индексу: {}", index);
         checkIndex(index);
-        double result = getNode(index).value.x;
-        logger.trace("X[{}] = {}", index, result);
-        return result;
+        return getNode(index).value.x;
     }
 
     public double getY(int index) {
-        logger.trace("Получение Y по индексу: {}", index);
         checkIndex(index);
-        double result = getNode(index).value.y;
-        logger.trace("Y[{}] = {}", index, result);
-        return result;
+        return getNode(index).value.y;
     }
 
     public void setY(int index, double value) {
-        logger.debug("Установка Y[{}] = {}", index, value);
         checkIndex(index);
-        double oldValue = getNode(index).value.y;
         getNode(index).value.y = value;
-        logger.debug("Y[{}] изменен с {} на {}", index, oldValue, value);
     }
 
     private Node getNode(int index) {
-        logger.trace("Получение узла по индексу: {}", index);
+        return nodes[index];
+    }
+
+    // Восстанавливает индексный слой обходом списка (после клонирования и десериализации)
+    private void rebuildIndex() {
+        nodes = new Node[Math.max(count, 2)];
         Node node = head;
-        for (int i = 0; i < index; i++) {
+        for (int i = 0; i < count; i++) {
+            nodes[i] = node;
             node = node.next;
         }
-        return node;
     }
 
     private void checkIndex(int index) {
@@ -140,73 +161,53 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
         }
     }
 
+    // Позиция ищется бинарным поиском, но сдвиг индексного слоя линеен:
+    // вставка новой точки стоит O(n), обновление существующей - O(log n)
     public void insert(double x, double y) {
         logger.debug("Вставка точки: x={}, y={}", x, y);
 
-        if (head == null) {
-            head = new Node(new Point(x, y));
-            count = 1;
-            logger.debug("Вставлена первая точка, count={}", count);
+        int index = binarySearchX(x);
+        if (index >= 0) {
+            logger.debug("Точка с x={} существует, обновление Y с {} на {}", x, nodes[index].value.y, y);
+            nodes[index].value.y = y;
             return;
         }
 
-        if (Double.compare(x, head.value.x) < 0) {
-            Node newHead = new Node(new Point(x, y));
-            newHead.next = head;
-            head = newHead;
-            count++;
-            logger.debug("Вставлена точка в начало, count={}", count);
-            return;
-        }
-
-        Node current = head;
-        Node prev = null;
-        while (current != null && Double.compare(current.value.x, x) < 0) {
-            prev = current;
-            current = current.next;
-        }
-
-        if (current != null && Double.compare(current.value.x, x) == 0) {
-            logger.debug("Точка с x={} существует, обновление Y с {} на {}", x, current.value.y, y);
-            current.value.y = y;
+        int insertIndex = -index - 1;
+        Node newNode = new Node(new Point(x, y));
+        if (insertIndex == 0) {
+            newNode.next = head;
+            head = newNode;
         } else {
-            Node newNode = new Node(new Point(x, y));
+            Node prev = nodes[insertIndex - 1];
+            newNode.next = prev.next;
             prev.next = newNode;
-            newNode.next = current;
-            count++;
-            logger.debug("Вставлена новая точка, count={}", count);
         }
+
+        if (count == nodes.length) {
+            nodes = Arrays.copyOf(nodes, count + (count >> 1) + 1);
+        }
+        System.arraycopy(nodes, insertIndex, nodes, insertIndex + 1, count - insertIndex);
+        nodes[insertIndex] = newNode;
+        count++;
+        logger.debug("Вставлена новая точка в позицию {}, count={}", insertIndex, count);
     }
 
     public int indexOfX(double x) {
-        logger.trace("Поиск индекса по X: {}", x);
-        int index = 0;
-        Node node = head;
-        while (node != null) {
-            if (Double.compare(node.value.x, x) == 0) {
-                logger.trace("Найден индекс {} для X={}", index, x);
-                return index;
-            }
-            node = node.next;
-            index++;
-        }
-        logger.trace("X={} не найден", x);
-        return -1;
+        int index = binarySearchX(x);
+        return index >= 0 ? index : -1;
     }
 
     public int indexOfY(double y) {
-        logger.trace("Поиск индекса по Y: {}", y);
         int index = 0;
         Node node = head;
         while (node != null) {
             if (Double.compare(node.value.y, y) == 0) {
-                logger.trace("Найден индекс {} для Y={}", index, y);
                 return index;
             }
             node = node.next;
             index++;
         }
-        logger.trace("Y={} не найден", y);
         return -1;
     }
 
@@ -215,9 +216,7 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
             logger.error("Попытка получить левую границу пустой функции");
             throw new IllegalStateException("Empty function");
         }
-        double result = head.value.x;
-        logger.trace("Левая граница: {}", result);
-        return result;
+        return head.value.x;
     }
 
     public double rightBound() {
@@ -225,69 +224,43 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
             logger.error("Попытка получить правую границу пустой функции");
             throw new IllegalStateException("Empty function");
         }
-        Node node = head;
-        while (node.next != null) {
-            node = node.next;
-        }
-        double result = node.value.x;
-        logger.trace("Правая граница: {}", result);
-        return result;
+        return nodes[count - 1].value.x;
     }
 
     protected int floorIndexOfX(double x) {
-        logger.trace("Поиск floorIndexOfX для x={}", x);
-
         if (count < 2) {
             logger.error("Недостаточно данных для поиска floorIndexOfX: count={}", count);
             throw new IllegalStateException("Insufficient data");
         }
 
         if (x < leftBound()) {
-            logger.trace("x={} меньше левой границы, возвращаем 0", x);
             return 0;
         }
         if (x >= rightBound()) {
-            logger.trace("x={} больше правой границы, возвращаем {}", x, count - 2);
             return count - 2;
         }
 
-        int index = 0;
-        Node node = head;
-        while (node.next != null && node.next.value.x <= x) {
-            node = node.next;
-            index++;
-        }
-
-        logger.trace("Найден floorIndexOfX: {} для x={}", index, x);
-        return index;
+        return floorIndexFromSearch(binarySearchX(x), count);
     }
 
     protected double extrapolateLeft(double x) {
-        logger.debug("Экстраполяция слева для x={}", x);
         double x0 = getX(0);
         double x1 = getX(1);
         double y0 = getY(0);
         double y1 = getY(1);
-        double result = interpolate(x, x0, x1, y0, y1);
-        logger.debug("Результат экстраполяции слева: {}", result);
-        return result;
+        return interpolate(x, x0, x1, y0, y1);
     }
 
     protected double extrapolateRight(double x) {
-        logger.debug("Экстраполяция справа для x={}", x);
         int last = getCount() - 1;
         double x0 = getX(last - 1);
         double x1 = getX(last);
         double y0 = getY(last - 1);
         double y1 = getY(last);
-        double result = interpolate(x, x0, x1, y0, y1);
-        logger.debug("Результат экстраполяции справа: {}", result);
-        return result;
+        return interpolate(x, x0, x1, y0, y1);
     }
 
     protected double interpolate(double x, int floorIndex) {
-        logger.debug("Интерполяция для x={} в интервале {}", x, floorIndex);
-
         if (floorIndex < 0 || floorIndex >= getCount() - 1) {
             logger.error("Некорректный floorIndex: {} (допустимо: 0..{})", floorIndex, getCount() - 2);
             throw new IllegalArgumentException("Invalid floor index");
@@ -303,22 +276,68 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
 
         double y0 = getY(floorIndex);
         double y1 = getY(floorIndex + 1);
-        double result = interpolate(x, x0, x1, y0, y1);
-        logger.debug("Результат интерполяции: {}", result);
-        return result;
+        return interpolate(x, x0, x1, y0, y1);
     }
 
     protected double interpolate(double x, double x0, double x1, double y0, double y1) {
-        logger.trace("Линейная интерполяция: x={}, x0={}, x1={}, y0={}, y1={}", x, x0, x1, y0, y1);
-
         if (Double.compare(x0, x1) == 0) {
-            logger.debug("Граничные точки совпадают, возвращаем среднее значение");
             return (y0 + y1) / 2.0;
         }
 
-        double result = y0 + (y1 - y0) * (x - x0) / (x1 - x0);
-        logger.trace("Результат линейной интерполяции: {}", result);
-        return result;
+        return y0 + (y1 - y0) * (x - x0) / (x1 - x0);
+    }
+
+    /**
+     * Вычисляет значения для диапазона аргументов одним проходом по списку:
+     * для возрастающих xs текущий узел только сдвигается вперед, поэтому
+     * весь проход стоит O(n + m) вместо O(n) на каждый аргумент
+     */
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        MathFunction.checkRange(xs, from, to, out);
+
+        if (count < 2) {
+            logger.error("Недостаточно данных для вычисления applyAll: count={}", count);
+            throw new IllegalStateException("Insufficient data");
+        }
+
+        Node first = head;
+        Node beforeLast = nodes[count - 2];
+        Node last = nodes[count - 1];
+
+        Node floor = head;
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            if (x < first.value.x) {
+                out[i] = interpolate(x, first.value.x, first.next.value.x, first.value.y, first.next.value.y);
+                continue;
+            }
+            if (x > last.value.x) {
+                out[i] = interpolate(x, beforeLast.value.x, last.value.x, beforeLast.value.y, last.value.y);
+                continue;
+            }
+
+            if (x < floor.value.x) {
+                floor = nodes[floorIndexOfX(x)];
+            }
+            while (floor != beforeLast && floor.next.value.x <= x) {
+                floor = floor.next;
+            }
+
+            Node right = floor.next;
+            if (floor.value.x == x) {
+                out[i] = floor.value.y;
+            } else if (right.value.x == x) {
+                out[i] = right.value.y;
+            } else {
+                out[i] = interpolate(x, floor.value.x, right.value.x, floor.value.y, right.value.y);
+            }
+        }
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        for (Node node = head; node != null; node = node.next) {
+            action.accept(node.value.x, node.value.y);
+        }
     }
 
     public LinkedListTabulatedFunction clone() {
@@ -344,6 +363,7 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
                 cloned.count = this.count;
                 logger.debug("Клонирована функция с {} точками", count);
             }
+            cloned.rebuildIndex();
             return cloned;
         } catch (CloneNotSupportedException e) {
             logger.error("Ошибка клонирования", e);
@@ -351,16 +371,55 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
         }
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        Node node = head;
+        for (int i = 0; i < count; i++) {
+            xValues[i] = node.value.x;
+            yValues[i] = node.value.y;
+            node = node.next;
+        }
+        out.putFields().put("count", count);
+        out.writeFields();
+        out.writeObject(xValues);
+        out.writeObject(yValues);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        count = fields.get("count", 0);
+        if (fields.getObjectStreamClass().getField("head") != null) {
+            // Прежний формат: поля count и head, цепочка узлов уже восстановлена потоком
+            head = (Node) fields.get("head", null);
+        } else {
+            double[] xValues = (double[]) in.readObject();
+            double[] yValues = (double[]) in.readObject();
+            if (xValues.length != count || yValues.length != count) {
+                throw new InvalidObjectException("Array length does not match count " + count);
+            }
+            head = null;
+            Node last = null;
+            for (int i = 0; i < count; i++) {
+                Node node = new Node(new Point(xValues[i], yValues[i]));
+                if (last == null) {
+                    head = node;
+                } else {
+                    last.next = node;
+                }
+                last = node;
+            }
+        }
+        rebuildIndex();
+    }
+
     public Iterator<Point> iterator() {
-        logger.trace("Создание итератора");
         return new Iterator<>() {
             private Node currentNode = head;
             private int currentIndex = 0;
 
             public boolean hasNext() {
-                boolean hasNext = currentIndex < count;
-                logger.trace("Проверка наличия следующей точки: {}", hasNext);
-                return hasNext;
+                return currentIndex < count;
             }
 
             public Point next() {
@@ -369,7 +428,6 @@ public class LinkedListTabulatedFunction extends AbstractTabulatedFunction imple
                     throw new NoSuchElementException("No more elements");
                 }
                 Point point = new Point(currentNode.value.x, currentNode.value.y);
-                logger.trace("Итератор вернул точку {}: [{}, {}]", currentIndex, point.x, point.y);
                 currentNode = currentNode.next;
                 currentIndex++;
                 return point;
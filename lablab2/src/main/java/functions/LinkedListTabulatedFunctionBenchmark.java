@@ -0,0 +1,260 @@
+package functions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Сравнение доступа по номеру, поиска по x и вставки в LinkedListTabulatedFunction
+ * (индексный слой) и в BaselineList - копии алгоритмов LinkedListTabulatedFunction
+ * до введения индекса (каждое обращение идет по списку от головы).
+ * Для списка без индекса на 10^6 точек обращение стоит O(n), поэтому число
+ * случайных обращений ограничено, а сравниваются времена на одно обращение
+ */
+public class LinkedListTabulatedFunctionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(LinkedListTabulatedFunctionBenchmark.class);
+
+    private static final int[] SIZES = {10_000, 1_000_000};
+    private static final int ACCESSES = 500;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        logger.info("Запуск LinkedListTabulatedFunctionBenchmark");
+
+        for (int size : SIZES) {
+            TabulatedFunction indexed = new LinkedListTabulatedFunction(new SqrFunction(), 0.0, 1.0, size);
+            BaselineList walking = new BaselineList(new SqrFunction(), 0.0, 1.0, size);
+            logger.info("Созданы функции на {} точек", size);
+
+            System.out.printf("n = %d%n", size);
+            report("getX/getY/setY, индекс", measureAccess(indexed));
+            report("getX/getY/setY, обход", measureAccess(walking));
+            report("apply, индекс", measureApply(indexed));
+            report("apply, обход", measureApply(walking));
+            report("insert, индекс", measureInsert((Insertable) indexed));
+            report("insert, обход", measureInsert(walking));
+        }
+
+        logger.info("LinkedListTabulatedFunctionBenchmark завершил работу");
+    }
+
+    private static void report(String name, double nanosPerCall) {
+        System.out.printf("  %-24s %12.1f нс/вызов%n", name, nanosPerCall);
+    }
+
+    // Возвращает лучшее время на одно обращение за несколько прогонов
+    private static double measureAccess(TabulatedFunction function) {
+        Random random = new Random(1);
+        int count = function.getCount();
+        double best = Double.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ACCESSES; i++) {
+                int index = random.nextInt(count);
+                double y = function.getY(index);
+                function.setY(index, y);
+                sink += function.getX(index) + y;
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / ACCESSES);
+        }
+        consume(sink);
+        return best;
+    }
+
+    private static double measureApply(TabulatedFunction function) {
+        Random random = new Random(2);
+        double best = Double.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ACCESSES; i++) {
+                sink += function.apply(random.nextDouble());
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / ACCESSES);
+        }
+        consume(sink);
+        return best;
+    }
+
+    private static double measureInsert(Insertable function) {
+        Random random = new Random(3);
+        long start = System.nanoTime();
+        for (int i = 0; i < ACCESSES; i++) {
+            function.insert(random.nextDouble(), 0.0);
+        }
+        return (double) (System.nanoTime() - start) / ACCESSES;
+    }
+
+    private static void consume(double sink) {
+        if (Double.isNaN(sink)) {
+            System.out.println(sink);
+        }
+    }
+
+    /**
+     * Алгоритмы LinkedListTabulatedFunction до введения индексного слоя, без трассировки:
+     * узел по номеру, indexOfX, floorIndexOfX, rightBound и insert обходят список от головы
+     */
+    private static final class BaselineList extends AbstractTabulatedFunction implements Insertable {
+        private static final class Node {
+            final double x;
+            double y;
+            Node next;
+
+            Node(double x, double y) {
+                this.x = x;
+                this.y = y;
+            }
+        }
+
+        private Node head;
+        private int count;
+
+        BaselineList(MathFunction func, double xFrom, double xTo, int count) {
+            double step = (xTo - xFrom) / (count - 1);
+            head = new Node(xFrom, func.apply(xFrom));
+            Node current = head;
+            for (int i = 1; i < count; i++) {
+                double x = xFrom + i * step;
+                current.next = new Node(x, func.apply(x));
+                current = current.next;
+            }
+            this.count = count;
+        }
+
+        private Node getNode(int index) {
+            if (index < 0 || index >= count) {
+                throw new IllegalArgumentException("Index out of bounds: " + index);
+            }
+            Node node = head;
+            for (int i = 0; i < index; i++) {
+                node = node.next;
+            }
+            return node;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getX(int index) {
+            return getNode(index).x;
+        }
+
+        public double getY(int index) {
+            return getNode(index).y;
+        }
+
+        public void setY(int index, double value) {
+            getNode(index).y = value;
+        }
+
+        public int indexOfX(double x) {
+            int index = 0;
+            for (Node node = head; node != null; node = node.next, index++) {
+                if (Double.compare(node.x, x) == 0) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        public int indexOfY(double y) {
+            int index = 0;
+            for (Node node = head; node != null; node = node.next, index++) {
+                if (Double.compare(node.y, y) == 0) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        public double leftBound() {
+            return head.x;
+        }
+
+        public double rightBound() {
+            Node node = head;
+            while (node.next != null) {
+                node = node.next;
+            }
+            return node.x;
+        }
+
+        public void insert(double x, double y) {
+            if (Double.compare(x, head.x) < 0) {
+                Node node = new Node(x, y);
+                node.next = head;
+                head = node;
+                count++;
+                return;
+            }
+            Node prev = null;
+            Node current = head;
+            while (current != null && Double.compare(current.x, x) < 0) {
+                prev = current;
+                current = current.next;
+            }
+            if (current != null && Double.compare(current.x, x) == 0) {
+                current.y = y;
+            } else {
+                Node node = new Node(x, y);
+                prev.next = node;
+                node.next = current;
+                count++;
+            }
+        }
+
+        protected int floorIndexOfX(double x) {
+            if (x < leftBound()) {
+                return 0;
+            }
+            if (x >= rightBound()) {
+                return count - 2;
+            }
+            int index = 0;
+            Node node = head;
+            while (node.next != null && node.next.x <= x) {
+                node = node.next;
+                index++;
+            }
+            return index;
+        }
+
+        protected double extrapolateLeft(double x) {
+            return interpolate(x, getX(0), getX(1), getY(0), getY(1));
+        }
+
+        protected double extrapolateRight(double x) {
+            int last = count - 1;
+            return interpolate(x, getX(last - 1), getX(last), getY(last - 1), getY(last));
+        }
+
+        protected double interpolate(double x, int floorIndex) {
+            return interpolate(x, getX(floorIndex), getX(floorIndex + 1), getY(floorIndex), getY(floorIndex + 1));
+        }
+
+        public Iterator<Point> iterator() {
+            return new Iterator<>() {
+                private Node node = head;
+
+                public boolean hasNext() {
+                    return node != null;
+                }
+
+                public Point next() {
+                    if (node == null) {
+                        throw new NoSuchElementException("No more elements");
+                    }
+                    Point point = new Point(node.x, node.y);
+                    node = node.next;
+                    return point;
+                }
+            };
+        }
+    }
+}
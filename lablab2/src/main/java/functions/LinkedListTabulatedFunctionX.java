@@ -255,6 +255,17 @@ public class LinkedListTabulatedFunctionX extends AbstractTabulatedFunctionX imp
         return interpolate(x, leftNode.x, rightNode.x, leftNode.y, rightNode.y);
     }
 
+    /**
+     * Обход точек по кольцевому списку без создания объектов Point
+     */
+    public void forEachPoint(DoubleBiConsumer action) {
+        Node node = head;
+        for (int i = 0; i < count; i++) {
+            action.accept(node.x, node.y);
+            node = node.next;
+        }
+    }
+
     /**
      * Реализация метода iterator() из интерфейса Iterable
      */
@@ -0,0 +1,132 @@
+package functions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+
+/**
+ * Декоратор табулированной функции с подробным журналированием каждого вызова.
+ * Сами реализации на горячем пути ничего не пишут в лог и не выделяют память,
+ * поэтому диагностика включается явно: функция оборачивается этим классом
+ * на время отладки, а уровень TRACE/DEBUG задается для его логгера
+ */
+public class LoggingTabulatedFunction implements TabulatedFunction {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingTabulatedFunction.class);
+
+    private final TabulatedFunction function;
+
+    public LoggingTabulatedFunction(TabulatedFunction function) {
+        if (function == null) {
+            throw new NullPointerException("Function must not be null");
+        }
+        this.function = function;
+        logger.debug("Создан LoggingTabulatedFunction для функции: {}", function.getClass().getSimpleName());
+    }
+
+    public TabulatedFunction getFunction() {
+        return function;
+    }
+
+    public int getCount() {
+        int count = function.getCount();
+        logger.trace("Получение количества точек: {}", count);
+        return count;
+    }
+
+    public double getX(int index) {
+        double x = function.getX(index);
+        logger.trace("X[{}] = {}", index, x);
+        return x;
+    }
+
+    public double getY(int index) {
+        double y = function.getY(index);
+        logger.trace("Y[{}] = {}", index, y);
+        return y;
+    }
+
+    public void setY(int index, double value) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Y[{}] изменен с {} на {}", index, function.getY(index), value);
+        }
+        function.setY(index, value);
+    }
+
+    public int indexOfX(double x) {
+        int index = function.indexOfX(x);
+        logger.trace("Поиск индекса по X={}, результат: {}", x, index);
+        return index;
+    }
+
+    public int indexOfY(double y) {
+        int index = function.indexOfY(y);
+        logger.trace("Поиск индекса по Y={}, результат: {}", y, index);
+        return index;
+    }
+
+    public double leftBound() {
+        double bound = function.leftBound();
+        logger.trace("Левая граница: {}", bound);
+        return bound;
+    }
+
+    public double rightBound() {
+        double bound = function.rightBound();
+        logger.trace("Правая граница: {}", bound);
+        return bound;
+    }
+
+    public double apply(double x) {
+        double result = function.apply(x);
+        if (logger.isDebugEnabled()) {
+            if (x < function.leftBound()) {
+                logger.debug("apply({}) = {}: экстраполяция слева", x, result);
+            } else if (x > function.rightBound()) {
+                logger.debug("apply({}) = {}: экстраполяция справа", x, result);
+            } else {
+                int exactIndex = function.indexOfX(x);
+                if (exactIndex != -1) {
+                    logger.debug("apply({}) = {}: точное совпадение в индексе {}", x, result, exactIndex);
+                } else {
+                    logger.debug("apply({}) = {}: интерполяция", x, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        logger.debug("Вычисление applyAll для {} аргументов", to - from);
+        function.applyAll(xs, from, to, out);
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        logger.debug("Обход {} точек через forEachPoint", function.getCount());
+        function.forEachPoint(action);
+    }
+
+    public Iterator<Point> iterator() {
+        logger.trace("Создание итератора");
+        Iterator<Point> iterator = function.iterator();
+        return new Iterator<Point>() {
+            private int index = 0;
+
+            public boolean hasNext() {
+                boolean hasNext = iterator.hasNext();
+                logger.trace("Проверка наличия следующей точки: {}", hasNext);
+                return hasNext;
+            }
+
+            public Point next() {
+                Point point = iterator.next();
+                logger.trace("Итератор вернул точку {}: [{}, {}]", index++, point.x, point.y);
+                return point;
+            }
+        };
+    }
+
+    public String toString() {
+        return function.toString();
+    }
+}
@@ -0,0 +1,340 @@
+package functions;
+
+import exceptions.InterpolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Табулированная функция, отображенная в память из файла в двоичном формате
+ * FunctionsIO.writeTabulatedFunction: int count, затем count пар (x, y) типа double,
+ * все в порядке big-endian. Открытие не читает точки, а только отображает файл,
+ * поэтому не зависит от размера таблицы и не занимает память в куче.
+ * Файл считается корректным (x строго возрастают) - проверяется только его длина.
+ * После close() любое обращение к точкам бросает IllegalStateException.
+ * Если функцию не закрыли, отображение снимается (а временный файл удаляется),
+ * когда она становится недостижимой
+ */
+public class MappedTabulatedFunction extends AbstractTabulatedFunction implements Closeable, IndexedAccess {
+    private static final Logger logger = LoggerFactory.getLogger(MappedTabulatedFunction.class);
+
+    static final ValueLayout.OfInt COUNT_LAYOUT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfDouble VALUE_LAYOUT = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final long HEADER_SIZE = Integer.BYTES;
+    static final long POINT_SIZE = 2L * Double.BYTES;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int count;
+    private final boolean writable;
+    private final Release release;
+    private final Cleaner.Cleanable cleanable;
+
+    // Снимает отображение и удаляет временный файл. Не ссылается на функцию, поэтому Cleaner
+    // может выполнить его, когда функция стала недостижимой; выполняется не больше одного раза
+    private static final class Release implements Runnable {
+        private final Arena arena;
+        private final Path deleteOnClose;
+        private IOException failure;
+
+        Release(Arena arena, Path deleteOnClose) {
+            this.arena = arena;
+            this.deleteOnClose = deleteOnClose;
+        }
+
+        public void run() {
+            arena.close();
+            logger.debug("Отображение файла закрыто");
+            if (deleteOnClose != null) {
+                try {
+                    Files.deleteIfExists(deleteOnClose);
+                } catch (IOException e) {
+                    logger.warn("Не удалось удалить временный файл {}: {}", deleteOnClose, e.toString());
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Отображает файл только для чтения
+     */
+    public static MappedTabulatedFunction open(Path path) throws IOException {
+        return open(path, false);
+    }
+
+    /**
+     * Отображает файл; при writable = true setY пишет прямо в файл
+     */
+    public static MappedTabulatedFunction open(Path path, boolean writable) throws IOException {
+        return map(path, writable, null);
+    }
+
+    /**
+     * Записывает точки в новый файл в формате writeTabulatedFunction и отображает его для записи
+     * @param deleteOnClose удалять ли файл при закрытии функции
+     */
+    public static MappedTabulatedFunction create(Path path, double[] xValues, double[] yValues,
+                                                 boolean deleteOnClose) throws IOException {
+        if (xValues == null || yValues == null) {
+            logger.error("Один из массивов равен null");
+            throw new NullPointerException("Arrays must not be null");
+        }
+        if (xValues.length < 2) {
+            logger.error("Недостаточно точек: {}", xValues.length);
+            throw new IllegalArgumentException("At least 2 points are required");
+        }
+        checkLengthIsTheSame(xValues, yValues);
+        checkSorted(xValues);
+
+        int count = xValues.length;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             Arena writeArena = Arena.ofConfined()) {
+            MemorySegment target = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(count), writeArena);
+            target.set(COUNT_LAYOUT, 0, count);
+            for (int i = 0; i < count; i++) {
+                target.set(VALUE_LAYOUT, xOffset(i), xValues[i]);
+                target.set(VALUE_LAYOUT, xOffset(i) + Double.BYTES, yValues[i]);
+            }
+            target.force();
+        }
+        return map(path, true, deleteOnClose ? path : null);
+    }
+
+    private static MappedTabulatedFunction map(Path path, boolean writable, Path deleteOnClose) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("File is too short for a tabulated function: " + path);
+            }
+            MemorySegment segment = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, size, arena);
+            int count = segment.get(COUNT_LAYOUT, 0);
+            if (count < 2 || size != fileSize(count)) {
+                throw new IOException("Invalid tabulated function file " + path + ": count=" + count + ", size=" + size);
+            }
+
+            logger.info("Отображен файл {} с {} точками", path, count);
+            return new MappedTabulatedFunction(arena, segment, count, writable, deleteOnClose);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private MappedTabulatedFunction(Arena arena, MemorySegment segment, int count, boolean writable, Path deleteOnClose) {
+        this.arena = arena;
+        this.segment = segment;
+        this.count = count;
+        this.writable = writable;
+        this.release = new Release(arena, deleteOnClose);
+        this.cleanable = CLEANER.register(this, release);
+    }
+
+    private static long fileSize(int count) {
+        return HEADER_SIZE + count * POINT_SIZE;
+    }
+
+    private static long xOffset(int index) {
+        return HEADER_SIZE + index * POINT_SIZE;
+    }
+
+    // Без проверки индекса - для внутренних обращений с заведомо корректным индексом
+    private double x(int index) {
+        return segment.get(VALUE_LAYOUT, xOffset(index));
+    }
+
+    private double y(int index) {
+        return segment.get(VALUE_LAYOUT, xOffset(index) + Double.BYTES);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, count - 1);
+            throw new IllegalArgumentException("Index out of bounds: " + index);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return x(index);
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return y(index);
+    }
+
+    public void setY(int index, double value) {
+        checkIndex(index);
+        if (!writable) {
+            logger.error("Попытка изменить функцию, отображенную только для чтения");
+            throw new UnsupportedOperationException("Function is mapped read-only");
+        }
+        segment.set(VALUE_LAYOUT, xOffset(index) + Double.BYTES, value);
+    }
+
+    public int indexOfX(double x) {
+        int index = binarySearchX(x);
+        return index >= 0 ? index : -1;
+    }
+
+    // Тот же поиск, что в базовом классе, но без проверки индекса на каждом шаге
+    protected int binarySearchX(double x) {
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(x(mid), x);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public int indexOfY(double y) {
+        for (int i = 0; i < count; i++) {
+            if (Double.compare(y(i), y) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double leftBound() {
+        return x(0);
+    }
+
+    public double rightBound() {
+        return x(count - 1);
+    }
+
+    protected int floorIndexOfX(double x) {
+        if (x < x(0)) {
+            return 0;
+        }
+        if (x >= x(count - 1)) {
+            return count - 2;
+        }
+        return floorIndexFromSearch(binarySearchX(x), count);
+    }
+
+    protected double extrapolateLeft(double x) {
+        return interpolate(x, x(0), x(1), y(0), y(1));
+    }
+
+    protected double extrapolateRight(double x) {
+        return interpolate(x, x(count - 2), x(count - 1), y(count - 2), y(count - 1));
+    }
+
+    protected double interpolate(double x, int floorIndex) {
+        if (floorIndex < 0 || floorIndex >= count - 1) {
+            logger.error("Некорректный floorIndex: {} (допустимо: 0..{})", floorIndex, count - 2);
+            throw new IllegalArgumentException("Invalid floor index: " + floorIndex);
+        }
+
+        double leftX = x(floorIndex), rightX = x(floorIndex + 1);
+        if (x < leftX || x > rightX) {
+            logger.error("x={} вне интервала интерполяции [{}, {}]", x, leftX, rightX);
+            throw new InterpolationException("x is outside the interpolation interval [" + leftX + ", " + rightX + "]");
+        }
+
+        return interpolate(x, leftX, rightX, y(floorIndex), y(floorIndex + 1));
+    }
+
+    public double apply(double x) {
+        if (x < x(0)) {
+            return extrapolateLeft(x);
+        }
+        if (x > x(count - 1)) {
+            return extrapolateRight(x);
+        }
+
+        int floorIndex = floorIndexOfX(x);
+        double leftX = x(floorIndex), rightX = x(floorIndex + 1);
+        if (leftX == x) {
+            return y(floorIndex);
+        }
+        if (rightX == x) {
+            return y(floorIndex + 1);
+        }
+        return interpolate(x, leftX, rightX, y(floorIndex), y(floorIndex + 1));
+    }
+
+    public void forEachPoint(DoubleBiConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(x(i), y(i));
+        }
+    }
+
+    /**
+     * Сбрасывает изменения, сделанные через setY, на диск
+     */
+    public void force() {
+        if (writable) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Снимает отображение файла; для функций из фабрики удаляет и сам файл
+     */
+    public void close() throws IOException {
+        if (!arena.scope().isAlive()) {
+            return;
+        }
+        cleanable.clean();
+        if (release.failure != null) {
+            throw release.failure;
+        }
+    }
+
+    public Iterator<Point> iterator() {
+        return new Iterator<Point>() {
+            private int i = 0;
+
+            public boolean hasNext() {
+                return i < count;
+            }
+
+            public Point next() {
+                if (!hasNext()) {
+                    logger.error("Попытка получить следующую точку при отсутствии элементов");
+                    throw new NoSuchElementException();
+                }
+                Point point = new Point(x(i), y(i));
+                i++;
+                return point;
+            }
+        };
+    }
+}
@@ -6,4 +6,39 @@ public interface MathFunction {
     default MathFunction andThen(MathFunction after) {
         return x -> after.apply(this.apply(x));
     }
-}
\ No newline at end of file
+
+    /**
+     * Вычисляет значения функции для всех аргументов массива: out[i] = apply(xs[i])
+     * Массив out может совпадать с xs
+     * @param xs аргументы
+     * @param out массив для результатов, не короче xs
+     */
+    default void applyAll(double[] xs, double[] out) {
+        applyAll(xs, 0, xs.length, out);
+    }
+
+    /**
+     * Вычисляет значения функции для аргументов xs[from..to): out[i] = apply(xs[i])
+     * Реализации переопределяют метод, чтобы обработать весь диапазон одним проходом
+     * @param xs аргументы
+     * @param from начальный индекс (включительно)
+     * @param to конечный индекс (не включительно)
+     * @param out массив для результатов, результат пишется по тем же индексам
+     */
+    default void applyAll(double[] xs, int from, int to, double[] out) {
+        checkRange(xs, from, to, out);
+        for (int i = from; i < to; i++) {
+            out[i] = apply(xs[i]);
+        }
+    }
+
+    /**
+     * Проверяет корректность диапазона для applyAll
+     */
+    static void checkRange(double[] xs, int from, int to, double[] out) {
+        if (from < 0 || from > to || to > xs.length || to > out.length) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for arrays of length "
+                    + xs.length + " and " + out.length);
+        }
+    }
+}
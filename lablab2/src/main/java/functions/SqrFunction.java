@@ -2,4 +2,12 @@ package functions;
 
 public class SqrFunction implements MathFunction {
     public double apply(double x) {return Math.pow(x, 2);}
-}
\ No newline at end of file
+
+    public void applyAll(double[] xs, int from, int to, double[] out) {
+        MathFunction.checkRange(xs, from, to, out);
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            out[i] = x * x;
+        }
+    }
+}
@@ -59,4 +59,16 @@ public interface TabulatedFunction extends MathFunction, Iterable<Point> {
      * @return максимальное значение x
      */
     double rightBound();
+
+    /**
+     * Передает все точки по возрастанию x в обработчик, не создавая объектов Point.
+     * Реализации переопределяют метод прямым обходом своего хранилища
+     * @param action обработчик пары (x, y)
+     */
+    default void forEachPoint(DoubleBiConsumer action) {
+        int count = getCount();
+        for (int i = 0; i < count; i++) {
+            action.accept(getX(i), getY(i));
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package functions.factory;
+
+import functions.GrowableArrayTabulatedFunction;
+import functions.TabulatedFunction;
+
+/**
+ * Фабрика для создания табулированных функций на массивах с запасом емкости
+ */
+public class GrowableArrayTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+    /**
+     * Создает табулированную функцию на массивах с запасом емкости
+     * xValues массив значений x
+     * yValues массив значений y
+     * новая GrowableArrayTabulatedFunction
+     */
+    @Override
+    public TabulatedFunction create(double[] xValues, double[] yValues) {
+        return new GrowableArrayTabulatedFunction(xValues, yValues);
+    }
+}
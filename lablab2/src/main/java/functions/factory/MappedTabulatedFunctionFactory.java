@@ -0,0 +1,52 @@
+package functions.factory;
+
+import functions.MappedTabulatedFunction;
+import functions.TabulatedFunction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Фабрика табулированных функций, отображенных в память.
+ * Каждая функция записывается во временный файл в указанном каталоге;
+ * файл удаляется при закрытии функции (MappedTabulatedFunction.close), а если ее
+ * не закрыли (результаты операций и чтения из FunctionsIO) - когда она станет недостижимой
+ */
+public class MappedTabulatedFunctionFactory implements TabulatedFunctionFactory {
+
+    private final Path directory;
+
+    public MappedTabulatedFunctionFactory(Path directory) {
+        if (directory == null) {
+            throw new NullPointerException("Directory must not be null");
+        }
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Создает функцию, отображенную в память из нового временного файла
+     * xValues массив значений x
+     * yValues массив значений y
+     * новая MappedTabulatedFunction
+     */
+    @Override
+    public TabulatedFunction create(double[] xValues, double[] yValues) {
+        try {
+            Path file = Files.createTempFile(directory, "tabulated", ".bin");
+            try {
+                return MappedTabulatedFunction.create(file, xValues, yValues, true);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create mapped function in " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * FUNCTIONS функций по POINTS точек: файл из объектов ObjectOutputStream подряд, где
+ * для последней функции приходится десериализовать все предыдущие, против
+ * TabulatedFunctionArchive - чтение последней функции по имени и загрузка всех функций
+ * в одном и в нескольких потоках
+ */
+public class ArchiveBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveBenchmark.class);
+
+    private static final int FUNCTIONS = 1000;
+    private static final int POINTS = 5000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        logger.info("Запуск ArchiveBenchmark: {} функций по {} точек, {} потоков", FUNCTIONS, POINTS, threads);
+        Map<String, TabulatedFunction> functions = new LinkedHashMap<>();
+        for (int i = 0; i < FUNCTIONS; i++) {
+            functions.put("f" + i, new ArrayTabulatedFunction(new SqrFunction(), i, i + 1, POINTS));
+        }
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+        Path sequence = Files.createTempFile("benchmark", ".bin");
+        Path archiveFile = Files.createTempFile("benchmark", ".tba");
+
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(sequence)))) {
+                for (TabulatedFunction function : functions.values()) {
+                    out.writeObject(function);
+                }
+            }
+            TabulatedFunctionArchive.write(archiveFile, functions);
+
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                Object last = null;
+                try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(sequence)))) {
+                    for (int i = 0; i < FUNCTIONS; i++) {
+                        last = in.readObject();
+                    }
+                }
+                long sequential = System.nanoTime() - start;
+
+                long lookup;
+                long single;
+                long parallel;
+                try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(archiveFile)) {
+                    start = System.nanoTime();
+                    TabulatedFunction fromArchive = archive.read("f" + (FUNCTIONS - 1), factory);
+                    lookup = System.nanoTime() - start;
+                    if (!fromArchive.equals(last)) {
+                        throw new IllegalStateException("Archive and object stream disagree");
+                    }
+
+                    start = System.nanoTime();
+                    archive.readAll(factory, 1);
+                    single = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    archive.readAll(factory, threads);
+                    parallel = System.nanoTime() - start;
+                }
+                System.out.printf("раунд %d  последняя из потока объектов: %6.1f мс, из архива: %6.3f мс;"
+                                + "  все из архива: 1 поток %6.1f мс, %d потоков %6.1f мс%n",
+                        round, sequential / 1e6, lookup / 1e6, single / 1e6, threads, parallel / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(sequence);
+            Files.deleteIfExists(archiveFile);
+        }
+
+        logger.info("ArchiveBenchmark завершил работу");
+    }
+}
@@ -0,0 +1,83 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Запись и чтение функции из POINTS точек: прежний формат через DataOutputStream/DataInputStream
+ * по одному double против формата версии 2 блоками через FileChannel.
+ * Файлы читаются сразу после записи, поэтому обычно из страничного кэша - измеряется
+ * именно процессорная стоимость кодирования
+ */
+public class BinaryFormatBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryFormatBenchmark.class);
+
+    private static final int POINTS = 10_000_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        logger.info("Запуск BinaryFormatBenchmark на {} точках", POINTS);
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, POINTS);
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+        Path version1 = Files.createTempFile("benchmark", ".bin");
+        Path version2 = Files.createTempFile("benchmark", ".tbf");
+
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(version1))) {
+                    FunctionsIO.writeTabulatedFunction(out, function);
+                }
+                long writeV1 = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                TabulatedFunction readV1 = readPerValue(version1);
+                long readTimeV1 = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                BinaryTabulatedFunctionCodec.write(version2, function);
+                long writeV2 = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                TabulatedFunction readV2 = BinaryTabulatedFunctionCodec.read(version2, factory);
+                long readTimeV2 = System.nanoTime() - start;
+
+                if (readV1.getY(POINTS - 1) != readV2.getY(POINTS - 1)) {
+                    throw new IllegalStateException("Formats disagree");
+                }
+                System.out.printf("раунд %d  v1: запись %5d мс, чтение %5d мс   v2: запись %5d мс, чтение %5d мс%n",
+                        round, writeV1 / 1_000_000, readTimeV1 / 1_000_000, writeV2 / 1_000_000, readTimeV2 / 1_000_000);
+            }
+        } finally {
+            Files.deleteIfExists(version1);
+            Files.deleteIfExists(version2);
+        }
+
+        logger.info("BinaryFormatBenchmark завершил работу");
+    }
+
+    // Прежний способ чтения: readDouble на каждое значение
+    private static TabulatedFunction readPerValue(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int count = in.readInt();
+            double[] xValues = new double[count];
+            double[] yValues = new double[count];
+            for (int i = 0; i < count; i++) {
+                xValues[i] = in.readDouble();
+                yValues[i] = in.readDouble();
+            }
+            return new ArrayTabulatedFunction(xValues, yValues);
+        }
+    }
+}
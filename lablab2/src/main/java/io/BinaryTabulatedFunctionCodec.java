@@ -0,0 +1,275 @@
+package io;
+
+import functions.DoubleBiConsumer;
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат табулированных функций версии 2 (все числа big-endian):
+ * <pre>
+ * int    magic = 0x89544246 ("\x89TBF")
+ * short  version = 2
+ * short  flags = 0 (зарезервировано)
+ * int    count
+ * double x[count]
+ * double y[count]
+ * int    CRC32C всех предыдущих байтов
+ * </pre>
+ * Блоки x и y передаются через ByteBuffer кусками по BLOCK_SIZE байт, без DataInputStream
+ * и поэлементных вызовов канала. Чтение распознает и формат FunctionsIO.writeTabulatedFunction
+ * (версия 1: int count и пары x, y): magic отрицателен, а count версии 1 - нет
+ */
+public final class BinaryTabulatedFunctionCodec {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryTabulatedFunctionCodec.class);
+
+    public static final int MAGIC = 0x89544246;
+    public static final short VERSION = 2;
+    static final int HEADER_SIZE = 12;
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private BinaryTabulatedFunctionCodec() {
+        throw new UnsupportedOperationException("Создание экземпляров класса BinaryTabulatedFunctionCodec запрещено");
+    }
+
+    /**
+     * Записывает функцию в файл в формате версии 2, заменяя его содержимое
+     */
+    public static void write(Path path, TabulatedFunction function) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel, function);
+        }
+    }
+
+    /**
+     * Записывает функцию в канал в формате версии 2; канал не закрывается
+     */
+    public static void write(WritableByteChannel channel, TabulatedFunction function) throws IOException {
+        int count = function.getCount();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        CRC32C crc = new CRC32C();
+
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count);
+        BlockWriter writer = new BlockWriter(channel, buffer, crc);
+        try {
+            // Два прохода по точкам: сначала блок x, затем блок y
+            function.forEachPoint(writer.xColumn);
+            function.forEachPoint(writer.yColumn);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (writer.written != 2L * count) {
+            logger.error("Число точек изменилось во время записи: ожидалось {}, записано {}", count, writer.written / 2);
+            throw new IllegalStateException("Function was modified while being written");
+        }
+
+        flush(channel, buffer, crc);
+        buffer.putInt((int) crc.getValue());
+        flush(channel, buffer, null);
+        logger.debug("Записана функция из {} точек в формате версии {}", count, VERSION);
+    }
+
+    // Накапливает значения в буфере и сбрасывает его в канал по заполнении
+    private static final class BlockWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32C crc;
+        private long written;
+
+        final DoubleBiConsumer xColumn = (x, y) -> put(x);
+        final DoubleBiConsumer yColumn = (x, y) -> put(y);
+
+        BlockWriter(WritableByteChannel channel, ByteBuffer buffer, CRC32C crc) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.crc = crc;
+        }
+
+        private void put(double value) {
+            if (buffer.remaining() < Double.BYTES) {
+                try {
+                    flush(channel, buffer, crc);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            buffer.putDouble(value);
+            written++;
+        }
+    }
+
+    // Записывает содержимое буфера в канал целиком, учитывая его в CRC, и очищает буфер
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        if (crc != null) {
+            crc.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Читает функцию из файла в формате версии 2 или 1
+     */
+    public static TabulatedFunction read(Path path, TabulatedFunctionFactory factory) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, factory);
+        }
+    }
+
+    /**
+     * Читает функцию из канала в формате версии 2 или 1; канал не закрывается.
+     * Для версии 2 проверяются заголовок и контрольная сумма
+     * @throws IOException при ошибке ввода-вывода, неожиданном конце данных или поврежденных данных
+     */
+    public static TabulatedFunction read(ReadableByteChannel channel, TabulatedFunctionFactory factory) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        buffer.limit(Integer.BYTES);
+        fill(channel, buffer);
+        buffer.flip();
+        int first = buffer.getInt(0);
+
+        if (first != MAGIC) {
+            if (first < 0) {
+                throw new IOException("Not a tabulated function: unknown header " + Integer.toHexString(first));
+            }
+            return readVersion1(channel, buffer, first, factory);
+        }
+
+        CRC32C crc = new CRC32C();
+        buffer.clear().limit(HEADER_SIZE);
+        buffer.putInt(first);
+        fill(channel, buffer);
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        buffer.getInt();
+        short version = buffer.getShort();
+        short flags = buffer.getShort();
+        int count = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported tabulated function format version: " + version);
+        }
+        if (flags != 0) {
+            throw new IOException("Unsupported tabulated function format flags: " + flags);
+        }
+        if (count < 0) {
+            throw new IOException("Negative point count: " + count);
+        }
+
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        readColumn(channel, buffer, crc, xValues);
+        readColumn(channel, buffer, crc, yValues);
+
+        buffer.clear().limit(Integer.BYTES);
+        fill(channel, buffer);
+        int expected = buffer.flip().getInt();
+        if (expected != (int) crc.getValue()) {
+            logger.error("Контрольная сумма не совпала: ожидалась {}, вычислена {}",
+                    Integer.toHexString(expected), Long.toHexString(crc.getValue()));
+            throw new IOException("Tabulated function checksum mismatch");
+        }
+
+        logger.debug("Прочитана функция из {} точек в формате версии {}", count, VERSION);
+        return factory.create(xValues, yValues);
+    }
+
+    /**
+     * Читает функцию формата версии 2, записанную с позиции буфера (например, участок
+     * отображенного в память файла); позиция и лимит source не меняются, поэтому один буфер
+     * можно читать из нескольких потоков
+     * @throws IOException если данные обрезаны или повреждены
+     */
+    static TabulatedFunction read(ByteBuffer source, TabulatedFunctionFactory factory) throws IOException {
+        ByteBuffer buffer = source.slice().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE + Integer.BYTES) {
+            throw new EOFException("Unexpected end of tabulated function data");
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || buffer.getShort(6) != 0) {
+            throw new IOException("Not a tabulated function in format version " + VERSION);
+        }
+        int count = buffer.getInt(8);
+        if (count < 0) {
+            throw new IOException("Negative point count: " + count);
+        }
+        long size = HEADER_SIZE + 2L * count * Double.BYTES;
+        if (size + Integer.BYTES > buffer.remaining()) {
+            throw new EOFException("Unexpected end of tabulated function data");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, (int) size));
+        if (buffer.getInt((int) size) != (int) crc.getValue()) {
+            logger.error("Контрольная сумма не совпала для функции из {} точек", count);
+            throw new IOException("Tabulated function checksum mismatch");
+        }
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        buffer.slice(HEADER_SIZE, count * Double.BYTES).asDoubleBuffer().get(xValues);
+        buffer.slice(HEADER_SIZE + count * Double.BYTES, count * Double.BYTES).asDoubleBuffer().get(yValues);
+        return factory.create(xValues, yValues);
+    }
+
+    private static void readColumn(ReadableByteChannel channel, ByteBuffer buffer, CRC32C crc,
+                                   double[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            int chunk = Math.min(values.length - offset, BLOCK_SIZE / Double.BYTES);
+            buffer.clear().limit(chunk * Double.BYTES);
+            fill(channel, buffer);
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            buffer.asDoubleBuffer().get(values, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    // Формат версии 1: заголовок count уже прочитан, дальше пары x, y
+    private static TabulatedFunction readVersion1(ReadableByteChannel channel, ByteBuffer buffer, int count,
+                                                  TabulatedFunctionFactory factory) throws IOException {
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        int pairsPerBlock = BLOCK_SIZE / (2 * Double.BYTES);
+
+        int offset = 0;
+        while (offset < count) {
+            int chunk = Math.min(count - offset, pairsPerBlock);
+            buffer.clear().limit(chunk * 2 * Double.BYTES);
+            fill(channel, buffer);
+            buffer.flip();
+            for (int i = 0; i < chunk; i++) {
+                xValues[offset + i] = buffer.getDouble();
+                yValues[offset + i] = buffer.getDouble();
+            }
+            offset += chunk;
+        }
+
+        logger.debug("Прочитана функция из {} точек в формате версии 1", count);
+        return factory.create(xValues, yValues);
+    }
+
+    // Читает из канала до заполнения буфера до limit
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of tabulated function data");
+            }
+        }
+    }
+}
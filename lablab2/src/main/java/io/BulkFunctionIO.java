@@ -0,0 +1,395 @@
+package io;
+
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectStreamConstants;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Параллельная загрузка и сохранение многих файлов функций: каждый файл обрабатывается
+ * в своем виртуальном потоке, поэтому ожидание диска не занимает потоки платформы.
+ * Объем данных в обработке ограничен семафором в байтах - одновременно в памяти находится
+ * не больше maxInFlightBytes (файл крупнее лимита обрабатывается в одиночку). При загрузке
+ * файл учитывается вместе с массивами x и y, в которые он раскрывается: число точек берется
+ * из заголовка, поэтому сжатый файл резервирует свой размер после декодирования, а не на диске.
+ * Файлы .bin, записанные ObjectOutputStream (FunctionsIO.serialize), не загружаются -
+ * они попадают в ошибки как сериализованные объекты.
+ *
+ * Ошибка одного файла не прерывает пакет: она попадает в Result.getErrors(), остальные
+ * файлы обрабатываются дальше
+ */
+public class BulkFunctionIO {
+    private static final Logger logger = LoggerFactory.getLogger(BulkFunctionIO.class);
+
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 64L << 20;
+
+    // Сколько байт начала файла читается для определения числа точек
+    static final int HEADER_PROBE_BYTES = 32;
+
+    /**
+     * Формат файла, определяемый по расширению
+     */
+    public enum Format {
+        /**
+         * Текст TabulatedFunctionTextCodec, ".txt"
+         */
+        TEXT(".txt"),
+        /**
+         * Двоичный формат BinaryTabulatedFunctionCodec (читается и версия 1), ".tbf" или ".bin";
+         * .bin с потоком ObjectOutputStream (0xACED) отклоняется как сериализованный объект
+         */
+        BINARY(".tbf"),
+        /**
+         * Сжатый формат GorillaTabulatedFunctionCodec, ".tbg"
+         */
+        COMPRESSED(".tbg");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @return формат по расширению файла или null, если расширение неизвестно
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".txt")) {
+                return TEXT;
+            }
+            if (name.endsWith(".tbf") || name.endsWith(".bin")) {
+                return BINARY;
+            }
+            if (name.endsWith(".tbg")) {
+                return COMPRESSED;
+            }
+            return null;
+        }
+
+        // Верхняя оценка размера файла для семафора
+        long estimateBytes(int count) {
+            switch (this) {
+                case TEXT:
+                    return 16 + (long) count * (2 * DoubleFormatter.MAX_CHARS + 2);
+                case COMPRESSED:
+                    return GorillaTabulatedFunctionCodec.HEADER_SIZE + (long) count * 2 * (Double.BYTES + 1)
+                            + (count / GorillaTabulatedFunctionCodec.DEFAULT_BLOCK_POINTS + 1)
+                            * GorillaTabulatedFunctionCodec.FRAME_HEADER_SIZE;
+                default:
+                    return BinaryTabulatedFunctionCodec.HEADER_SIZE + (long) count * 2 * Double.BYTES + Integer.BYTES;
+            }
+        }
+
+        /**
+         * Объем массивов x и y, объявленный в заголовке файла
+         * @param header начало файла (до HEADER_PROBE_BYTES байт)
+         * @return count * 16 или 0, если число точек в заголовке не найдено
+         */
+        long decodedBytes(byte[] header) {
+            long count = -1;
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            switch (this) {
+                case TEXT:
+                    count = parseCount(header);
+                    break;
+                case COMPRESSED:
+                    if (header.length >= GorillaTabulatedFunctionCodec.HEADER_SIZE
+                            && buffer.getInt(0) == GorillaTabulatedFunctionCodec.MAGIC) {
+                        count = buffer.getInt(8);
+                    }
+                    break;
+                default:
+                    if (header.length >= BinaryTabulatedFunctionCodec.HEADER_SIZE
+                            && buffer.getInt(0) == BinaryTabulatedFunctionCodec.MAGIC) {
+                        count = buffer.getInt(8);
+                    } else if (header.length >= Integer.BYTES) {
+                        // Версия 1 начинается с count
+                        count = buffer.getInt(0);
+                    }
+                    break;
+            }
+            return count > 0 ? count * 2 * Double.BYTES : 0;
+        }
+
+        // Число в первой строке текстового формата или -1
+        private static long parseCount(byte[] header) {
+            int i = 0;
+            while (i < header.length && (header[i] == ' ' || header[i] == '\t')) {
+                i++;
+            }
+            long count = -1;
+            for (; i < header.length && header[i] >= '0' && header[i] <= '9' && count < Integer.MAX_VALUE; i++) {
+                count = Math.max(count, 0) * 10 + (header[i] - '0');
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Итог пакетной операции
+     * @param <T> тип результата для одной функции
+     */
+    public static final class Result<T> {
+        private final Map<String, T> values;
+        private final Map<Path, Exception> errors;
+
+        Result(Map<String, T> values, Map<Path, Exception> errors) {
+            this.values = Collections.unmodifiableMap(new TreeMap<>(values));
+            this.errors = Collections.unmodifiableMap(new TreeMap<>(errors));
+        }
+
+        /**
+         * Успешные результаты по именам функций (имя файла без расширения)
+         */
+        public Map<String, T> getValues() {
+            return values;
+        }
+
+        /**
+         * Ошибки по файлам
+         */
+        public Map<Path, Exception> getErrors() {
+            return errors;
+        }
+
+        public boolean isSuccessful() {
+            return errors.isEmpty();
+        }
+    }
+
+    private final int maxInFlightBytes;
+    private final Semaphore inFlight;
+
+    public BulkFunctionIO() {
+        this(DEFAULT_MAX_IN_FLIGHT_BYTES);
+    }
+
+    /**
+     * @param maxInFlightBytes наибольший объем содержимого файлов, одновременно находящийся в обработке
+     */
+    public BulkFunctionIO(long maxInFlightBytes) {
+        if (maxInFlightBytes < 1 || maxInFlightBytes > Integer.MAX_VALUE) {
+            logger.error("Некорректный лимит байтов в обработке: {}", maxInFlightBytes);
+            throw new IllegalArgumentException("In-flight byte limit must be in [1, 2^31): " + maxInFlightBytes);
+        }
+        this.maxInFlightBytes = (int) maxInFlightBytes;
+        this.inFlight = new Semaphore(this.maxInFlightBytes, true);
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * Загружает все файлы известных форматов из каталога (без подкаталогов)
+     */
+    public Result<TabulatedFunction> loadDirectory(Path directory, TabulatedFunctionFactory factory)
+            throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                file -> Files.isRegularFile(file) && Format.of(file) != null)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return loadAll(files, factory);
+    }
+
+    /**
+     * Загружает файлы параллельно; формат определяется по расширению.
+     * Функция получает имя файла без расширения; файлы с одинаковыми именами считаются ошибкой
+     */
+    public Result<TabulatedFunction> loadAll(Collection<Path> files, TabulatedFunctionFactory factory)
+            throws InterruptedException {
+        Map<String, TabulatedFunction> values = new ConcurrentHashMap<>();
+        Map<Path, Exception> errors = new ConcurrentHashMap<>();
+        Map<String, Path> owners = new TreeMap<>();
+        List<Path> unique = new ArrayList<>(files.size());
+        for (Path file : files) {
+            Path previous = owners.putIfAbsent(nameOf(file), file);
+            if (previous != null) {
+                errors.put(file, new IOException("Function name " + nameOf(file) + " is already used by " + previous));
+            } else {
+                unique.add(file);
+            }
+        }
+
+        long start = System.nanoTime();
+        runAll(unique, file -> {
+            Format format = Format.of(file);
+            if (format == null) {
+                throw new IOException("Unknown function file format: " + file);
+            }
+            long size = Files.size(file);
+            byte[] header;
+            try (InputStream in = Files.newInputStream(file)) {
+                header = in.readNBytes(HEADER_PROBE_BYTES);
+            }
+            int permits = permitsFor(size + format.decodedBytes(header));
+            inFlight.acquire(permits);
+            try {
+                values.put(nameOf(file), decode(Files.readAllBytes(file), format, factory));
+            } finally {
+                inFlight.release(permits);
+            }
+        }, file -> file, errors);
+        logger.info("Загружено {} функций из {} файлов за {} мс, ошибок: {}", values.size(), files.size(),
+                (System.nanoTime() - start) / 1_000_000, errors.size());
+        return new Result<>(values, errors);
+    }
+
+    /**
+     * Сохраняет функции в каталог в файлы "имя + расширение формата", заменяя существующие
+     * @return пути записанных файлов по именам функций
+     */
+    public Result<Path> saveAll(Path directory, Map<String, ? extends TabulatedFunction> functions, Format format)
+            throws IOException, InterruptedException {
+        if (format == null) {
+            throw new NullPointerException("Format must not be null");
+        }
+        Files.createDirectories(directory);
+        Map<String, Path> values = new ConcurrentHashMap<>();
+        Map<Path, Exception> errors = new ConcurrentHashMap<>();
+
+        long start = System.nanoTime();
+        runAll(functions.keySet(), name -> {
+            Path file = directory.resolve(name + format.getExtension());
+            TabulatedFunction function = functions.get(name);
+            int permits = permitsFor(format.estimateBytes(function.getCount()));
+            inFlight.acquire(permits);
+            try {
+                Files.write(file, encode(function, format));
+                values.put(name, file);
+            } finally {
+                inFlight.release(permits);
+            }
+        }, name -> directory.resolve(name + format.getExtension()), errors);
+        logger.info("Сохранено {} функций в {} за {} мс, ошибок: {}", values.size(), directory,
+                (System.nanoTime() - start) / 1_000_000, errors.size());
+        return new Result<>(values, errors);
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        void run(T item) throws Exception;
+    }
+
+    // Запускает task для каждого элемента в своем виртуальном потоке и ждет завершения всех;
+    // исключения задач попадают в errors по пути файла элемента
+    private <T> void runAll(Collection<T> items, Task<T> task, Function<T, Path> fileOf,
+                            Map<Path, Exception> errors) throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        task.run(item);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        Path file = fileOf.apply(item);
+                        logger.warn("Ошибка обработки файла {}: {}", file, e.toString());
+                        errors.put(file, e);
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw e;
+            } catch (ExecutionException e) {
+                // Задачи перехватывают свои исключения; сюда попадают только ошибки (Error)
+                throw new IllegalStateException("Bulk I/O task failed", e.getCause());
+            }
+        }
+    }
+
+    private int permitsFor(long bytes) {
+        return (int) Math.max(1, Math.min(bytes, maxInFlightBytes));
+    }
+
+    static String nameOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    static TabulatedFunction decode(byte[] bytes, Format format, TabulatedFunctionFactory factory) throws IOException {
+        switch (format) {
+            case TEXT:
+                try (Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+                    return TabulatedFunctionTextCodec.read(reader, factory);
+                }
+            case COMPRESSED:
+                return GorillaTabulatedFunctionCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)), factory);
+            default:
+                if (bytes.length >= Short.BYTES
+                        && ByteBuffer.wrap(bytes).getShort(0) == ObjectStreamConstants.STREAM_MAGIC) {
+                    throw new IOException("Serialized Java object (ObjectOutputStream), unsupported");
+                }
+                if (bytes.length >= Integer.BYTES && ByteBuffer.wrap(bytes).getInt(0) == BinaryTabulatedFunctionCodec.MAGIC) {
+                    return BinaryTabulatedFunctionCodec.read(ByteBuffer.wrap(bytes), factory);
+                }
+                return BinaryTabulatedFunctionCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)), factory);
+        }
+    }
+
+    static byte[] encode(TabulatedFunction function, Format format) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8,
+                format.estimateBytes(function.getCount())));
+        switch (format) {
+            case TEXT:
+                try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+                    TabulatedFunctionTextCodec.write(writer, function);
+                }
+                break;
+            case COMPRESSED:
+                GorillaTabulatedFunctionCodec.write(Channels.newChannel(bytes), function,
+                        GorillaTabulatedFunctionCodec.DEFAULT_BLOCK_POINTS);
+                break;
+            default:
+                BinaryTabulatedFunctionCodec.write(Channels.newChannel(bytes), function);
+                break;
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * FILES текстовых файлов по POINTS точек: сохранение и загрузка по одному файлу через
+ * FunctionsIO, как в TabulatedFunctionFileWriter/Reader, против BulkFunctionIO
+ */
+public class BulkIOBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(BulkIOBenchmark.class);
+
+    private static final int FILES = 2000;
+    private static final int POINTS = 2000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        logger.info("Запуск BulkIOBenchmark: {} файлов по {} точек", FILES, POINTS);
+        Map<String, TabulatedFunction> functions = new LinkedHashMap<>();
+        for (int i = 0; i < FILES; i++) {
+            functions.put("f" + i, new ArrayTabulatedFunction(new SqrFunction(), i, i + 1, POINTS));
+        }
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+        BulkFunctionIO bulk = new BulkFunctionIO();
+        Path sequentialDirectory = Files.createTempDirectory("benchmark-sequential");
+        Path bulkDirectory = Files.createTempDirectory("benchmark-bulk");
+
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (Map.Entry<String, TabulatedFunction> entry : functions.entrySet()) {
+                    try (BufferedWriter writer = Files.newBufferedWriter(
+                            sequentialDirectory.resolve(entry.getKey() + ".txt"), StandardCharsets.UTF_8)) {
+                        FunctionsIO.writeTabulatedFunction(writer, entry.getValue());
+                    }
+                }
+                long sequentialSave = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int loaded = 0;
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(sequentialDirectory)) {
+                    for (Path file : files) {
+                        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                            FunctionsIO.readTabulatedFunction(reader, factory);
+                            loaded++;
+                        }
+                    }
+                }
+                long sequentialLoad = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                BulkFunctionIO.Result<Path> saved = bulk.saveAll(bulkDirectory, functions, BulkFunctionIO.Format.TEXT);
+                long bulkSave = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                BulkFunctionIO.Result<TabulatedFunction> read = bulk.loadDirectory(bulkDirectory, factory);
+                long bulkLoad = System.nanoTime() - start;
+
+                if (loaded != FILES || !saved.isSuccessful() || read.getValues().size() != FILES) {
+                    throw new IllegalStateException("Not all files were processed");
+                }
+                System.out.printf("раунд %d  по одному: сохранение %5d мс, загрузка %5d мс"
+                                + "   BulkFunctionIO: сохранение %5d мс, загрузка %5d мс%n",
+                        round, sequentialSave / 1_000_000, sequentialLoad / 1_000_000,
+                        bulkSave / 1_000_000, bulkLoad / 1_000_000);
+            }
+        } finally {
+            deleteRecursively(sequentialDirectory);
+            deleteRecursively(bulkDirectory);
+        }
+
+        logger.info("BulkIOBenchmark завершил работу");
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.ConstantFunction;
+import functions.MathFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+/**
+ * Степень сжатия и скорость распаковки GorillaTabulatedFunctionCodec на типичных функциях
+ * по сравнению с несжатым форматом FunctionsIO (16 байт на точку). Данные в памяти,
+ * поэтому скорость - чисто процессорная, в миллионах точек в секунду
+ */
+public class CompressionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(CompressionBenchmark.class);
+
+    private static final int POINTS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        logger.info("Запуск CompressionBenchmark на {} точках", POINTS);
+
+        report("константа", new ArrayTabulatedFunction(new ConstantFunction(-1), 0.0, 1000.0, POINTS));
+        report("x^2, равномерная", new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1000.0, POINTS));
+        report("sin, равномерная", new ArrayTabulatedFunction((MathFunction) Math::sin, 0.0, 100.0, POINTS));
+        report("x^2 на float", new ArrayTabulatedFunction(x -> (float) (x * x), 0.0, 1000.0, POINTS));
+        report("шум, неравномерная", noise());
+
+        logger.info("CompressionBenchmark завершил работу");
+    }
+
+    private static TabulatedFunction noise() {
+        Random random = new Random(1);
+        double[] xValues = new double[POINTS];
+        double[] yValues = new double[POINTS];
+        double x = 0;
+        for (int i = 0; i < POINTS; i++) {
+            x += 0.5 + random.nextDouble();
+            xValues[i] = x;
+            yValues[i] = random.nextGaussian();
+        }
+        return new ArrayTabulatedFunction(xValues, yValues);
+    }
+
+    private static void report(String name, TabulatedFunction function) throws IOException {
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (BufferedOutputStream out = new BufferedOutputStream(plain)) {
+            FunctionsIO.writeTabulatedFunction(out, function);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GorillaTabulatedFunctionCodec.write(Channels.newChannel(compressed), function,
+                GorillaTabulatedFunctionCodec.DEFAULT_BLOCK_POINTS);
+        byte[] plainBytes = plain.toByteArray();
+        byte[] compressedBytes = compressed.toByteArray();
+
+        long plainNanos = Long.MAX_VALUE;
+        long compressedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            TabulatedFunction fromPlain = FunctionsIO.readTabulatedFunction(
+                    new BufferedInputStream(new ByteArrayInputStream(plainBytes)), factory);
+            plainNanos = Math.min(plainNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            TabulatedFunction fromCompressed = GorillaTabulatedFunctionCodec.read(
+                    Channels.newChannel(new ByteArrayInputStream(compressedBytes)), factory);
+            compressedNanos = Math.min(compressedNanos, System.nanoTime() - start);
+
+            if (!fromPlain.equals(fromCompressed)) {
+                throw new IllegalStateException("Compressed data does not match for " + name);
+            }
+        }
+
+        System.out.printf("%-20s %5.2f байт/точку (сжатие %5.1fx)  чтение: без сжатия %6.1f, сжатый %6.1f млн точек/с%n",
+                name, compressedBytes.length / (double) POINTS, plainBytes.length / (double) compressedBytes.length,
+                POINTS / (plainNanos / 1e3), POINTS / (compressedNanos / 1e3));
+    }
+}
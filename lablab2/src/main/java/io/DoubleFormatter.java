@@ -0,0 +1,244 @@
+package io;
+
+import java.math.BigInteger;
+
+/**
+ * Кратчайшее десятичное представление double, которое читается обратно в то же значение
+ * (алгоритм Schubfach, R. Giulietti, "The Schubfach way to render doubles").
+ * Символы пишутся прямо в переданный char[], поэтому форматирование ничего не выделяет.
+ *
+ * Вид результата как у Double.toString, но с заданным десятичным разделителем:
+ * 0,001 <= |v| < 10^7 - без порядка ("2,5", "100,0"), иначе - с порядком ("1,0E-5", "1,2345E10")
+ */
+final class DoubleFormatter {
+
+    /**
+     * Наибольшая длина результата: знак, 17 цифр, разделитель, "0,00" и порядок "E-324"
+     */
+    static final int MAX_CHARS = 32;
+
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final int BQ_MASK = 0x7FF;
+    private static final long T_MASK = (1L << (P - 1)) - 1;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long C_TINY = 3;
+    private static final long MASK_63 = Long.MAX_VALUE;
+
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    // floor(log10(2) * 2^41), floor(log10(3/4) * 2^41), floor(log2(10) * 2^38)
+    private static final long C_10 = 661_971_961_083L;
+    private static final long A_10 = -274_743_187_321L;
+    private static final long C_2 = 913_124_641_741L;
+
+    private static final long[] POW10 = new long[18];
+
+    // g = floor(10^-k / 2^r) + 1, 2^125 <= g < 2^126, разбитое на старшие и младшие 63 бита
+    private static final long[] G1 = new long[K_MAX - K_MIN + 1];
+    private static final long[] G0 = new long[K_MAX - K_MIN + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        BigInteger mask63 = BigInteger.valueOf(MASK_63);
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger beta;
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                beta = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                beta = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            }
+            BigInteger g = beta.add(BigInteger.ONE);
+            G1[k - K_MIN] = g.shiftRight(63).longValueExact();
+            G0[k - K_MIN] = g.and(mask63).longValue();
+        }
+    }
+
+    private DoubleFormatter() {
+        throw new UnsupportedOperationException("Создание экземпляров класса DoubleFormatter запрещено");
+    }
+
+    /**
+     * Записывает v в out начиная с offset; в out должно быть не меньше MAX_CHARS свободных символов
+     * @return позиция после последнего записанного символа
+     */
+    static int format(double v, char decimalSeparator, char[] out, int offset) {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & T_MASK;
+        int bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+        if (bq == BQ_MASK) {
+            if (t != 0) {
+                return append("NaN", out, offset);
+            }
+            return append(bits > 0 ? "Infinity" : "-Infinity", out, offset);
+        }
+        if (bits < 0) {
+            out[offset++] = '-';
+        }
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            // Целые значения до 2^53 не требуют поиска кратчайшего представления
+            if (0 < mq && mq < P) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return toChars(f, 0, decimalSeparator, out, offset);
+                }
+            }
+            return toDecimal(-mq, c, 0, decimalSeparator, out, offset);
+        }
+        if (t != 0) {
+            return t < C_TINY
+                    ? toDecimal(Q_MIN, 10 * t, -1, decimalSeparator, out, offset)
+                    : toDecimal(Q_MIN, t, 0, decimalSeparator, out, offset);
+        }
+        out[offset++] = '0';
+        out[offset++] = decimalSeparator;
+        out[offset++] = '0';
+        return offset;
+    }
+
+    private static int append(String text, char[] out, int offset) {
+        text.getChars(0, text.length(), out, offset);
+        return offset + text.length();
+    }
+
+    // |v| = c 2^q; ищет кратчайшее десятичное f 10^e из интервала округления к v
+    private static int toDecimal(int q, long c, int dk, char separator, char[] out, int offset) {
+        int parity = (int) c & 1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // На границе двоичного порядка нижний сосед вдвое ближе
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G1[k - K_MIN];
+        long g0 = G0[k - K_MIN];
+        long vb = roundToOdd(g1, g0, cb << h);
+        long vbl = roundToOdd(g1, g0, cbl << h);
+        long vbr = roundToOdd(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Сначала пробуем на одну цифру короче: s' = floor(s / 10)
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + parity <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + parity <= vbr;
+            if (upin != wpin) {
+                return toChars(upin ? sp10 : tp10, k, separator, out, offset);
+            }
+        }
+
+        long next = s + 1;
+        boolean uin = vbl + parity <= s << 2;
+        boolean win = (next << 2) + parity <= vbr;
+        if (uin != win) {
+            return toChars(uin ? s : next, k + dk, separator, out, offset);
+        }
+        // Оба кандидата в интервале: берем ближайший к v, при равенстве - четный
+        long cmp = vb - (s + next << 1);
+        return toChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : next, k + dk, separator, out, offset);
+    }
+
+    // Округление к нечетному произведения cp на g 2^-127
+    private static long roundToOdd(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    // Записывает f 10^e, отбросив незначащие нули f
+    private static int toChars(long f, int e, char separator, char[] out, int offset) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int length = 1;
+        while (length < 17 && f >= POW10[length]) {
+            length++;
+        }
+        // Значение равно 0,d1d2...dn * 10^point
+        int point = length + e;
+
+        if (0 < point && point <= 7) {
+            if (point >= length) {
+                offset = digits(f, length, out, offset);
+                for (int i = length; i < point; i++) {
+                    out[offset++] = '0';
+                }
+                out[offset++] = separator;
+                out[offset++] = '0';
+            } else {
+                long integer = f / POW10[length - point];
+                offset = digits(integer, point, out, offset);
+                out[offset++] = separator;
+                offset = digits(f - integer * POW10[length - point], length - point, out, offset);
+            }
+            return offset;
+        }
+        if (-3 < point && point <= 0) {
+            out[offset++] = '0';
+            out[offset++] = separator;
+            for (int i = point; i < 0; i++) {
+                out[offset++] = '0';
+            }
+            return digits(f, length, out, offset);
+        }
+
+        long first = f / POW10[length - 1];
+        out[offset++] = (char) ('0' + first);
+        out[offset++] = separator;
+        if (length == 1) {
+            out[offset++] = '0';
+        } else {
+            offset = digits(f - first * POW10[length - 1], length - 1, out, offset);
+        }
+        out[offset++] = 'E';
+        int exponent = point - 1;
+        if (exponent < 0) {
+            out[offset++] = '-';
+            exponent = -exponent;
+        }
+        int exponentDigits = exponent >= 100 ? 3 : exponent >= 10 ? 2 : 1;
+        return digits(exponent, exponentDigits, out, offset);
+    }
+
+    // Ровно count цифр value с ведущими нулями
+    private static int digits(long value, int count, char[] out, int offset) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + count;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * C_10 >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * C_10 + A_10 >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * C_2 >> 38);
+    }
+}
@@ -0,0 +1,224 @@
+package io;
+
+import java.math.BigInteger;
+
+/**
+ * Разбор десятичного числа из участка char[] без создания объектов.
+ * Десятичный разделитель - запятая или точка, порядок - "E"/"e"; также "NaN", "Infinity" и "∞".
+ *
+ * Результат округлен правильно, как у Double.parseDouble: мантисса до 19 цифр переводится
+ * точным умножением на степень десяти (путь Клингера), а если его не хватает -
+ * алгоритмом Айзеля-Лемира по 128-битным степеням пяти. Редкие случаи, которые он
+ * не решает однозначно (больше 19 значащих цифр, денормализованные числа, точные середины),
+ * передаются Double.parseDouble
+ */
+final class DoubleParser {
+
+    private static final int MAX_EXACT_POWER = 22;
+    private static final double[] EXACT_POWERS = new double[MAX_EXACT_POWER + 1];
+
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+
+    // Нормализованные 128-битные приближения 5^q (старший бит установлен)
+    private static final long[] POWERS_HIGH = new long[MAX_POWER - MIN_POWER + 1];
+    private static final long[] POWERS_LOW = new long[MAX_POWER - MIN_POWER + 1];
+
+    static {
+        EXACT_POWERS[0] = 1;
+        for (int i = 1; i <= MAX_EXACT_POWER; i++) {
+            EXACT_POWERS[i] = EXACT_POWERS[i - 1] * 10;
+        }
+        BigInteger five = BigInteger.valueOf(5);
+        BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+            BigInteger value;
+            if (q >= 0) {
+                BigInteger power = five.pow(q);
+                int shift = power.bitLength() - 128;
+                value = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                // Для отрицательных степеней приближение берется с избытком
+                BigInteger power = five.pow(-q);
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                value = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                int excess = value.bitLength() - 128;
+                if (excess > 0) {
+                    value = value.shiftRight(excess);
+                }
+            }
+            POWERS_HIGH[q - MIN_POWER] = value.shiftRight(64).longValue();
+            POWERS_LOW[q - MIN_POWER] = value.and(mask64).longValue();
+        }
+    }
+
+    private DoubleParser() {
+        throw new UnsupportedOperationException("Создание экземпляров класса DoubleParser запрещено");
+    }
+
+    /**
+     * Разбирает символы chars[start, end) целиком
+     * @throws NumberFormatException если участок не является числом
+     */
+    static double parse(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw invalid(chars, start, end);
+        }
+        if (chars[i] == 'N' && matches(chars, i, end, "NaN")) {
+            return Double.NaN;
+        }
+        if (matches(chars, i, end, "Infinity") || matches(chars, i, end, "∞")) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        // До 19 цифр: как беззнаковое число мантисса не переполняется
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean truncated = false;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (mantissa == 0 && c == '0') {
+                    // Ведущие нули не значащие
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else if (significantDigits < 19) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    significantDigits++;
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else {
+                    truncated |= c != '0';
+                    if (!fraction) {
+                        exponent++;
+                    }
+                }
+            } else if ((c == ',' || c == '.') && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!digits) {
+            throw invalid(chars, start, end);
+        }
+        if (i < end) {
+            if (chars[i] != 'E' && chars[i] != 'e' || i + 1 == end) {
+                throw invalid(chars, start, end);
+            }
+            i++;
+            boolean negativeExponent = chars[i] == '-';
+            if (chars[i] == '-' || chars[i] == '+') {
+                i++;
+            }
+            if (i == end) {
+                throw invalid(chars, start, end);
+            }
+            int explicit = 0;
+            for (; i < end; i++) {
+                char c = chars[i];
+                if (c < '0' || c > '9') {
+                    throw invalid(chars, start, end);
+                }
+                if (explicit < 100_000) {
+                    explicit = explicit * 10 + (c - '0');
+                }
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (!truncated) {
+            if (mantissa >= 0 && mantissa < (1L << 53) && Math.abs(exponent) <= MAX_EXACT_POWER) {
+                double value = exponent >= 0
+                        ? mantissa * EXACT_POWERS[exponent]
+                        : mantissa / EXACT_POWERS[-exponent];
+                return negative ? -value : value;
+            }
+            long bits = eiselLemire(mantissa, exponent);
+            if (bits >= 0) {
+                return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+            }
+        }
+        return Double.parseDouble(new String(chars, start, end - start).replace(',', '.').replace("∞", "Infinity"));
+    }
+
+    /**
+     * Биты double, ближайшего к mantissa 10^exponent, или -1, если результат нельзя
+     * гарантировать без точной арифметики
+     */
+    private static long eiselLemire(long mantissa, int exponent) {
+        if (exponent < MIN_POWER || exponent > MAX_POWER) {
+            return -1;
+        }
+        int index = exponent - MIN_POWER;
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        long normalized = mantissa << leadingZeros;
+        long resultExponent = ((217_706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        long high = Math.unsignedMultiplyHigh(normalized, POWERS_HIGH[index]);
+        long low = normalized * POWERS_HIGH[index];
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + normalized, normalized) < 0) {
+            // Младших 64 бит степени не хватило: уточняем произведение
+            long secondHigh = Math.unsignedMultiplyHigh(normalized, POWERS_LOW[index]);
+            long secondLow = normalized * POWERS_LOW[index];
+            long mergedLow = low + secondHigh;
+            long mergedHigh = Long.compareUnsigned(mergedLow, low) < 0 ? high + 1 : high;
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1
+                    && Long.compareUnsigned(secondLow + normalized, normalized) < 0) {
+                return -1;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        long upperBit = high >>> 63;
+        long result = high >>> (upperBit + 9);
+        resultExponent -= 1 ^ upperBit;
+        if (low == 0 && (high & 0x1FF) == 0 && (result & 3) == 1) {
+            // Точная середина между двумя double
+            return -1;
+        }
+        result += result & 1;
+        result >>>= 1;
+        if (result >>> 53 > 0) {
+            result >>>= 1;
+            resultExponent++;
+        }
+        if (resultExponent <= 0 || resultExponent >= 0x7FF) {
+            return -1;
+        }
+        return resultExponent << 52 | result & ((1L << 52) - 1);
+    }
+
+    private static boolean matches(char[] chars, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (chars[start + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NumberFormatException invalid(char[] chars, int start, int end) {
+        return new NumberFormatException("Not a number: \"" + new String(chars, start, end - start) + "\"");
+    }
+}
@@ -7,16 +7,12 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.ObjectInputStream;
-import java.io.PrintWriter;
 import java.io.DataOutputStream;
-import java.io.DataInputStream;
 import java.io.FileInputStream;
-import java.text.NumberFormat;
-import java.text.ParseException;
-import java.util.Locale;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
 import functions.TabulatedFunction;
 import functions.factory.TabulatedFunctionFactory;
-import functions.Point;
 
 /**
  * Класс для операций ввода-вывода функций.
@@ -84,10 +80,19 @@ public final class FunctionsIO {
         // Записываем количество точек
         dataOutputStream.writeInt(function.getCount());
 
-        // Записываем все точки (x, y) с помощью цикла for-each
-        for (Point point : function) {
-            dataOutputStream.writeDouble(point.x);
-            dataOutputStream.writeDouble(point.y);
+        // Записываем все точки (x, y) без создания объектов Point;
+        // IOException из обработчика передается наружу через UncheckedIOException
+        try {
+            function.forEachPoint((x, y) -> {
+                try {
+                    dataOutputStream.writeDouble(x);
+                    dataOutputStream.writeDouble(y);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
         // Сбрасываем буфер, но не закрываем поток
@@ -96,6 +101,8 @@ public final class FunctionsIO {
 
     /**
      * Читает табулированную функцию из буферизованного байтового потока.
+     * Понимает как формат writeTabulatedFunction, так и формат версии 2
+     * BinaryTabulatedFunctionCodec; данные читаются блоками, а не по одному double
      *
      * @param inputStream буферизованный входной поток
      * @param factory фабрика для создания функций
@@ -103,97 +110,37 @@ public final class FunctionsIO {
      * @throws IOException если происходит ошибка ввода-вывода
      */
     public static TabulatedFunction readTabulatedFunction(BufferedInputStream inputStream, TabulatedFunctionFactory factory) throws IOException {
-        DataInputStream dataInputStream = new DataInputStream(inputStream);
-
-        // Считываем количество точек
-        int count = dataInputStream.readInt();
-
-        // Создаем массивы для x и y значений
-        double[] xValues = new double[count];
-        double[] yValues = new double[count];
-
-        // Считываем все точки (x, y)
-        for (int i = 0; i < count; i++) {
-            xValues[i] = dataInputStream.readDouble();
-            yValues[i] = dataInputStream.readDouble();
-        }
-
-        // Создаем функцию с помощью фабрики
-        return factory.create(xValues, yValues);
+        // Канал-адаптер читает из потока ровно столько, сколько запрошено, поток не закрывается
+        return BinaryTabulatedFunctionCodec.read(Channels.newChannel(inputStream), factory);
     }
 
     /**
-     * Записывает представление функции в буферизованный символьный поток
+     * Записывает представление функции в буферизованный символьный поток:
+     * количество точек и строки "x y" в кратчайшем точном виде с десятичной запятой
+     * (см. TabulatedFunctionTextCodec)
      * @param writer буферизованный поток записи
      * @param function табулированная функция для записи
+     * @throws UncheckedIOException если произошла ошибка ввода-вывода
      */
     public static void writeTabulatedFunction(BufferedWriter writer, TabulatedFunction function) {
-        PrintWriter printWriter = new PrintWriter(writer);
-
-        // Записываем количество точек
-        printWriter.println(function.getCount());
-
-        // Записываем все точки функции
-        for (Point point : function) {
-            printWriter.printf("%f %f\n", point.x, point.y);
+        try {
+            TabulatedFunctionTextCodec.write(writer, function);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        // Сбрасываем буфер, но не закрываем поток
-        printWriter.flush();
     }
 
     /**
-     * Читает данные из буферизованного потока и создает функцию с помощью фабрики
+     * Читает данные из буферизованного потока и создает функцию с помощью фабрики.
+     * Числа могут быть записаны как с запятой, так и с точкой
      * @param reader буферизованный поток чтения
      * @param factory фабрика для создания функции
      * @return созданная табулированная функция
-     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws IOException если произошла ошибка ввода-вывода или формат строки некорректен
      */
     public static TabulatedFunction readTabulatedFunction(BufferedReader reader,
                                                           TabulatedFunctionFactory factory) throws IOException {
-        try {
-            // Читаем первую строку - количество точек
-            String countLine = reader.readLine();
-            int count = Integer.parseInt(countLine);
-
-            // Создаем массивы для хранения значений
-            double[] xValues = new double[count];
-            double[] yValues = new double[count];
-
-            // Создаем форматтер для чисел с запятой в качестве разделителя
-            NumberFormat formatter = NumberFormat.getInstance(Locale.forLanguageTag("ru"));
-
-            // Читаем остальные строки с данными точек
-            for (int i = 0; i < count; i++) {
-                String line = reader.readLine();
-                if (line == null) {
-                    throw new IOException("Неожиданный конец файла: ожидалось " + count + " точек, но получено только " + i);
-                }
-
-                // Разбиваем строку на две части по пробелу
-                String[] parts = line.split(" ");
-                if (parts.length != 2) {
-                    throw new IOException("Некорректный формат строки: " + line);
-                }
-
-                // Парсим значения x и y
-                try {
-                    Number xNumber = formatter.parse(parts[0]);
-                    Number yNumber = formatter.parse(parts[1]);
-                    xValues[i] = xNumber.doubleValue();
-                    yValues[i] = yNumber.doubleValue();
-                } catch (ParseException e) {
-                    // Оборачиваем ParseException в IOException
-                    throw new IOException("Ошибка парсинга чисел в строке: " + line, e);
-                }
-            }
-
-            // Создаем и возвращаем функцию с помощью фабрики
-            return factory.create(xValues, yValues);
-
-        } catch (NumberFormatException e) {
-            throw new IOException("Ошибка формата числа", e);
-        }
+        return TabulatedFunctionTextCodec.read(reader, factory);
     }
 
     /**
@@ -0,0 +1,466 @@
+package io;
+
+import functions.DoubleBiConsumer;
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Сжатый формат табулированных функций: x кодируются разностями вторых разностей
+ * их битовых представлений (для равномерной сетки это 0 или несколько ulp - 1-9 бит на точку),
+ * y - XOR с предыдущим значением в стиле Gorilla (повторяющиеся и близкие значения - 1-20 бит).
+ * Кодирование без потерь: битовые представления восстанавливаются точно.
+ *
+ * Точки разбиты на независимые блоки по blockPoints точек, поэтому распаковку можно начать
+ * с любого блока, не декодируя предыдущие. Формат (числа big-endian):
+ * <pre>
+ * int magic = 0x89544247 ("\x89TBG"), short version = 1, short flags = 0,
+ * int count, int blockPoints
+ * блоки: int BLOCK_MAGIC, int points, int payloadBytes, int CRC32C(payload), payload
+ * </pre>
+ */
+public final class GorillaTabulatedFunctionCodec {
+    private static final Logger logger = LoggerFactory.getLogger(GorillaTabulatedFunctionCodec.class);
+
+    public static final int MAGIC = 0x89544247;
+    public static final short VERSION = 1;
+    public static final int BLOCK_MAGIC = 0x424C4B31;
+    public static final int DEFAULT_BLOCK_POINTS = 4096;
+    static final int HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 16;
+
+    private GorillaTabulatedFunctionCodec() {
+        throw new UnsupportedOperationException("Создание экземпляров класса GorillaTabulatedFunctionCodec запрещено");
+    }
+
+    public static void write(Path path, TabulatedFunction function) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel, function, DEFAULT_BLOCK_POINTS);
+        }
+    }
+
+    /**
+     * Сжимает функцию в канал; канал не закрывается
+     * @param blockPoints число точек в независимом блоке
+     */
+    public static void write(WritableByteChannel channel, TabulatedFunction function, int blockPoints) throws IOException {
+        if (blockPoints < 2) {
+            logger.error("Некорректный размер блока: {}", blockPoints);
+            throw new IllegalArgumentException("Block must contain at least 2 points: " + blockPoints);
+        }
+        int count = function.getCount();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count).putInt(blockPoints);
+        writeFully(channel, header.flip());
+
+        BlockEncoder encoder = new BlockEncoder(channel, blockPoints);
+        try {
+            function.forEachPoint(encoder);
+            encoder.finishBlock();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (encoder.total != count) {
+            logger.error("Число точек изменилось во время записи: ожидалось {}, записано {}", count, encoder.total);
+            throw new IllegalStateException("Function was modified while being written");
+        }
+        logger.debug("Сжата функция из {} точек в {} блоков", count, encoder.blocks);
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Кодирует точки в текущий блок и записывает его кадр по заполнении
+    private static final class BlockEncoder implements DoubleBiConsumer {
+        private final WritableByteChannel channel;
+        private final int blockPoints;
+        private final BitWriter bits = new BitWriter();
+        private final ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        private final CRC32C crc = new CRC32C();
+
+        private int points;
+        private long total;
+        private int blocks;
+        private long previousX;
+        private long previousDelta;
+        private long previousY;
+        private int previousLeading;
+        private int previousTrailing;
+
+        BlockEncoder(WritableByteChannel channel, int blockPoints) {
+            this.channel = channel;
+            this.blockPoints = blockPoints;
+        }
+
+        public void accept(double x, double y) {
+            long xBits = Double.doubleToRawLongBits(x);
+            long yBits = Double.doubleToRawLongBits(y);
+            if (points == 0) {
+                bits.write(xBits, 64);
+                bits.write(yBits, 64);
+                previousDelta = 0;
+                previousLeading = -1;
+            } else {
+                long delta = xBits - previousX;
+                encodeDeltaOfDelta(delta - previousDelta);
+                previousDelta = delta;
+                encodeXor(yBits ^ previousY);
+            }
+            previousX = xBits;
+            previousY = yBits;
+            points++;
+            total++;
+            if (points == blockPoints) {
+                try {
+                    finishBlock();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void encodeDeltaOfDelta(long deltaOfDelta) {
+            // zigzag сравнивается как беззнаковое: при переполнении разности оно отрицательно
+            long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+            if (zigzag == 0) {
+                bits.write(0b0, 1);
+            } else if (zigzag >>> 7 == 0) {
+                bits.write(0b10, 2);
+                bits.write(zigzag, 7);
+            } else if (zigzag >>> 12 == 0) {
+                bits.write(0b110, 3);
+                bits.write(zigzag, 12);
+            } else if (zigzag >>> 20 == 0) {
+                bits.write(0b1110, 4);
+                bits.write(zigzag, 20);
+            } else {
+                bits.write(0b1111, 4);
+                bits.write(zigzag, 64);
+            }
+        }
+
+        private void encodeXor(long xor) {
+            if (xor == 0) {
+                bits.write(0b0, 1);
+                return;
+            }
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                // Значащие биты укладываются в окно предыдущего значения
+                bits.write(0b10, 2);
+                bits.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                bits.write(0b11, 2);
+                bits.write(leading, 5);
+                bits.write(significant - 1, 6);
+                bits.write(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        void finishBlock() throws IOException {
+            if (points == 0) {
+                return;
+            }
+            ByteBuffer payload = bits.finish();
+            crc.reset();
+            crc.update(payload.duplicate());
+            frameHeader.clear().putInt(BLOCK_MAGIC).putInt(points).putInt(payload.remaining()).putInt((int) crc.getValue());
+            writeFully(channel, frameHeader.flip());
+            writeFully(channel, payload);
+            bits.reset();
+            points = 0;
+            blocks++;
+        }
+    }
+
+    public static TabulatedFunction read(Path path, TabulatedFunctionFactory factory) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, factory);
+        }
+    }
+
+    /**
+     * Распаковывает функцию из канала; канал не закрывается
+     */
+    public static TabulatedFunction read(ReadableByteChannel channel, TabulatedFunctionFactory factory) throws IOException {
+        int count = readHeader(channel)[0];
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        int[] filled = {0};
+        decodeBlocks(channel, (x, y) -> {
+            if (filled[0] == count) {
+                throw new UncheckedIOException(new IOException("More points than declared: " + count));
+            }
+            xValues[filled[0]] = x;
+            yValues[filled[0]] = y;
+            filled[0]++;
+        });
+        if (filled[0] != count) {
+            throw new IOException("Expected " + count + " points, found " + filled[0]);
+        }
+        return factory.create(xValues, yValues);
+    }
+
+    /**
+     * Передает в action точки, начиная с блока firstBlock (точки с номера firstBlock * blockPoints).
+     * Предыдущие блоки пропускаются по длинам кадров без распаковки; для SeekableByteChannel -
+     * без чтения их содержимого
+     */
+    public static void forEachPoint(ReadableByteChannel channel, int firstBlock, DoubleBiConsumer action) throws IOException {
+        if (firstBlock < 0) {
+            throw new IllegalArgumentException("Block index must not be negative: " + firstBlock);
+        }
+        readHeader(channel);
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        for (int block = 0; block < firstBlock; block++) {
+            if (!readFrameHeader(channel, frameHeader)) {
+                throw new IOException("Block " + firstBlock + " is past the end of data");
+            }
+            skip(channel, frameHeader.getInt(8));
+        }
+        decodeBlocks(channel, action);
+    }
+
+    // count и blockPoints
+    private static int[] readHeader(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        fill(channel, header);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a compressed tabulated function");
+        }
+        short version = header.getShort();
+        short flags = header.getShort();
+        if (version != VERSION || flags != 0) {
+            throw new IOException("Unsupported compressed format version " + version + ", flags " + flags);
+        }
+        int count = header.getInt();
+        int blockPoints = header.getInt();
+        if (count < 0 || blockPoints < 2) {
+            throw new IOException("Invalid header: count=" + count + ", blockPoints=" + blockPoints);
+        }
+        return new int[]{count, blockPoints};
+    }
+
+    // false - конец данных ровно на границе кадра
+    private static boolean readFrameHeader(ReadableByteChannel channel, ByteBuffer frameHeader) throws IOException {
+        frameHeader.clear();
+        while (frameHeader.hasRemaining()) {
+            if (channel.read(frameHeader) < 0) {
+                if (frameHeader.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Truncated block header");
+            }
+        }
+        frameHeader.flip();
+        if (frameHeader.getInt(0) != BLOCK_MAGIC) {
+            throw new IOException("Block marker not found");
+        }
+        if (frameHeader.getInt(4) < 1 || frameHeader.getInt(8) < 0) {
+            throw new IOException("Invalid block header");
+        }
+        return true;
+    }
+
+    private static void decodeBlocks(ReadableByteChannel channel, DoubleBiConsumer action) throws IOException {
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        ByteBuffer payload = ByteBuffer.allocate(0);
+        CRC32C crc = new CRC32C();
+        BitReader bits = new BitReader();
+
+        try {
+            while (readFrameHeader(channel, frameHeader)) {
+                int points = frameHeader.getInt(4);
+                int length = frameHeader.getInt(8);
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear().limit(length);
+                fill(channel, payload);
+                payload.flip();
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != frameHeader.getInt(12)) {
+                    throw new IOException("Compressed block checksum mismatch");
+                }
+                bits.reset(payload);
+                decodeBlock(bits, points, action);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void decodeBlock(BitReader bits, int points, DoubleBiConsumer action) throws IOException {
+        try {
+            long xBits = bits.read(64);
+            long yBits = bits.read(64);
+            action.accept(Double.longBitsToDouble(xBits), Double.longBitsToDouble(yBits));
+
+            long delta = 0;
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 1; i < points; i++) {
+                delta += decodeDeltaOfDelta(bits);
+                xBits += delta;
+
+                if (bits.read(1) != 0) {
+                    if (bits.read(1) != 0) {
+                        leading = (int) bits.read(5);
+                        int significant = (int) bits.read(6) + 1;
+                        trailing = 64 - leading - significant;
+                    }
+                    yBits ^= bits.read(64 - leading - trailing) << trailing;
+                }
+                action.accept(Double.longBitsToDouble(xBits), Double.longBitsToDouble(yBits));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Compressed block is truncated", e);
+        }
+    }
+
+    private static long decodeDeltaOfDelta(BitReader bits) {
+        long zigzag;
+        if (bits.read(1) == 0) {
+            return 0;
+        } else if (bits.read(1) == 0) {
+            zigzag = bits.read(7);
+        } else if (bits.read(1) == 0) {
+            zigzag = bits.read(12);
+        } else if (bits.read(1) == 0) {
+            zigzag = bits.read(20);
+        } else {
+            zigzag = bits.read(64);
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static void skip(ReadableByteChannel channel, int bytes) throws IOException {
+        if (channel instanceof SeekableByteChannel) {
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            long target = seekable.position() + bytes;
+            if (target > seekable.size()) {
+                throw new EOFException("Truncated block");
+            }
+            seekable.position(target);
+            return;
+        }
+        ByteBuffer discard = ByteBuffer.allocate(Math.min(bytes, 1 << 16));
+        int remaining = bytes;
+        while (remaining > 0) {
+            discard.clear().limit(Math.min(remaining, discard.capacity()));
+            fill(channel, discard);
+            remaining -= discard.limit();
+        }
+    }
+
+    private static void fill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of compressed data");
+            }
+        }
+    }
+
+    private static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Запись битов старшими вперед в растущий массив байтов
+     */
+    static final class BitWriter {
+        private byte[] bytes = new byte[1 << 12];
+        private int size;
+        private long accumulator;
+        private int pending;
+
+        void write(long value, int count) {
+            if (count > 56) {
+                write(value >>> 32, count - 32);
+                write(value, 32);
+                return;
+            }
+            accumulator = (accumulator << count) | (value & mask(count));
+            pending += count;
+            while (pending >= 8) {
+                pending -= 8;
+                put((byte) (accumulator >>> pending));
+            }
+        }
+
+        private void put(byte value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = value;
+        }
+
+        // Дополняет последний байт нулями и возвращает накопленные байты
+        ByteBuffer finish() {
+            if (pending > 0) {
+                put((byte) (accumulator << (8 - pending)));
+                pending = 0;
+            }
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        void reset() {
+            size = 0;
+            accumulator = 0;
+            pending = 0;
+        }
+    }
+
+    /**
+     * Чтение битов старшими вперед из буфера
+     */
+    static final class BitReader {
+        private ByteBuffer buffer;
+        private long accumulator;
+        private int available;
+
+        void reset(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.accumulator = 0;
+            this.available = 0;
+        }
+
+        long read(int count) {
+            if (count > 56) {
+                long high = read(count - 32);
+                return (high << 32) | read(32);
+            }
+            while (available < count) {
+                accumulator = (accumulator << 8) | (buffer.get() & 0xFF);
+                available += 8;
+            }
+            available -= count;
+            return (accumulator >>> available) & mask(count);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Сохранение одного изменения функции из POINTS точек: перезапись всего файла
+ * FunctionsIO.writeTabulatedFunction против записи в журнал JournaledTabulatedFunction;
+ * также время открытия с повтором журнала и время сжатия
+ */
+public class JournalBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(JournalBenchmark.class);
+
+    private static final int POINTS = 1_000_000;
+    private static final int REWRITES = 5;
+    private static final int CHANGES = 100_000;
+    private static final int SYNCED_CHANGES = 200;
+
+    public static void main(String[] args) throws IOException {
+        logger.info("Запуск JournalBenchmark: функция из {} точек, {} изменений", POINTS, CHANGES);
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0, 1, POINTS);
+        Path file = Files.createTempFile("benchmark", ".bin");
+        Path directory = Files.createTempDirectory("benchmark");
+
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < REWRITES; i++) {
+                function.setY(i, -i);
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    FunctionsIO.writeTabulatedFunction(new BufferedOutputStream(out), function);
+                }
+            }
+            double rewrite = (System.nanoTime() - start) / 1e3 / REWRITES;
+
+            double append;
+            double synced;
+            try (JournaledTabulatedFunction journaled = JournaledTabulatedFunction.create(directory, "f", function,
+                    factory, Long.MAX_VALUE)) {
+                start = System.nanoTime();
+                for (int i = 0; i < CHANGES; i++) {
+                    journaled.setY(i * 7 % POINTS, i);
+                }
+                append = (System.nanoTime() - start) / 1e3 / CHANGES;
+
+                start = System.nanoTime();
+                for (int i = 0; i < SYNCED_CHANGES; i++) {
+                    journaled.setY(i, -i);
+                    journaled.sync();
+                }
+                synced = (System.nanoTime() - start) / 1e3 / SYNCED_CHANGES;
+            }
+            System.out.printf("одно изменение: перезапись файла %10.1f мкс, журнал %6.2f мкс, журнал с sync %8.1f мкс%n",
+                    rewrite, append, synced);
+
+            start = System.nanoTime();
+            long compaction;
+            try (JournaledTabulatedFunction journaled = JournaledTabulatedFunction.open(directory, "f", factory,
+                    Long.MAX_VALUE)) {
+                long open = System.nanoTime() - start;
+                start = System.nanoTime();
+                journaled.compact();
+                compaction = System.nanoTime() - start;
+                System.out.printf("открытие с повтором %d записей: %6.1f мс, сжатие: %6.1f мс%n",
+                        CHANGES + SYNCED_CHANGES, open / 1e6, compaction / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    Files.delete(entry);
+                }
+            }
+            Files.delete(directory);
+        }
+
+        logger.info("JournalBenchmark завершил работу");
+    }
+}
@@ -0,0 +1,702 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.DoubleBiConsumer;
+import functions.Insertable;
+import functions.Point;
+import functions.Removable;
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+import operations.TabulatedFunctionOperationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32C;
+
+/**
+ * Табулированная функция, изменения которой дописываются в журнал рядом с базовым снимком
+ * вместо перезаписи всего файла, поэтому стоимость записи пропорциональна изменению:
+ * <pre>
+ * имя.G.tbf      снимок поколения G в формате BinaryTabulatedFunctionCodec версии 2
+ * имя.G.journal  изменения поверх снимка G
+ * </pre>
+ * Формат журнала (все числа big-endian):
+ * <pre>
+ * int    magic = 0x8954424A ("\x89TBJ")
+ * short  version = 1
+ * short  flags = 0 (зарезервировано)
+ * long   generation = G
+ * записи подряд: byte op, данные, int CRC32C op и данных
+ *   SET_Y  = 1: int index, double y
+ *   INSERT = 2: double x, double y
+ *   REMOVE = 3: int index
+ * </pre>
+ * Изменение сначала дописывается в журнал одной записью 9-21 байт и только затем применяется
+ * к функции в памяти: если запись не удалась, функция не меняется, а если функция отвергла
+ * изменение, запись отрезается от журнала. В ОС запись попадает сразу, на диск - после sync()
+ * или close(). При открытии снимок отображается в память, и поверх него повторяются журналы
+ * его поколения и следующих.
+ * Оборванная последняя запись распознается по длине или CRC и отбрасывается.
+ *
+ * Сжатие переключает запись на пустой журнал поколения G+1 и в фоновом виртуальном потоке
+ * пишет снимок G+1 во временный файл, который затем атомарно переименовывается; после этого
+ * файлы поколения G удаляются. Сбой на любом шаге оставляет согласованное состояние: пока
+ * снимка G+1 нет, действует снимок G с журналами G и G+1. Сжатие запускается само, когда
+ * журнал становится больше снимка, но не раньше minCompactionBytes.
+ *
+ * Методы синхронизированы на объекте функции; insert и remove доступны, если их поддерживает
+ * функция, созданная фабрикой
+ */
+public class JournaledTabulatedFunction implements TabulatedFunction, Insertable, Removable, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(JournaledTabulatedFunction.class);
+
+    public static final int MAGIC = 0x8954424A;
+    public static final short VERSION = 1;
+    public static final long DEFAULT_MIN_COMPACTION_BYTES = 1L << 20;
+    static final int HEADER_SIZE = 16;
+    static final byte SET_Y = 1;
+    static final byte INSERT = 2;
+    static final byte REMOVE = 3;
+    static final int MAX_RECORD_SIZE = 1 + 2 * Double.BYTES + Integer.BYTES;
+    static final String SNAPSHOT_SUFFIX = ".tbf";
+    static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final String name;
+    private final TabulatedFunction function;
+    private final long minCompactionBytes;
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_SIZE);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel journal;
+    private long generation;
+    private long journalBytes;
+    private long snapshotBytes;
+    private CompletableFuture<Void> compaction;
+    private boolean closed;
+
+    private JournaledTabulatedFunction(Path directory, String name, TabulatedFunction function, long generation,
+                                       FileChannel journal, long journalBytes, long snapshotBytes,
+                                       long minCompactionBytes) {
+        this.directory = directory;
+        this.name = name;
+        this.function = function;
+        this.generation = generation;
+        this.journal = journal;
+        this.journalBytes = journalBytes;
+        this.snapshotBytes = snapshotBytes;
+        this.minCompactionBytes = minCompactionBytes;
+    }
+
+    /**
+     * Создает в каталоге снимок поколения 0 с точками initial и пустой журнал к нему
+     * @throws FileAlreadyExistsException если функция с таким именем в каталоге уже есть
+     */
+    public static JournaledTabulatedFunction create(Path directory, String name, TabulatedFunction initial,
+                                                    TabulatedFunctionFactory factory) throws IOException {
+        return create(directory, name, initial, factory, DEFAULT_MIN_COMPACTION_BYTES);
+    }
+
+    /**
+     * @param minCompactionBytes размер журнала, раньше которого сжатие не запускается само;
+     *                           Long.MAX_VALUE отключает автоматическое сжатие
+     */
+    public static JournaledTabulatedFunction create(Path directory, String name, TabulatedFunction initial,
+                                                    TabulatedFunctionFactory factory, long minCompactionBytes)
+            throws IOException {
+        checkArguments(name, minCompactionBytes);
+        Files.createDirectories(directory);
+        List<Long> existing = generations(directory, name, SNAPSHOT_SUFFIX);
+        existing.addAll(generations(directory, name, JOURNAL_SUFFIX));
+        if (!existing.isEmpty()) {
+            logger.error("Функция {} уже есть в каталоге {}", name, directory);
+            throw new FileAlreadyExistsException(snapshotPath(directory, name, existing.get(0)).toString());
+        }
+
+        double[][] points = copyPoints(initial);
+        TabulatedFunction function = factory.create(points[0], points[1]);
+        long snapshotBytes = writeSnapshot(directory, name, 0, function);
+        FileChannel journal = createJournal(directory, name, 0);
+        logger.info("Создана функция {} из {} точек в каталоге {}", name, function.getCount(), directory);
+        return new JournaledTabulatedFunction(directory, name, function, 0, journal, HEADER_SIZE, snapshotBytes,
+                minCompactionBytes);
+    }
+
+    /**
+     * Открывает функцию: читает последний снимок и повторяет поверх него журналы
+     * @throws NoSuchFileException если снимка функции в каталоге нет
+     * @throws IOException если снимок или журнал повреждены не только в последней записи
+     */
+    public static JournaledTabulatedFunction open(Path directory, String name, TabulatedFunctionFactory factory)
+            throws IOException {
+        return open(directory, name, factory, DEFAULT_MIN_COMPACTION_BYTES);
+    }
+
+    public static JournaledTabulatedFunction open(Path directory, String name, TabulatedFunctionFactory factory,
+                                                  long minCompactionBytes) throws IOException {
+        checkArguments(name, minCompactionBytes);
+        List<Long> snapshots = generations(directory, name, SNAPSHOT_SUFFIX);
+        if (snapshots.isEmpty()) {
+            throw new NoSuchFileException(snapshotPath(directory, name, 0).toString());
+        }
+        long start = System.nanoTime();
+        long base = snapshots.get(snapshots.size() - 1);
+        TabulatedFunction function;
+        long snapshotBytes;
+        try (FileChannel channel = FileChannel.open(snapshotPath(directory, name, base), StandardOpenOption.READ)) {
+            snapshotBytes = channel.size();
+            function = BinaryTabulatedFunctionCodec.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, snapshotBytes),
+                    factory);
+        }
+
+        long generation = base;
+        long validBytes = 0;
+        int records = 0;
+        for (long g = base; Files.exists(journalPath(directory, name, g)); g++) {
+            Path file = journalPath(directory, name, g);
+            long size = Files.size(file);
+            int[] replayed = new int[1];
+            validBytes = replay(file, g, function, replayed);
+            records += replayed[0];
+            generation = g;
+            if (validBytes < size) {
+                if (Files.exists(journalPath(directory, name, g + 1))) {
+                    throw new IOException("Journal " + file + " is damaged before a newer generation");
+                }
+                logger.warn("Журнал {} оборван: отброшено {} байт в конце", file, size - validBytes);
+            }
+        }
+
+        FileChannel journal;
+        if (validBytes < HEADER_SIZE) {
+            journal = createJournal(directory, name, generation);
+            validBytes = HEADER_SIZE;
+        } else {
+            journal = FileChannel.open(journalPath(directory, name, generation), StandardOpenOption.WRITE);
+            journal.truncate(validBytes);
+            journal.position(validBytes);
+        }
+        deleteObsolete(directory, name, base);
+        logger.info("Открыта функция {} из {} точек: снимок поколения {}, повторено {} изменений за {} мс",
+                name, function.getCount(), base, records, (System.nanoTime() - start) / 1_000_000);
+        return new JournaledTabulatedFunction(directory, name, function, generation, journal, validBytes,
+                snapshotBytes, minCompactionBytes);
+    }
+
+    private static void checkArguments(String name, long minCompactionBytes) {
+        if (name == null || name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0) {
+            logger.error("Некорректное имя функции: {}", name);
+            throw new IllegalArgumentException("Invalid function name: " + name);
+        }
+        if (minCompactionBytes < 0) {
+            logger.error("Отрицательный порог сжатия: {}", minCompactionBytes);
+            throw new IllegalArgumentException("Compaction threshold must not be negative: " + minCompactionBytes);
+        }
+    }
+
+    // Повторяет записи журнала поверх функции; возвращает длину его неповрежденной части
+    private static long replay(Path file, long generation, TabulatedFunction function, int[] replayed)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return 0;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal is too large: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || buffer.getShort(6) != 0) {
+                throw new IOException("Not a function journal in format version " + VERSION + ": " + file);
+            }
+            if (buffer.getLong(8) != generation) {
+                throw new IOException("Journal " + file + " belongs to generation " + buffer.getLong(8));
+            }
+
+            CRC32C crc = new CRC32C();
+            int position = HEADER_SIZE;
+            while (position < size) {
+                byte op = buffer.get(position);
+                int length = recordLength(op);
+                if (length < 0 || position + length > size) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(position, length - Integer.BYTES));
+                if (buffer.getInt(position + length - Integer.BYTES) != (int) crc.getValue()) {
+                    break;
+                }
+                try {
+                    apply(function, buffer, position, op);
+                } catch (RuntimeException e) {
+                    throw new IOException("Journal record at " + position + " in " + file + " cannot be applied", e);
+                }
+                position += length;
+                replayed[0]++;
+            }
+            return position;
+        }
+    }
+
+    private static int recordLength(byte op) {
+        switch (op) {
+            case SET_Y:
+                return 1 + Integer.BYTES + Double.BYTES + Integer.BYTES;
+            case INSERT:
+                return 1 + 2 * Double.BYTES + Integer.BYTES;
+            case REMOVE:
+                return 1 + Integer.BYTES + Integer.BYTES;
+            default:
+                return -1;
+        }
+    }
+
+    private static void apply(TabulatedFunction function, ByteBuffer buffer, int position, byte op) {
+        switch (op) {
+            case SET_Y:
+                function.setY(buffer.getInt(position + 1), buffer.getDouble(position + 1 + Integer.BYTES));
+                break;
+            case INSERT:
+                insertable(function).insert(buffer.getDouble(position + 1),
+                        buffer.getDouble(position + 1 + Double.BYTES));
+                break;
+            default:
+                removable(function).remove(buffer.getInt(position + 1));
+                break;
+        }
+    }
+
+    private static Insertable insertable(TabulatedFunction function) {
+        if (!(function instanceof Insertable)) {
+            throw new UnsupportedOperationException(function.getClass().getSimpleName() + " is not Insertable");
+        }
+        return (Insertable) function;
+    }
+
+    private static Removable removable(TabulatedFunction function) {
+        if (!(function instanceof Removable)) {
+            throw new UnsupportedOperationException(function.getClass().getSimpleName() + " is not Removable");
+        }
+        return (Removable) function;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Поколение текущего журнала
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Размер текущего журнала вместе с заголовком
+     */
+    public synchronized long getJournalBytes() {
+        return journalBytes;
+    }
+
+    @Override
+    public synchronized void setY(int index, double value) {
+        checkOpen();
+        checkIndex(index);
+        record.clear();
+        record.put(SET_Y).putInt(index).putDouble(value);
+        commit(() -> function.setY(index, value));
+    }
+
+    @Override
+    public synchronized void insert(double x, double y) {
+        checkOpen();
+        Insertable target = insertable(function);
+        record.clear();
+        record.put(INSERT).putDouble(x).putDouble(y);
+        commit(() -> target.insert(x, y));
+    }
+
+    @Override
+    public synchronized void remove(int index) {
+        checkOpen();
+        Removable target = removable(function);
+        checkIndex(index);
+        record.clear();
+        record.put(REMOVE).putInt(index);
+        commit(() -> target.remove(index));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= function.getCount()) {
+            logger.error("Индекс вне диапазона: {} (допустимо: 0..{})", index, function.getCount() - 1);
+            throw new IllegalArgumentException("Index out of bounds: " + index);
+        }
+    }
+
+    // Дописывает подготовленную запись с CRC и только после этого применяет изменение к функции;
+    // если функция отвергла изменение, запись отрезается от журнала
+    private void commit(Runnable change) {
+        long start = journalBytes;
+        crc.reset();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        int length = record.remaining();
+        try {
+            while (record.hasRemaining()) {
+                journal.write(record);
+            }
+        } catch (IOException e) {
+            logger.error("Не удалось дописать изменение в журнал функции {}: {}", name, e.toString());
+            UncheckedIOException failure = new UncheckedIOException(e);
+            truncate(start, failure);
+            throw failure;
+        }
+        journalBytes += length;
+
+        try {
+            change.run();
+        } catch (RuntimeException | Error e) {
+            truncate(start, e);
+            throw e;
+        }
+        if (journalBytes >= Math.max(minCompactionBytes, snapshotBytes) && (compaction == null || compaction.isDone())) {
+            logger.debug("Журнал функции {} достиг {} байт, запуск сжатия", name, journalBytes);
+            compactAsync();
+        }
+    }
+
+    // Отрезает от журнала неудачную запись. Если и это не удалось, журнал закрывается:
+    // запись, которую нельзя повторить, не должна оказаться перед следующими
+    private void truncate(long length, Throwable cause) {
+        try {
+            journal.truncate(length);
+            journal.position(length);
+            journalBytes = length;
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            logger.error("Не удалось отрезать запись от журнала функции {}, функция закрыта: {}", name, e.toString());
+            closed = true;
+            try {
+                journal.close();
+            } catch (IOException closeFailure) {
+                cause.addSuppressed(closeFailure);
+            }
+        }
+    }
+
+    // Для тестов: подменяет канал текущего журнала и возвращает прежний
+    synchronized FileChannel setJournalChannel(FileChannel channel) {
+        FileChannel previous = journal;
+        journal = channel;
+        return previous;
+    }
+
+    /**
+     * Сбрасывает журнал на диск
+     */
+    public synchronized void sync() throws IOException {
+        checkOpen();
+        journal.force(false);
+    }
+
+    /**
+     * Запускает сжатие в фоновом потоке; если сжатие уже идет, возвращает его
+     * @return завершается, когда новый снимок записан и старые файлы удалены
+     */
+    public synchronized CompletableFuture<Void> compactAsync() {
+        checkOpen();
+        if (compaction != null && !compaction.isDone()) {
+            return compaction;
+        }
+        double[][] points = copyPoints(function);
+        long next = generation + 1;
+        FileChannel nextJournal;
+        try {
+            // Журнал G должен быть цел на диске раньше, чем появится журнал G+1
+            journal.force(false);
+            nextJournal = createJournal(directory, name, next);
+        } catch (IOException e) {
+            logger.error("Не удалось начать сжатие функции {}: {}", name, e.toString());
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Не удалось закрыть журнал поколения {} функции {}: {}", generation, name, e.toString());
+        }
+        journal = nextJournal;
+        generation = next;
+        journalBytes = HEADER_SIZE;
+        snapshotBytes = snapshotSize(points[0].length);
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        compaction = future;
+        Thread.ofVirtual().name("journal-compaction-" + name).start(() -> {
+            long start = System.nanoTime();
+            try {
+                writeSnapshot(directory, name, next, new ArrayTabulatedFunction(points[0], points[1]));
+                deleteObsolete(directory, name, next);
+                logger.info("Функция {} сжата в снимок поколения {} за {} мс", name, next,
+                        (System.nanoTime() - start) / 1_000_000);
+                future.complete(null);
+            } catch (Throwable e) {
+                logger.error("Ошибка сжатия функции {} в поколение {}: {}", name, next, e.toString());
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Сжимает журнал в новый снимок и ждет завершения
+     */
+    public void compact() throws IOException {
+        CompletableFuture<Void> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        if (running != null) {
+            // Уже идущее сжатие могло начаться раньше последних изменений
+            running.exceptionally(e -> null).join();
+        }
+        await(compactAsync());
+    }
+
+    private static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Compaction failed", cause);
+        }
+    }
+
+    /**
+     * Сбрасывает журнал на диск, закрывает его и дожидается идущего сжатия.
+     * Функцию в памяти можно читать и после закрытия
+     */
+    @Override
+    public void close() throws IOException {
+        CompletableFuture<Void> running;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            running = compaction;
+            try {
+                journal.force(false);
+            } finally {
+                journal.close();
+            }
+        }
+        if (running != null) {
+            // Ошибка сжатия уже в логе, а файлы на диске согласованы и без него
+            running.exceptionally(e -> null).join();
+        }
+        logger.debug("Функция {} закрыта на поколении {}", name, generation);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journaled function " + name + " is closed");
+        }
+    }
+
+    @Override
+    public synchronized int getCount() {
+        return function.getCount();
+    }
+
+    @Override
+    public synchronized double getX(int index) {
+        return function.getX(index);
+    }
+
+    @Override
+    public synchronized double getY(int index) {
+        return function.getY(index);
+    }
+
+    @Override
+    public synchronized int indexOfX(double x) {
+        return function.indexOfX(x);
+    }
+
+    @Override
+    public synchronized int indexOfY(double y) {
+        return function.indexOfY(y);
+    }
+
+    @Override
+    public synchronized double leftBound() {
+        return function.leftBound();
+    }
+
+    @Override
+    public synchronized double rightBound() {
+        return function.rightBound();
+    }
+
+    @Override
+    public synchronized double apply(double x) {
+        return function.apply(x);
+    }
+
+    @Override
+    public synchronized void applyAll(double[] xs, int from, int to, double[] out) {
+        function.applyAll(xs, from, to, out);
+    }
+
+    @Override
+    public synchronized void forEachPoint(DoubleBiConsumer action) {
+        function.forEachPoint(action);
+    }
+
+    /**
+     * Итератор по копии точек, сделанной под монитором функции
+     */
+    @Override
+    public synchronized Iterator<Point> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(TabulatedFunctionOperationService.asPoints(function)))
+                .iterator();
+    }
+
+    private static double[][] copyPoints(TabulatedFunction function) {
+        int count = function.getCount();
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        function.forEachPoint(new DoubleBiConsumer() {
+            private int i = 0;
+
+            public void accept(double x, double y) {
+                xValues[i] = x;
+                yValues[i] = y;
+                i++;
+            }
+        });
+        return new double[][]{xValues, yValues};
+    }
+
+    static long snapshotSize(int count) {
+        return BinaryTabulatedFunctionCodec.HEADER_SIZE + 2L * count * Double.BYTES + Integer.BYTES;
+    }
+
+    static Path snapshotPath(Path directory, String name, long generation) {
+        return directory.resolve(name + "." + generation + SNAPSHOT_SUFFIX);
+    }
+
+    static Path journalPath(Path directory, String name, long generation) {
+        return directory.resolve(name + "." + generation + JOURNAL_SUFFIX);
+    }
+
+    // Пишет снимок во временный файл и атомарно переименовывает его; возвращает размер снимка
+    private static long writeSnapshot(Path directory, String name, long generation, TabulatedFunction function)
+            throws IOException {
+        Path target = snapshotPath(directory, name, generation);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        long size;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryTabulatedFunctionCodec.write(channel, function);
+            channel.force(true);
+            size = channel.size();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    // Создает пустой журнал поколения с заголовком, сброшенным на диск
+    private static FileChannel createJournal(Path directory, String name, long generation) throws IOException {
+        FileChannel channel = FileChannel.open(journalPath(directory, name, generation), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(generation).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Удаляет снимки и журналы поколений раньше base и оставшиеся временные файлы
+    private static void deleteObsolete(Path directory, String name, long base) throws IOException {
+        for (long g : generations(directory, name, SNAPSHOT_SUFFIX)) {
+            if (g < base) {
+                Files.deleteIfExists(snapshotPath(directory, name, g));
+            }
+        }
+        for (long g : generations(directory, name, JOURNAL_SUFFIX)) {
+            if (g < base) {
+                Files.deleteIfExists(journalPath(directory, name, g));
+            }
+        }
+        for (long g : generations(directory, name, SNAPSHOT_SUFFIX + TEMP_SUFFIX)) {
+            if (g < base) {
+                Files.deleteIfExists(snapshotPath(directory, name, g).resolveSibling(
+                        name + "." + g + SNAPSHOT_SUFFIX + TEMP_SUFFIX));
+            }
+        }
+    }
+
+    // Поколения файлов вида "имя.G" + suffix в порядке возрастания
+    static List<Long> generations(Path directory, String name, String suffix) throws IOException {
+        List<Long> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        String prefix = name + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (!fileName.startsWith(prefix) || !fileName.endsWith(suffix)
+                        || fileName.length() <= prefix.length() + suffix.length()) {
+                    continue;
+                }
+                String number = fileName.substring(prefix.length(), fileName.length() - suffix.length());
+                if (number.length() <= 18 && number.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                    result.add(Long.parseLong(number));
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
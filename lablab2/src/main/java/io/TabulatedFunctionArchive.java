@@ -0,0 +1,384 @@
+package io;
+
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+/**
+ * Архив из многих именованных функций в одном файле с индексом имя -> смещение/длина
+ * (числа big-endian):
+ * <pre>
+ * int    magic = 0x89544241 ("\x89TBA")
+ * short  version = 1
+ * short  flags = 0
+ * long   indexOffset
+ * int    indexLength
+ * int    entryCount
+ * int    CRC32C индекса
+ * int    зарезервировано (0)
+ * записи: функции в формате BinaryTabulatedFunctionCodec версии 2, каждая со своей CRC32C
+ * индекс: entryCount раз { short длина имени, имя в UTF-8, long offset, int length }
+ * </pre>
+ * Открытый архив отображается в память целиком, индекс читается в LinkedHashMap: поиск по имени
+ * за O(1), а чтение одной функции не затрагивает остальные.
+ *
+ * append дописывает новые записи и новый индекс в конец файла и только после force
+ * переписывает заголовок, поэтому при сбое посреди дописывания архив остается в прежнем
+ * состоянии. write собирает новый архив во временном файле рядом и атомарно переименовывает
+ * его на место прежнего. Запись с уже существующим именем заменяет прежнюю в индексе; место старых
+ * записей и индексов не освобождается.
+ *
+ * Чтение открытого архива потокобезопасно; писать одновременно в один файл могут только
+ * разные процессы или потоки по очереди - append берет блокировку файла
+ */
+public final class TabulatedFunctionArchive implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TabulatedFunctionArchive.class);
+
+    public static final int MAGIC = 0x89544241;
+    public static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private static final class Entry {
+        final long offset;
+        final int length;
+
+        Entry(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final Map<String, Entry> index;
+    private volatile boolean closed;
+
+    private TabulatedFunctionArchive(Path path, FileChannel channel, MappedByteBuffer mapped, Map<String, Entry> index) {
+        this.path = path;
+        this.channel = channel;
+        this.mapped = mapped;
+        this.index = index;
+    }
+
+    /**
+     * Открывает архив для чтения, отображая файл в память (до 2 ГиБ)
+     * @throws IOException если файл не является архивом или его заголовок или индекс повреждены
+     */
+    public static TabulatedFunctionArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archive is larger than 2 GiB: " + size + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Map<String, Entry> index = readIndex(mapped, size);
+            logger.debug("Открыт архив {} с {} функциями", path, index.size());
+            return new TabulatedFunctionArchive(path, channel, mapped, index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Имена функций в порядке записи
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    /**
+     * Читает одну функцию прямо из отображенного файла
+     * @throws IllegalArgumentException если функции с таким именем нет
+     * @throws IOException если запись повреждена
+     */
+    public TabulatedFunction read(String name, TabulatedFunctionFactory factory) throws IOException {
+        checkOpen();
+        Entry entry = index.get(name);
+        if (entry == null) {
+            logger.error("В архиве {} нет функции {}", path, name);
+            throw new IllegalArgumentException("No function named '" + name + "' in archive");
+        }
+        return decode(entry, factory);
+    }
+
+    private TabulatedFunction decode(Entry entry, TabulatedFunctionFactory factory) throws IOException {
+        return BinaryTabulatedFunctionCodec.read(mapped.slice((int) entry.offset, entry.length), factory);
+    }
+
+    /**
+     * Читает все функции, распаковывая записи параллельно в parallelism потоках.
+     * Фабрика вызывается из нескольких потоков одновременно
+     * @return функции по именам в порядке записи
+     */
+    public Map<String, TabulatedFunction> readAll(TabulatedFunctionFactory factory, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            logger.error("Некорректное число потоков: {}", parallelism);
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        checkOpen();
+        long start = System.nanoTime();
+        Map<String, TabulatedFunction> result = new LinkedHashMap<>();
+        if (parallelism == 1 || index.size() < 2) {
+            for (Map.Entry<String, Entry> entry : index.entrySet()) {
+                result.put(entry.getKey(), decode(entry.getValue(), factory));
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, index.size()));
+        try {
+            List<Future<TabulatedFunction>> futures = new ArrayList<>(index.size());
+            for (Entry entry : index.values()) {
+                futures.add(executor.submit(() -> decode(entry, factory)));
+            }
+            int i = 0;
+            for (String name : index.keySet()) {
+                result.put(name, futures.get(i++).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading archive", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.debug("Загружено {} функций из {} в {} потоках за {} мс", result.size(), path, parallelism,
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Archive is closed");
+        }
+    }
+
+    /**
+     * Закрывает файл; отображение освобождается сборщиком мусора
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Создает архив из функций, заменяя файл, если он существует
+     */
+    public static void write(Path path, Map<String, ? extends TabulatedFunction> functions) throws IOException {
+        checkNames(functions);
+        Path absolute = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                appendTo(channel, functions);
+            }
+            if (Files.exists(path)) {
+                // Не подменяем файл посреди append другого процесса
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    FileLock lock = channel.lock();
+                    try {
+                        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            } else {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.debug("Архив {} записан: {} функций", path, functions.size());
+    }
+
+    /**
+     * Дописывает функции в архив, создавая его при отсутствии. Функции с уже существующими
+     * именами заменяют прежние
+     */
+    public static void append(Path path, Map<String, ? extends TabulatedFunction> functions) throws IOException {
+        checkNames(functions);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                appendTo(channel, functions);
+            } finally {
+                lock.release();
+            }
+        }
+        logger.debug("В архив {} дописано {} функций", path, functions.size());
+    }
+
+    private static void checkNames(Map<String, ? extends TabulatedFunction> functions) {
+        for (String name : functions.keySet()) {
+            if (name.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+                logger.error("Слишком длинное имя функции: {} символов", name.length());
+                throw new IllegalArgumentException("Function name longer than " + MAX_NAME_BYTES + " bytes in UTF-8");
+            }
+        }
+    }
+
+    // Дописывает записи и новый индекс в конец архива (пустой канал - новый архив), затем заголовок
+    private static void appendTo(FileChannel channel, Map<String, ? extends TabulatedFunction> functions)
+            throws IOException {
+        Map<String, Entry> index;
+        long end = channel.size();
+        if (end == 0) {
+            index = new LinkedHashMap<>();
+            end = HEADER_SIZE;
+        } else {
+            if (end > Integer.MAX_VALUE) {
+                throw new IOException("Archive is larger than 2 GiB: " + end + " bytes");
+            }
+            index = readIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, end), end);
+        }
+
+        // Записи и новый индекс - в конец файла, прежний заголовок пока указывает на прежний индекс
+        channel.position(end);
+        for (Map.Entry<String, ? extends TabulatedFunction> function : functions.entrySet()) {
+            long offset = channel.position();
+            BinaryTabulatedFunctionCodec.write(channel, function.getValue());
+            long length = channel.position() - offset;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Function '" + function.getKey() + "' is larger than 2 GiB");
+            }
+            index.remove(function.getKey());
+            index.put(function.getKey(), new Entry(offset, (int) length));
+        }
+
+        long indexOffset = channel.position();
+        ByteBuffer indexBytes = encodeIndex(index);
+        CRC32C crc = new CRC32C();
+        crc.update(indexBytes.duplicate());
+        int indexLength = indexBytes.remaining();
+        writeFully(channel, indexBytes, indexOffset);
+        channel.force(false);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putLong(indexOffset).putInt(indexLength).putInt(index.size())
+                .putInt((int) crc.getValue()).putInt(0)
+                .flip();
+        writeFully(channel, header, 0);
+        channel.force(true);
+    }
+
+    private static ByteBuffer encodeIndex(Map<String, Entry> index) {
+        List<byte[]> names = new ArrayList<>(index.size());
+        int size = 0;
+        for (String name : index.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            size += Short.BYTES + bytes.length + Long.BYTES + Integer.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        int i = 0;
+        for (Entry entry : index.values()) {
+            byte[] name = names.get(i++);
+            buffer.putShort((short) name.length).put(name).putLong(entry.offset).putInt(entry.length);
+        }
+        return buffer.flip();
+    }
+
+    private static Map<String, Entry> readIndex(ByteBuffer file, long size) throws IOException {
+        if (size < HEADER_SIZE) {
+            throw new EOFException("Archive is shorter than its header");
+        }
+        if (file.getInt(0) != MAGIC) {
+            throw new IOException("Not a tabulated function archive");
+        }
+        short version = file.getShort(4);
+        short flags = file.getShort(6);
+        if (version != VERSION || flags != 0) {
+            throw new IOException("Unsupported archive version " + version + ", flags " + flags);
+        }
+        long indexOffset = file.getLong(8);
+        int indexLength = file.getInt(16);
+        int entryCount = file.getInt(20);
+        int expectedCrc = file.getInt(24);
+        if (indexOffset < HEADER_SIZE || indexLength < 0 || entryCount < 0 || indexOffset + indexLength > size) {
+            throw new IOException("Corrupted archive header");
+        }
+
+        ByteBuffer indexBytes = file.slice((int) indexOffset, indexLength);
+        CRC32C crc = new CRC32C();
+        crc.update(indexBytes.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            logger.error("Контрольная сумма индекса архива не совпала");
+            throw new IOException("Archive index checksum mismatch");
+        }
+
+        Map<String, Entry> index = new LinkedHashMap<>(Math.max(16, entryCount * 4 / 3 + 1));
+        try {
+            for (int i = 0; i < entryCount; i++) {
+                byte[] name = new byte[Short.toUnsignedInt(indexBytes.getShort())];
+                indexBytes.get(name);
+                long offset = indexBytes.getLong();
+                int length = indexBytes.getInt();
+                if (offset < HEADER_SIZE || length < 0 || offset + length > indexOffset) {
+                    throw new IOException("Corrupted archive index entry " + i);
+                }
+                index.put(new String(name, StandardCharsets.UTF_8), new Entry(offset, length));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupted archive index", e);
+        }
+        return index;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
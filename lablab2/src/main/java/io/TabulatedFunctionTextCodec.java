@@ -0,0 +1,271 @@
+package io;
+
+import functions.DoubleBiConsumer;
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Текстовый формат табулированных функций без создания объектов на каждую строку:
+ * <pre>
+ * count
+ * x y
+ * ...
+ * </pre>
+ * Запись использует кратчайшее представление, читающееся обратно в то же значение
+ * (DoubleFormatter), вместо printf("%f") с шестью знаками; по умолчанию с запятой,
+ * как ожидает прежнее чтение через NumberFormat русской локали. Чтение разбирает символы
+ * прямо в буфере и принимает и запятую, и точку, порядок, пробелы и табуляции между числами,
+ * а также окончания строк \n и \r\n.
+ * Если reader поддерживает mark (BufferedReader), после чтения он стоит сразу за последней
+ * строкой функции, как после построчного readLine
+ */
+public final class TabulatedFunctionTextCodec {
+    private static final Logger logger = LoggerFactory.getLogger(TabulatedFunctionTextCodec.class);
+
+    public static final char DEFAULT_DECIMAL_SEPARATOR = ',';
+    static final int BUFFER_SIZE = 1 << 13;
+
+    private TabulatedFunctionTextCodec() {
+        throw new UnsupportedOperationException("Создание экземпляров класса TabulatedFunctionTextCodec запрещено");
+    }
+
+    /**
+     * Записывает функцию с десятичной запятой; writer сбрасывается, но не закрывается
+     */
+    public static void write(Writer writer, TabulatedFunction function) throws IOException {
+        write(writer, function, DEFAULT_DECIMAL_SEPARATOR);
+    }
+
+    /**
+     * Записывает функцию с заданным десятичным разделителем; writer сбрасывается, но не закрывается
+     * @param decimalSeparator ',' или '.'
+     */
+    public static void write(Writer writer, TabulatedFunction function, char decimalSeparator) throws IOException {
+        if (decimalSeparator != ',' && decimalSeparator != '.') {
+            logger.error("Неподдерживаемый десятичный разделитель: '{}'", decimalSeparator);
+            throw new IllegalArgumentException("Decimal separator must be ',' or '.': " + decimalSeparator);
+        }
+        int count = function.getCount();
+        LineWriter lines = new LineWriter(writer, decimalSeparator);
+        lines.writeCount(count);
+        try {
+            function.forEachPoint(lines);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (lines.written != count) {
+            logger.error("Число точек изменилось во время записи: ожидалось {}, записано {}", count, lines.written);
+            throw new IllegalStateException("Function was modified while being written");
+        }
+        lines.flush();
+        writer.flush();
+        logger.debug("Записана функция из {} точек в текстовом формате", count);
+    }
+
+    // Собирает строки в общий буфер символов и передает его writer целиком
+    private static final class LineWriter implements DoubleBiConsumer {
+        private final Writer writer;
+        private final char separator;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int size;
+        private int written;
+
+        LineWriter(Writer writer, char separator) {
+            this.writer = writer;
+            this.separator = separator;
+        }
+
+        void writeCount(int count) throws IOException {
+            String text = Integer.toString(count);
+            text.getChars(0, text.length(), buffer, 0);
+            size = text.length();
+            buffer[size++] = '\n';
+        }
+
+        public void accept(double x, double y) {
+            if (buffer.length - size < 2 * DoubleFormatter.MAX_CHARS + 2) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            size = DoubleFormatter.format(x, separator, buffer, size);
+            buffer[size++] = ' ';
+            size = DoubleFormatter.format(y, separator, buffer, size);
+            buffer[size++] = '\n';
+            written++;
+        }
+
+        void flush() throws IOException {
+            writer.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Читает функцию, записанную write или FunctionsIO.writeTabulatedFunction(BufferedWriter, ...)
+     * в любой локали; reader не закрывается
+     * @throws IOException при ошибке ввода-вывода, неожиданном конце данных или некорректной строке
+     */
+    public static TabulatedFunction read(Reader reader, TabulatedFunctionFactory factory) throws IOException {
+        LineReader lines = new LineReader(reader);
+        if (!lines.next()) {
+            throw new IOException("Пустой поток: нет строки с количеством точек");
+        }
+        int count = lines.parseCount();
+
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        for (int i = 0; i < count; i++) {
+            if (!lines.next()) {
+                throw new IOException("Неожиданный конец файла: ожидалось " + count + " точек, но получено только " + i);
+            }
+            lines.parsePoint(xValues, yValues, i);
+        }
+        lines.release();
+        logger.debug("Прочитана функция из {} точек в текстовом формате", count);
+        return factory.create(xValues, yValues);
+    }
+
+    // Держит текущую строку целиком в буфере: [lineStart, lineEnd) без перевода строки
+    private static final class LineReader {
+        private final Reader reader;
+        private char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private int lineStart;
+        private int lineEnd;
+        private boolean eof;
+        // Позиция в буфере, с которой записан результат последнего reader.read
+        private int lastReadStart = -1;
+
+        LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        boolean next() throws IOException {
+            int scan = position;
+            while (true) {
+                for (; scan < limit; scan++) {
+                    if (buffer[scan] == '\n') {
+                        setLine(scan, scan + 1);
+                        return true;
+                    }
+                }
+                if (eof) {
+                    if (position == limit) {
+                        return false;
+                    }
+                    // Последняя строка без перевода строки
+                    setLine(limit, limit);
+                    return true;
+                }
+                scan -= position;
+                fill();
+            }
+        }
+
+        private void setLine(int end, int nextPosition) {
+            lineStart = position;
+            lineEnd = end > lineStart && buffer[end - 1] == '\r' ? end - 1 : end;
+            position = nextPosition;
+        }
+
+        // Сдвигает непрочитанный остаток в начало буфера, при необходимости увеличивая его, и дочитывает
+        private void fill() throws IOException {
+            int remaining = limit - position;
+            if (remaining == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            } else if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+            }
+            position = 0;
+            limit = remaining;
+            if (reader.markSupported()) {
+                reader.mark(buffer.length - limit);
+            }
+            lastReadStart = limit;
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+
+        // Возвращает reader к первому символу после текущей строки
+        void release() throws IOException {
+            if (reader.markSupported() && !eof && lastReadStart >= 0 && position < limit) {
+                reader.reset();
+                reader.skip(position - lastReadStart);
+            }
+        }
+
+        int parseCount() throws IOException {
+            int start = skipBlanks(lineStart);
+            int end = trimEnd(start);
+            if (start == end) {
+                throw new IOException("Ошибка формата числа: пустая строка количества точек");
+            }
+            long count = 0;
+            for (int i = start; i < end; i++) {
+                char c = buffer[i];
+                if (c < '0' || c > '9' || (count = count * 10 + (c - '0')) > Integer.MAX_VALUE) {
+                    throw new IOException("Ошибка формата числа: " + line());
+                }
+            }
+            return (int) count;
+        }
+
+        void parsePoint(double[] xValues, double[] yValues, int index) throws IOException {
+            int xStart = skipBlanks(lineStart);
+            int xEnd = xStart;
+            while (xEnd < lineEnd && !isBlank(buffer[xEnd])) {
+                xEnd++;
+            }
+            int yStart = skipBlanks(xEnd);
+            int yEnd = trimEnd(yStart);
+            if (xStart == xEnd || yStart == yEnd || yStart == xEnd) {
+                throw new IOException("Некорректный формат строки: " + line());
+            }
+            try {
+                xValues[index] = DoubleParser.parse(buffer, xStart, xEnd);
+                yValues[index] = DoubleParser.parse(buffer, yStart, yEnd);
+            } catch (NumberFormatException e) {
+                throw new IOException("Ошибка парсинга чисел в строке: " + line(), e);
+            }
+        }
+
+        private int skipBlanks(int from) {
+            while (from < lineEnd && isBlank(buffer[from])) {
+                from++;
+            }
+            return from;
+        }
+
+        private int trimEnd(int from) {
+            int end = lineEnd;
+            while (end > from && isBlank(buffer[end - 1])) {
+                end--;
+            }
+            return end;
+        }
+
+        private static boolean isBlank(char c) {
+            return c == ' ' || c == '\t';
+        }
+
+        private String line() {
+            return new String(buffer, lineStart, lineEnd - lineStart);
+        }
+    }
+}
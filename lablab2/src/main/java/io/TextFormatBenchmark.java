@@ -0,0 +1,107 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * Запись и чтение текстового файла из POINTS точек: прежний способ (printf("%f") и
+ * String.split с NumberFormat русской локали) против TabulatedFunctionTextCodec.
+ * Прежний способ пишет 6 знаков после запятой, новый - кратчайшее точное представление,
+ * поэтому файлы различаются размером
+ */
+public class TextFormatBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TextFormatBenchmark.class);
+
+    private static final int POINTS = 1_000_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        logger.info("Запуск TextFormatBenchmark на {} точках", POINTS);
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1000.0, POINTS);
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+        Path printf = Files.createTempFile("benchmark", ".txt");
+        Path codec = Files.createTempFile("benchmark", ".txt");
+
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                try (BufferedWriter writer = Files.newBufferedWriter(printf, StandardCharsets.UTF_8)) {
+                    writePrintf(writer, function);
+                }
+                long writeOld = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                try (BufferedReader reader = Files.newBufferedReader(printf, StandardCharsets.UTF_8)) {
+                    readSplit(reader);
+                }
+                long readOld = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                try (BufferedWriter writer = Files.newBufferedWriter(codec, StandardCharsets.UTF_8)) {
+                    TabulatedFunctionTextCodec.write(writer, function);
+                }
+                long writeNew = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                TabulatedFunction read;
+                try (BufferedReader reader = Files.newBufferedReader(codec, StandardCharsets.UTF_8)) {
+                    read = TabulatedFunctionTextCodec.read(reader, factory);
+                }
+                long readNew = System.nanoTime() - start;
+
+                if (!read.equals(function)) {
+                    throw new IllegalStateException("Text codec lost precision");
+                }
+                System.out.printf("раунд %d  printf/split: запись %5d мс, чтение %5d мс, %4d КиБ"
+                                + "   кодек: запись %5d мс, чтение %5d мс, %4d КиБ%n",
+                        round, writeOld / 1_000_000, readOld / 1_000_000, Files.size(printf) >> 10,
+                        writeNew / 1_000_000, readNew / 1_000_000, Files.size(codec) >> 10);
+            }
+        } finally {
+            Files.deleteIfExists(printf);
+            Files.deleteIfExists(codec);
+        }
+
+        logger.info("TextFormatBenchmark завершил работу");
+    }
+
+    // Прежняя запись FunctionsIO.writeTabulatedFunction(BufferedWriter, ...)
+    private static void writePrintf(BufferedWriter writer, TabulatedFunction function) {
+        PrintWriter printWriter = new PrintWriter(writer);
+        printWriter.println(function.getCount());
+        function.forEachPoint((x, y) -> printWriter.printf(Locale.forLanguageTag("ru"), "%f %f\n", x, y));
+        printWriter.flush();
+    }
+
+    // Прежнее чтение FunctionsIO.readTabulatedFunction(BufferedReader, ...)
+    private static double[] readSplit(BufferedReader reader) throws IOException {
+        int count = Integer.parseInt(reader.readLine());
+        double[] values = new double[2 * count];
+        NumberFormat formatter = NumberFormat.getInstance(Locale.forLanguageTag("ru"));
+        try {
+            for (int i = 0; i < count; i++) {
+                String[] parts = reader.readLine().split(" ");
+                values[2 * i] = formatter.parse(parts[0]).doubleValue();
+                values[2 * i + 1] = formatter.parse(parts[1]).doubleValue();
+            }
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+        return values;
+    }
+}
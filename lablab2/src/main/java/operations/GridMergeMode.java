@@ -0,0 +1,27 @@
+package operations;
+
+/**
+ * Способ согласования сеток x двух функций в TabulatedFunctionOperationService
+ */
+public enum GridMergeMode {
+
+    /**
+     * Сетки должны совпадать, иначе InconsistentFunctionsException
+     */
+    STRICT,
+
+    /**
+     * Результат строится на объединении сеток, каждая функция интерполируется в чужих узлах
+     */
+    UNION,
+
+    /**
+     * Результат строится на сетке первого операнда, второй интерполируется в ее узлах
+     */
+    LEFT,
+
+    /**
+     * Результат строится на сетке второго операнда, первый интерполируется в ее узлах
+     */
+    RIGHT
+}
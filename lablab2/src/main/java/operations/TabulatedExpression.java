@@ -0,0 +1,276 @@
+package operations;
+
+import exceptions.InconsistentFunctionsException;
+import functions.TabulatedFunction;
+import functions.factory.TabulatedFunctionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Отложенное выражение над табулированными функциями с общей сеткой x.
+ * Вызовы add/subtract/multiply/divide только строят дерево операций; вычисление
+ * (TabulatedFunctionOperationService.evaluate) проходит сетку один раз порциями по CHUNK
+ * точек: промежуточные результаты живут в небольших буферах, а не в отдельных функциях,
+ * поэтому на каждую операцию дерева не тратится полный проход по памяти.
+ *
+ * Все операнды должны иметь одинаковое количество точек и совпадающие x, как в
+ * режиме GridMergeMode.STRICT. Ошибки (InconsistentFunctionsException, деление на ноль)
+ * сообщаются для наименьшего индекса сетки, на котором они возникают
+ */
+public abstract class TabulatedExpression {
+
+    static final int CHUNK = 1024;
+
+    private enum Operation {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE;
+
+        double apply(double u, double v) {
+            switch (this) {
+                case ADD:
+                    return u + v;
+                case SUBTRACT:
+                    return u - v;
+                case MULTIPLY:
+                    return u * v;
+                default:
+                    return TabulatedFunctionOperationService.checkedDivide(u, v);
+            }
+        }
+    }
+
+    TabulatedExpression() {
+    }
+
+    public static TabulatedExpression of(TabulatedFunction function) {
+        if (function == null) {
+            throw new NullPointerException("Function must not be null");
+        }
+        return new Leaf(function);
+    }
+
+    public TabulatedExpression add(TabulatedExpression other) {
+        return new Node(Operation.ADD, this, other);
+    }
+
+    public TabulatedExpression add(TabulatedFunction other) {
+        return add(of(other));
+    }
+
+    public TabulatedExpression subtract(TabulatedExpression other) {
+        return new Node(Operation.SUBTRACT, this, other);
+    }
+
+    public TabulatedExpression subtract(TabulatedFunction other) {
+        return subtract(of(other));
+    }
+
+    public TabulatedExpression multiply(TabulatedExpression other) {
+        return new Node(Operation.MULTIPLY, this, other);
+    }
+
+    public TabulatedExpression multiply(TabulatedFunction other) {
+        return multiply(of(other));
+    }
+
+    public TabulatedExpression divide(TabulatedExpression other) {
+        return new Node(Operation.DIVIDE, this, other);
+    }
+
+    public TabulatedExpression divide(TabulatedFunction other) {
+        return divide(of(other));
+    }
+
+    // Все листья дерева слева направо
+    abstract void collectLeaves(List<Leaf> leaves);
+
+    // Копия дерева, в которой листья без доступа по номеру за O(1) заменены копиями-массивами
+    abstract TabulatedExpression prepare();
+
+    // Число буферов, нужных для вычисления поддерева
+    abstract int depth();
+
+    /**
+     * Вычисляет поддерево для индексов сетки [from, to) в out[outOffset..]
+     * @param scratch буферы длины CHUNK для правых операндов, начиная с уровня level
+     */
+    abstract void evaluate(double[] xValues, int from, int to, double[] out, int outOffset,
+                           double[][] scratch, int level);
+
+    static final class Leaf extends TabulatedExpression {
+        private final TabulatedFunction function;
+
+        Leaf(TabulatedFunction function) {
+            this.function = function;
+        }
+
+        void collectLeaves(List<Leaf> leaves) {
+            leaves.add(this);
+        }
+
+        TabulatedExpression prepare() {
+            TabulatedFunction view = TabulatedFunctionOperationService.randomAccessView(function);
+            return view == function ? this : new Leaf(view);
+        }
+
+        int depth() {
+            return 0;
+        }
+
+        void evaluate(double[] xValues, int from, int to, double[] out, int outOffset, double[][] scratch, int level) {
+            for (int i = from; i < to; i++) {
+                if (Double.compare(xValues[i], function.getX(i)) != 0) {
+                    throw new InconsistentFunctionsException("X values differ at index " + i);
+                }
+                out[outOffset + i - from] = function.getY(i);
+            }
+        }
+    }
+
+    static final class Node extends TabulatedExpression {
+        private final Operation operation;
+        private final TabulatedExpression left;
+        private final TabulatedExpression right;
+
+        Node(Operation operation, TabulatedExpression left, TabulatedExpression right) {
+            if (right == null) {
+                throw new NullPointerException("Operand must not be null");
+            }
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+        }
+
+        void collectLeaves(List<Leaf> leaves) {
+            left.collectLeaves(leaves);
+            right.collectLeaves(leaves);
+        }
+
+        TabulatedExpression prepare() {
+            return new Node(operation, left.prepare(), right.prepare());
+        }
+
+        int depth() {
+            return Math.max(left.depth(), right.depth() + 1);
+        }
+
+        void evaluate(double[] xValues, int from, int to, double[] out, int outOffset, double[][] scratch, int level) {
+            double[] buffer = scratch[level];
+            left.evaluate(xValues, from, to, out, outOffset, scratch, level);
+            right.evaluate(xValues, from, to, buffer, 0, scratch, level + 1);
+
+            int length = to - from;
+            for (int k = 0; k < length; k++) {
+                out[outOffset + k] = operation.apply(out[outOffset + k], buffer[k]);
+            }
+        }
+    }
+
+    // Вычисление диапазона сетки порциями; ошибка фиксирует наименьший сбойный индекс.
+    // Serializable только по наследству от ForkJoinTask: задача не покидает вызов evaluate
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveAction {
+        private final TabulatedExpression expression;
+        private final double[] xValues;
+        private final double[] yValues;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final AtomicInteger failedIndex;
+        private RuntimeException failure;
+
+        ChunkTask(TabulatedExpression expression, double[] xValues, double[] yValues, int from, int to,
+                  int leafSize, AtomicInteger failedIndex) {
+            this.expression = expression;
+            this.xValues = xValues;
+            this.yValues = yValues;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.failedIndex = failedIndex;
+        }
+
+        protected void compute() {
+            if (from >= failedIndex.get()) {
+                return;
+            }
+            if (to - from > leafSize) {
+                int middle = from + ((to - from) / 2 + CHUNK - 1) / CHUNK * CHUNK;
+                ChunkTask left = new ChunkTask(expression, xValues, yValues, from, middle, leafSize, failedIndex);
+                ChunkTask right = new ChunkTask(expression, xValues, yValues, middle, to, leafSize, failedIndex);
+                invokeAll(left, right);
+                failure = left.failure != null ? left.failure : right.failure;
+                return;
+            }
+
+            double[][] scratch = new double[expression.depth()][CHUNK];
+            for (int start = from; start < to; start += CHUNK) {
+                int end = Math.min(start + CHUNK, to);
+                try {
+                    expression.evaluate(xValues, start, end, yValues, start, scratch, 0);
+                } catch (RuntimeException e) {
+                    // Операции дерева идут по очереди на всей порции, поэтому ошибка могла
+                    // возникнуть не в первой сбойной точке - повторяем порцию поточечно
+                    findFirstFailure(start, end, scratch);
+                    return;
+                }
+            }
+        }
+
+        private void findFirstFailure(int start, int end, double[][] scratch) {
+            for (int i = start; i < end; i++) {
+                try {
+                    expression.evaluate(xValues, i, i + 1, yValues, i, scratch, 0);
+                } catch (RuntimeException e) {
+                    failure = e;
+                    failedIndex.accumulateAndGet(i, Math::min);
+                    return;
+                }
+            }
+            throw new IllegalStateException("Chunk failure was not reproduced point by point");
+        }
+    }
+
+    TabulatedFunction evaluate(TabulatedFunctionFactory factory, ForkJoinPool pool, int parallelThreshold) {
+        List<Leaf> leaves = new ArrayList<>();
+        collectLeaves(leaves);
+
+        int count = leaves.get(0).function.getCount();
+        for (Leaf leaf : leaves) {
+            if (leaf.function.getCount() != count) {
+                throw new InconsistentFunctionsException("Functions have different number of points");
+            }
+        }
+
+        TabulatedExpression prepared = prepare();
+        leaves.clear();
+        prepared.collectLeaves(leaves);
+
+        // Сетка результата - сетка первого операнда, остальные сверяются с ней при вычислении
+        double[] xValues = new double[count];
+        TabulatedFunction grid = leaves.get(0).function;
+        for (int i = 0; i < count; i++) {
+            xValues[i] = grid.getX(i);
+        }
+        double[] yValues = new double[count];
+
+        int leafSize = pool != null && count >= parallelThreshold
+                ? Math.max(CHUNK, count / (pool.getParallelism() * 4))
+                : count;
+        ChunkTask task = new ChunkTask(prepared, xValues, yValues, 0, count, leafSize,
+                new AtomicInteger(Integer.MAX_VALUE));
+        if (leafSize < count) {
+            pool.invoke(task);
+        } else {
+            task.compute();
+        }
+        if (task.failure != null) {
+            throw task.failure;
+        }
+
+        return factory.create(xValues, yValues);
+    }
+}
@@ -0,0 +1,53 @@
+package operations;
+
+import functions.ArrayTabulatedFunction;
+import functions.IdentityFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.UnitFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Выражение (a + b) / (c * d) на 4*10^6 точек: по шагам через add, multiply и divide
+ * сервиса, где каждая операция создает промежуточную функцию, против одного прохода
+ * TabulatedExpression
+ */
+public class TabulatedExpressionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TabulatedExpressionBenchmark.class);
+
+    private static final int COUNT = 4_000_000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        logger.info("Запуск TabulatedExpressionBenchmark: {} точек", COUNT);
+
+        TabulatedFunction a = new ArrayTabulatedFunction(new SqrFunction(), 1.0, 10.0, COUNT);
+        TabulatedFunction b = new ArrayTabulatedFunction(new IdentityFunction(), 1.0, 10.0, COUNT);
+        TabulatedFunction c = new ArrayTabulatedFunction(new UnitFunction(), 1.0, 10.0, COUNT);
+        TabulatedFunction d = new ArrayTabulatedFunction(new SqrFunction(), 1.0, 10.0, COUNT);
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+        TabulatedExpression expression = TabulatedExpression.of(a).add(b)
+                .divide(TabulatedExpression.of(c).multiply(d));
+
+        double stepwise = Double.MAX_VALUE;
+        double fused = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            TabulatedFunction expected = service.divide(service.add(a, b), service.multiply(c, d));
+            stepwise = Math.min(stepwise, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            TabulatedFunction result = service.evaluate(expression);
+            fused = Math.min(fused, (System.nanoTime() - start) / 1e6);
+
+            if (Double.compare(expected.getY(COUNT / 2), result.getY(COUNT / 2)) != 0) {
+                throw new IllegalStateException("Stepwise and fused results differ");
+            }
+        }
+        System.out.printf("по шагам: %8.2f мс, одним проходом: %8.2f мс, ускорение %.2f%n",
+                stepwise, fused, stepwise / fused);
+
+        logger.info("TabulatedExpressionBenchmark завершил работу");
+    }
+}
@@ -1,15 +1,32 @@
 package operations;
 
 import exceptions.InconsistentFunctionsException;
+import functions.ArrayTabulatedFunction;
+import functions.DoubleBiConsumer;
+import functions.IndexedAccess;
 import functions.factory.ArrayTabulatedFunctionFactory;
 import functions.Point;
 import functions.TabulatedFunction;
 import functions.factory.TabulatedFunctionFactory;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class TabulatedFunctionOperationService {
 
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MIN_LEAF_SIZE = 1 << 12;
+
     private TabulatedFunctionFactory factory;
 
+    // Пул для параллельных операций; null - операции выполняются последовательно
+    private ForkJoinPool pool;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private GridMergeMode mergeMode = GridMergeMode.STRICT;
+
     public TabulatedFunctionOperationService() {
         this.factory = new ArrayTabulatedFunctionFactory();
     }
@@ -26,16 +43,55 @@ public class TabulatedFunctionOperationService {
         this.factory = factory;
     }
 
-    public static Point[] asPoints(TabulatedFunction tabulatedFunction) {
-        int size = 0;
-        for (Point ignored : tabulatedFunction) {
-            size++;
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Включает параллельный режим на заданном пуле; null возвращает последовательный режим
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Минимальное количество точек, начиная с которого операция делится между потоками пула
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be positive: " + parallelThreshold);
         }
-        Point[] points = new Point[size];
-        int i = 0;
-        for (Point point : tabulatedFunction) {
-            points[i++] = point;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public GridMergeMode getMergeMode() {
+        return mergeMode;
+    }
+
+    /**
+     * Задает согласование сеток операндов; в режимах кроме STRICT функции с разными
+     * сетками не отвергаются, а пересчитываются на общую сетку за один проход O(n + m)
+     */
+    public void setMergeMode(GridMergeMode mergeMode) {
+        if (mergeMode == null) {
+            throw new NullPointerException("Merge mode must not be null");
         }
+        this.mergeMode = mergeMode;
+    }
+
+    public static Point[] asPoints(TabulatedFunction tabulatedFunction) {
+        Point[] points = new Point[tabulatedFunction.getCount()];
+        tabulatedFunction.forEachPoint(new DoubleBiConsumer() {
+            private int i = 0;
+
+            public void accept(double x, double y) {
+                points[i++] = new Point(x, y);
+            }
+        });
         return points;
     }
 
@@ -43,30 +99,254 @@ public class TabulatedFunctionOperationService {
         double apply(double u, double v);
     }
 
-    private TabulatedFunction doOperation(TabulatedFunction a, TabulatedFunction b, BiOperation operation) {
-        if (a.getCount() != b.getCount()) {
-            throw new InconsistentFunctionsException("Functions have different number of points");
+    // Копирует точки a в массивы, затем накладывает на них точки b - без промежуточных Point
+    private static final class OperationCollector implements DoubleBiConsumer {
+        private final double[] xValues;
+        private final double[] yValues;
+        private final BiOperation operation;
+        private boolean combining;
+        private int i;
+
+        OperationCollector(int count, BiOperation operation) {
+            this.xValues = new double[count];
+            this.yValues = new double[count];
+            this.operation = operation;
+        }
+
+        void combineWith(TabulatedFunction b) {
+            combining = true;
+            i = 0;
+            b.forEachPoint(this);
+        }
+
+        public void accept(double x, double y) {
+            if (!combining) {
+                xValues[i] = x;
+                yValues[i] = y;
+            } else {
+                if (Double.compare(xValues[i], x) != 0) {
+                    throw new InconsistentFunctionsException("X values differ at index " + i);
+                }
+                yValues[i] = operation.apply(yValues[i], y);
+            }
+            i++;
+        }
+    }
+
+    // Копия точек функции в массивы, заполняемая одним обходом forEachPoint
+    private static final class PointArrays implements DoubleBiConsumer {
+        private final double[] xValues;
+        private final double[] yValues;
+        private int i;
+
+        PointArrays(TabulatedFunction function) {
+            this.xValues = new double[function.getCount()];
+            this.yValues = new double[function.getCount()];
+            function.forEachPoint(this);
         }
 
-        Point[] aPoints = asPoints(a);
-        Point[] bPoints = asPoints(b);
+        public void accept(double x, double y) {
+            xValues[i] = x;
+            yValues[i] = y;
+            i++;
+        }
+    }
+
+    /**
+     * Параллельная операция над диапазоном индексов. Каждый лист проверяет совпадение x
+     * и вычисляет y за один проход; при ошибке запоминается наименьший сбойный индекс,
+     * а листы правее него пропускаются. Наружу бросается исключение с наименьшим
+     * индексом - то же, что бросил бы последовательный проход
+     */
+    // RecursiveAction сериализуем только по наследству от ForkJoinTask; задача живет внутри
+    // одного вызова и никогда не сериализуется, поэтому ее поля не обязаны быть Serializable
+    @SuppressWarnings("serial")
+    private static final class OperationTask extends RecursiveAction {
+        private final TabulatedFunction a;
+        private final TabulatedFunction b;
+        private final BiOperation operation;
+        private final double[] xValues;
+        private final double[] yValues;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final AtomicInteger failedIndex;
+        private RuntimeException failure;
 
-        int n = aPoints.length;
+        OperationTask(TabulatedFunction a, TabulatedFunction b, BiOperation operation, double[] xValues, double[] yValues,
+                      int from, int to, int leafSize, AtomicInteger failedIndex) {
+            this.a = a;
+            this.b = b;
+            this.operation = operation;
+            this.xValues = xValues;
+            this.yValues = yValues;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.failedIndex = failedIndex;
+        }
 
-        double[] xValues = new double[n];
-        double[] yValues = new double[n];
+        protected void compute() {
+            if (from >= failedIndex.get()) {
+                return;
+            }
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                OperationTask left = new OperationTask(a, b, operation, xValues, yValues, from, middle, leafSize, failedIndex);
+                OperationTask right = new OperationTask(a, b, operation, xValues, yValues, middle, to, leafSize, failedIndex);
+                invokeAll(left, right);
+                failure = left.failure != null ? left.failure : right.failure;
+                return;
+            }
 
-        for (int i = 0; i < n; i++) {
-            if (Double.compare(aPoints[i].x, bPoints[i].x) != 0) {
-                throw new InconsistentFunctionsException("X values differ at index " + i);
+            for (int i = from; i < to; i++) {
+                try {
+                    double x = a.getX(i);
+                    if (Double.compare(x, b.getX(i)) != 0) {
+                        throw new InconsistentFunctionsException("X values differ at index " + i);
+                    }
+                    xValues[i] = x;
+                    yValues[i] = operation.apply(a.getY(i), b.getY(i));
+                } catch (RuntimeException e) {
+                    failure = e;
+                    failedIndex.accumulateAndGet(i, Math::min);
+                    return;
+                }
             }
-            xValues[i] = aPoints[i].x;
-            yValues[i] = operation.apply(aPoints[i].y, bPoints[i].y);
+        }
+    }
+
+    // Функции без быстрого доступа по номеру сначала копируются в массивы одним обходом
+    static TabulatedFunction randomAccessView(TabulatedFunction function) {
+        if (function instanceof IndexedAccess) {
+            return function;
+        }
+        PointArrays points = new PointArrays(function);
+        return new ArrayTabulatedFunction(points.xValues, points.yValues);
+    }
+
+    // Объединение двух возрастающих сеток без повторов
+    private static double[] unionGrid(double[] left, double[] right) {
+        double[] union = new double[left.length + right.length];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                union[k++] = left[i++];
+            } else if (right[j] < left[i]) {
+                union[k++] = right[j++];
+            } else {
+                union[k++] = left[i++];
+                j++;
+            }
+        }
+        while (i < left.length) {
+            union[k++] = left[i++];
+        }
+        while (j < right.length) {
+            union[k++] = right[j++];
+        }
+        return k == union.length ? union : Arrays.copyOf(union, k);
+    }
+
+    /**
+     * Значения функции в узлах возрастающей сетки grid одним проходом:
+     * интервал исходной таблицы только сдвигается вправо вместе с узлом сетки.
+     * Совпавшие x дают табличное значение, вне таблицы - линейная экстраполяция по крайним точкам
+     */
+    private static double[] resample(PointArrays function, double[] grid) {
+        double[] xValues = function.xValues;
+        double[] yValues = function.yValues;
+        int last = xValues.length - 2;
+        double[] result = new double[grid.length];
+
+        int floor = 0;
+        for (int k = 0; k < grid.length; k++) {
+            double x = grid[k];
+            while (floor < last && xValues[floor + 1] <= x) {
+                floor++;
+            }
+
+            double leftX = xValues[floor], rightX = xValues[floor + 1];
+            if (leftX == x) {
+                result[k] = yValues[floor];
+            } else if (rightX == x) {
+                result[k] = yValues[floor + 1];
+            } else {
+                result[k] = yValues[floor] + (yValues[floor + 1] - yValues[floor]) * (x - leftX) / (rightX - leftX);
+            }
+        }
+        return result;
+    }
+
+    private TabulatedFunction doMergedOperation(TabulatedFunction a, TabulatedFunction b, BiOperation operation) {
+        PointArrays aPoints = new PointArrays(a);
+        PointArrays bPoints = new PointArrays(b);
+        if (aPoints.xValues.length < 2 || bPoints.xValues.length < 2) {
+            throw new InconsistentFunctionsException("At least 2 points are required to resample a function");
+        }
+
+        double[] xValues;
+        double[] aValues;
+        double[] bValues;
+        switch (mergeMode) {
+            case LEFT:
+                xValues = aPoints.xValues;
+                aValues = aPoints.yValues;
+                bValues = resample(bPoints, xValues);
+                break;
+            case RIGHT:
+                xValues = bPoints.xValues;
+                aValues = resample(aPoints, xValues);
+                bValues = bPoints.yValues;
+                break;
+            default:
+                xValues = unionGrid(aPoints.xValues, bPoints.xValues);
+                aValues = resample(aPoints, xValues);
+                bValues = resample(bPoints, xValues);
+                break;
+        }
+
+        double[] yValues = new double[xValues.length];
+        for (int i = 0; i < xValues.length; i++) {
+            yValues[i] = operation.apply(aValues[i], bValues[i]);
+        }
+        return factory.create(xValues, yValues);
+    }
+
+    private TabulatedFunction doParallelOperation(TabulatedFunction a, TabulatedFunction b, BiOperation operation) {
+        int count = a.getCount();
+        double[] xValues = new double[count];
+        double[] yValues = new double[count];
+        int leafSize = Math.max(MIN_LEAF_SIZE, count / (pool.getParallelism() * 4));
+
+        OperationTask task = new OperationTask(randomAccessView(a), randomAccessView(b), operation, xValues, yValues,
+                0, count, leafSize, new AtomicInteger(Integer.MAX_VALUE));
+        pool.invoke(task);
+        if (task.failure != null) {
+            throw task.failure;
         }
 
         return factory.create(xValues, yValues);
     }
 
+    private TabulatedFunction doOperation(TabulatedFunction a, TabulatedFunction b, BiOperation operation) {
+        if (mergeMode != GridMergeMode.STRICT) {
+            return doMergedOperation(a, b, operation);
+        }
+        if (a.getCount() != b.getCount()) {
+            throw new InconsistentFunctionsException("Functions have different number of points");
+        }
+        if (pool != null && a.getCount() >= parallelThreshold) {
+            return doParallelOperation(a, b, operation);
+        }
+
+        OperationCollector collector = new OperationCollector(a.getCount(), operation);
+        a.forEachPoint(collector);
+        collector.combineWith(b);
+
+        return factory.create(collector.xValues, collector.yValues);
+    }
+
     public TabulatedFunction add(TabulatedFunction a, TabulatedFunction b) {
         return doOperation(a, b, (u, v) -> u + v);
     }
@@ -95,11 +375,23 @@ public class TabulatedFunctionOperationService {
      * ArithmeticException если b.y[i] = 0 для любого i
      */
     public TabulatedFunction divide(TabulatedFunction a, TabulatedFunction b) {
-        return doOperation(a, b, (u, v) -> {
-            if (Math.abs(v) < 1e-12) {
-                throw new ArithmeticException("Division by zero at point with y = " + v);
-            }
-            return u / v;
-        });
+        return doOperation(a, b, TabulatedFunctionOperationService::checkedDivide);
+    }
+
+    static double checkedDivide(double u, double v) {
+        if (Math.abs(v) < 1e-12) {
+            throw new ArithmeticException("Division by zero at point with y = " + v);
+        }
+        return u / v;
+    }
+
+    /**
+     * Вычисляет отложенное выражение над функциями с общей сеткой за один проход.
+     * Используются фабрика и параллельный пул этого сервиса
+     * @param expression дерево операций, построенное TabulatedExpression
+     * @return новая функция на сетке операндов
+     */
+    public TabulatedFunction evaluate(TabulatedExpression expression) {
+        return expression.evaluate(factory, pool, parallelThreshold);
     }
 }
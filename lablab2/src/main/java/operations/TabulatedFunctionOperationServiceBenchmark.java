@@ -0,0 +1,62 @@
+package operations;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.UnitFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Масштабирование параллельного режима TabulatedFunctionOperationService:
+ * умножение двух функций на 4*10^6 точек последовательно и на пулах из 1, 2, 4 и 8 потоков
+ */
+public class TabulatedFunctionOperationServiceBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TabulatedFunctionOperationServiceBenchmark.class);
+
+    private static final int COUNT = 4_000_000;
+    private static final int ROUNDS = 10;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    public static void main(String[] args) {
+        logger.info("Запуск TabulatedFunctionOperationServiceBenchmark, доступно процессоров: {}",
+                Runtime.getRuntime().availableProcessors());
+
+        TabulatedFunction a = new ArrayTabulatedFunction(new SqrFunction(), 1.0, 10.0, COUNT);
+        TabulatedFunction b = new ArrayTabulatedFunction(new UnitFunction(), 1.0, 10.0, COUNT);
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+
+        double sequential = measure(service, a, b);
+        System.out.printf("последовательно: %8.2f мс%n", sequential);
+
+        for (int threads : THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                service.setPool(pool);
+                double millis = measure(service, a, b);
+                System.out.printf("потоков: %d      %8.2f мс, ускорение %.2f%n", threads, millis, sequential / millis);
+            } finally {
+                service.setPool(null);
+                pool.shutdown();
+            }
+        }
+
+        logger.info("TabulatedFunctionOperationServiceBenchmark завершил работу");
+    }
+
+    // Лучшее время операции за несколько прогонов, в миллисекундах
+    private static double measure(TabulatedFunctionOperationService service, TabulatedFunction a, TabulatedFunction b) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            TabulatedFunction result = service.multiply(a, b);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (result.getCount() != COUNT) {
+                throw new IllegalStateException("Unexpected result size: " + result.getCount());
+            }
+        }
+        return best;
+    }
+}
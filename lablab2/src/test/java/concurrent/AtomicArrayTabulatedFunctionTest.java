@@ -0,0 +1,81 @@
+package concurrent;
+
+import functions.SqrFunction;
+import functions.UnitFunction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AtomicArrayTabulatedFunctionTest {
+
+    @Test
+    public void testBehavesLikeArrayFunction() {
+        AtomicArrayTabulatedFunction function = new AtomicArrayTabulatedFunction(
+                new double[]{0.0, 1.0, 2.0}, new double[]{0.0, 1.0, 4.0});
+
+        assertEquals(3, function.getCount());
+        assertEquals(2.5, function.apply(1.5), 1e-12);
+        assertEquals(-1.0, function.apply(-1.0), 1e-12);
+        assertEquals(2, function.indexOfY(4.0));
+
+        function.setY(1, 3.0);
+        assertEquals(3.0, function.getY(1), 0.0);
+        assertEquals(9.0, function.updateY(1, y -> y * 3), 0.0);
+        assertEquals(9.0, function.getY(1), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateChecksIndex() {
+        new AtomicArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 5).updateY(5, y -> y);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateAllChecksRange() {
+        new AtomicArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 5).updateAllY(2, 6, y -> y);
+    }
+
+    @Test
+    public void testConcurrentUpdatesAreNotLost() throws InterruptedException {
+        AtomicArrayTabulatedFunction function = new AtomicArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 100);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int k = 0; k < 1000; k++) {
+                    function.updateY(k % 100, y -> y + 1);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < function.getCount(); i++) {
+            assertEquals(81.0, function.getY(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testMultiplyingTasksUseAtomicPath() throws InterruptedException {
+        AtomicArrayTabulatedFunction function = new AtomicArrayTabulatedFunction(new UnitFunction(), 1.0, 1000.0, 1000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 10; t++) {
+            threads.add(new Thread(new MultiplyingTask(function)));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < function.getCount(); i++) {
+            assertEquals(1024.0, function.getY(i), 0.0);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.Point;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentSkipListTabulatedFunctionTest {
+
+    @Test
+    public void testMatchesArrayFunction() {
+        double[] xValues = {-2.0, -0.5, 1.0, 1.25, 4.0};
+        double[] yValues = {4.0, 0.25, 1.0, 1.5625, 16.0};
+        ArrayTabulatedFunction expected = new ArrayTabulatedFunction(xValues, yValues);
+        ConcurrentSkipListTabulatedFunction function = new ConcurrentSkipListTabulatedFunction(xValues, yValues);
+
+        assertEquals(5, function.getCount());
+        assertEquals(-2.0, function.leftBound(), 0.0);
+        assertEquals(4.0, function.rightBound(), 0.0);
+        assertEquals(3, function.indexOfX(1.25));
+        assertEquals(-1, function.indexOfX(1.1));
+        assertEquals(2, function.indexOfY(1.0));
+        assertEquals(1.25, function.getX(3), 0.0);
+        assertEquals(16.0, function.getY(4), 0.0);
+
+        Random random = new Random(7);
+        for (int k = 0; k < 1000; k++) {
+            double x = -4.0 + random.nextDouble() * 10.0;
+            assertEquals(expected.apply(x), function.apply(x), 1e-12);
+        }
+        for (double x : xValues) {
+            assertEquals(expected.apply(x), function.apply(x), 0.0);
+        }
+    }
+
+    @Test
+    public void testInsertReplaceAndRemove() {
+        ConcurrentSkipListTabulatedFunction function = new ConcurrentSkipListTabulatedFunction();
+        assertThrows(IllegalStateException.class, () -> function.apply(0.0));
+
+        function.insert(2.0, 20.0);
+        assertThrows(IllegalStateException.class, () -> function.apply(5.0));
+        assertThrows(IllegalStateException.class, () -> function.apply(-5.0));
+        function.insert(0.0, 0.0);
+        function.insert(1.0, 10.0);
+        function.insert(1.0, 11.0);
+        assertEquals(3, function.getCount());
+        assertEquals(11.0, function.getYAt(1.0), 0.0);
+        assertTrue(Double.isNaN(function.getYAt(1.5)));
+        assertEquals(1.0, function.floorX(1.9), 0.0);
+        assertTrue(Double.isNaN(function.floorX(-1.0)));
+
+        function.setY(2, 22.0);
+        assertEquals(22.0, function.getY(2), 0.0);
+
+        function.remove(1);
+        assertFalse(function.removeX(1.0));
+        assertEquals(2, function.getCount());
+        assertEquals(11.0, function.apply(1.0), 1e-12);
+
+        List<Double> xs = new ArrayList<>();
+        for (Point point : function) {
+            xs.add(point.x);
+        }
+        assertEquals(List.of(0.0, 2.0), xs);
+        assertThrows(IllegalArgumentException.class, () -> function.getX(2));
+        assertThrows(IllegalArgumentException.class, () -> function.insert(Double.NaN, 0.0));
+    }
+
+    @Test
+    public void testConcurrentIngestKeepsEveryPointSorted() throws InterruptedException {
+        ConcurrentSkipListTabulatedFunction function = new ConcurrentSkipListTabulatedFunction();
+        int threads = 4;
+        int perThread = 5000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers.add(new Thread(() -> {
+                for (int k = 0; k < perThread; k++) {
+                    double x = k * threads + offset;
+                    function.insert(x, 2 * x);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, function.getCount());
+        double[] previous = {-1.0};
+        function.forEachPoint((x, y) -> {
+            assertEquals(previous[0] + 1.0, x, 0.0);
+            assertEquals(2 * x, y, 0.0);
+            previous[0] = x;
+        });
+    }
+
+    @Test
+    public void testReadersDuringInsertAndRemove() throws InterruptedException {
+        // Все точки лежат на прямой y = 3x, поэтому любой результат apply обязан с ней совпадать
+        ConcurrentSkipListTabulatedFunction function = new ConcurrentSkipListTabulatedFunction(
+                new double[]{0.0, 1000.0}, new double[]{0.0, 3000.0});
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < 2; w++) {
+            long seed = w;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int k = 0; k < 20_000; k++) {
+                    double x = 1 + random.nextInt(998);
+                    if (random.nextBoolean()) {
+                        function.insert(x, 3 * x);
+                    } else {
+                        function.removeX(x);
+                    }
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            Random random = new Random(5);
+            try {
+                while (running.get()) {
+                    double x = -10 + random.nextDouble() * 1020;
+                    double y = function.apply(x);
+                    if (Math.abs(y - 3 * x) > 1e-9) {
+                        failure.compareAndSet(null, new AssertionError("apply(" + x + ") = " + y));
+                    }
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }));
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        threads.get(0).join();
+        threads.get(1).join();
+        running.set(false);
+        threads.get(2).join();
+
+        assertNull(failure.get());
+        int[] count = {0};
+        function.forEachPoint((x, y) -> count[0]++);
+        assertEquals(count[0], function.getCount());
+        assertEquals(0.0, function.leftBound(), 0.0);
+        assertEquals(1000.0, function.rightBound(), 0.0);
+    }
+}
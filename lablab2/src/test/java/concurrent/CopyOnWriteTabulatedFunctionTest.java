@@ -0,0 +1,135 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.Point;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class CopyOnWriteTabulatedFunctionTest {
+
+    private static CopyOnWriteTabulatedFunction function() {
+        return new CopyOnWriteTabulatedFunction(new double[]{1, 2, 3}, new double[]{10, 20, 30});
+    }
+
+    @Test
+    public void testReadsAndSingleWrites() {
+        CopyOnWriteTabulatedFunction function = function();
+        assertEquals(3, function.getCount());
+        assertEquals(15.0, function.apply(1.5), 1e-12);
+        assertEquals(1, function.indexOfX(2.0));
+
+        function.setY(1, 25.0);
+        function.insert(4.0, 40.0);
+        function.insert(2.0, 22.0);
+        function.remove(0);
+
+        assertEquals(3, function.getCount());
+        assertEquals(2.0, function.leftBound(), 0.0);
+        assertEquals(22.0, function.getY(0), 0.0);
+        assertEquals(40.0, function.getY(2), 0.0);
+        assertEquals(4, function.snapshot().version());
+    }
+
+    @Test
+    public void testPinnedSnapshotIsUnaffectedByWrites() {
+        CopyOnWriteTabulatedFunction function = function();
+        CopyOnWriteTabulatedFunction.Snapshot pinned = function.snapshot();
+        Iterator<Point> iterator = function.iterator();
+
+        function.setY(0, -1.0);
+        function.insert(0.0, 0.0);
+
+        assertEquals(10.0, pinned.getY(0), 0.0);
+        assertEquals(3, pinned.getCount());
+        assertEquals(10.0, iterator.next().y, 0.0);
+        assertEquals(-1.0, function.getY(1), 0.0);
+        assertEquals(4, function.getCount());
+    }
+
+    @Test
+    public void testBatchUpdatePublishesOneVersion() {
+        CopyOnWriteTabulatedFunction function = function();
+        CopyOnWriteTabulatedFunction.Snapshot published = function.update(working -> {
+            working.insertAll(new double[]{4, 5, 6}, new double[]{40, 50, 60});
+            working.setY(0, 0.0);
+            working.remove(1);
+        });
+
+        assertEquals(1, published.version());
+        assertSame(published, function.snapshot());
+        assertEquals(5, function.getCount());
+        assertEquals(0.0, function.getY(0), 0.0);
+        assertEquals(3.0, function.getX(1), 0.0);
+    }
+
+    @Test
+    public void testFailedBatchLeavesStateUnchanged() {
+        CopyOnWriteTabulatedFunction function = function();
+        CopyOnWriteTabulatedFunction.Snapshot before = function.snapshot();
+
+        try {
+            function.update(working -> {
+                working.remove(0);
+                working.remove(0);
+            });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // меньше двух точек
+        }
+        try {
+            function.update(working -> working.setY(7, 1.0));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // индекс вне диапазона
+        }
+        assertSame(before, function.snapshot());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        function().snapshot().setY(0, 1.0);
+    }
+
+    @Test
+    public void testConcurrentReadersSeeWholeVersions() throws InterruptedException {
+        CopyOnWriteTabulatedFunction function = new CopyOnWriteTabulatedFunction(
+                new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 500));
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (int k = 1; k <= 300; k++) {
+                int value = k;
+                function.update(working -> {
+                    for (int i = 0; i < working.getCount(); i++) {
+                        working.setY(i, value);
+                    }
+                });
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                for (int n = 0; n < 50_000; n++) {
+                    TabulatedFunction pinned = function.snapshot();
+                    if (((CopyOnWriteTabulatedFunction.Snapshot) pinned).version() > 0) {
+                        assertEquals(pinned.getY(0), pinned.getY(pinned.getCount() - 1), 0.0);
+                    }
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assertNull(error.get());
+        assertEquals(300, function.snapshot().version());
+    }
+}
@@ -0,0 +1,113 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.LinkedListTabulatedFunction;
+import functions.TabulatedFunction;
+import functions.UnitFunction;
+import operations.TabulatedFunctionOperationService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class FunctionTransactionTest {
+
+    private final TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+
+    @Test
+    public void testPassesUnwrappedFunctionsInCallOrder() {
+        ArrayTabulatedFunction first = new ArrayTabulatedFunction(new double[]{0, 1}, new double[]{1, 2});
+        LinkedListTabulatedFunction second = new LinkedListTabulatedFunction(new double[]{0, 1}, new double[]{3, 4});
+        ArrayTabulatedFunction plain = new ArrayTabulatedFunction(new double[]{0, 1}, new double[]{5, 6});
+        StampedTabulatedFunction stamped = new StampedTabulatedFunction(first);
+        SynchronizedTabulatedFunction synced = new SynchronizedTabulatedFunction(second);
+
+        TabulatedFunction[] seen = FunctionTransaction.read(fs -> fs, synced, plain, stamped);
+
+        assertSame(second, seen[0]);
+        assertSame(plain, seen[1]);
+        assertSame(first, seen[2]);
+    }
+
+    @Test
+    public void testWriteUpdatesSeveralFunctionsAndAllowsDuplicates() {
+        StampedTabulatedFunction a = new StampedTabulatedFunction(new ArrayTabulatedFunction(new UnitFunction(), 0, 1, 3));
+        SynchronizedTabulatedFunction b = new SynchronizedTabulatedFunction(new ArrayTabulatedFunction(new UnitFunction(), 0, 1, 3));
+
+        FunctionTransaction.write(fs -> {
+            for (int i = 0; i < fs[0].getCount(); i++) {
+                fs[0].setY(i, fs[0].getY(i) + 1);
+                fs[2].setY(i, fs[2].getY(i) - 1);
+            }
+            return null;
+        }, a, a, b, b);
+
+        assertEquals(2.0, a.getY(2), 0.0);
+        assertEquals(0.0, b.getY(2), 0.0);
+    }
+
+    @Test
+    public void testOppositeOrdersDoNotDeadlockAndNeverTear() throws InterruptedException {
+        for (boolean stamped : new boolean[]{false, true}) {
+            TabulatedFunction a = wrap(new ArrayTabulatedFunction(new UnitFunction(), 0, 1, 200), stamped);
+            TabulatedFunction b = wrap(new ArrayTabulatedFunction(new UnitFunction(), 0, 1, 200), stamped);
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicReference<String> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+
+            // Писатели сдвигают a и b на одну и ту же величину; в согласованном снимке a - b == 0 везде
+            for (int w = 0; w < 2; w++) {
+                boolean reversed = w == 1;
+                threads.add(new Thread(() -> {
+                    for (int k = 0; k < 500; k++) {
+                        FunctionTransaction.write(fs -> {
+                            for (int i = 0; i < fs[0].getCount(); i++) {
+                                fs[0].setY(i, fs[0].getY(i) + 1);
+                                fs[1].setY(i, fs[1].getY(i) + 1);
+                            }
+                            return null;
+                        }, reversed ? b : a, reversed ? a : b);
+                    }
+                }));
+            }
+            threads.add(new Thread(() -> {
+                while (running.get()) {
+                    TabulatedFunction difference = FunctionTransaction.read(fs -> service.subtract(fs[1], fs[0]), b, a);
+                    for (int i = 0; i < difference.getCount(); i++) {
+                        if (difference.getY(i) != 0.0) {
+                            failure.compareAndSet(null, "torn read at " + i + ": " + difference.getY(i));
+                        }
+                    }
+                }
+            }));
+
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            threads.get(0).join(10_000);
+            threads.get(1).join(10_000);
+            running.set(false);
+            threads.get(2).join(10_000);
+
+            for (Thread thread : threads) {
+                assertFalse("transaction deadlocked", thread.isAlive());
+            }
+            assertNull(failure.get());
+            assertEquals(1001.0, a.getY(0), 0.0);
+            assertEquals(1001.0, b.getY(199), 0.0);
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRejectsNullFunction() {
+        FunctionTransaction.read(fs -> null, new ArrayTabulatedFunction(new UnitFunction(), 0, 1, 3), null);
+    }
+
+    private static TabulatedFunction wrap(TabulatedFunction function, boolean stamped) {
+        return stamped ? new StampedTabulatedFunction(function) : new SynchronizedTabulatedFunction(function);
+    }
+}
@@ -0,0 +1,132 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.UnitFunction;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class InstrumentedSynchronizedTabulatedFunctionTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        assertEquals(0, LockStatistics.bucket(0));
+        assertEquals(1, LockStatistics.bucket(1));
+        assertEquals(2, LockStatistics.bucket(3));
+        assertEquals(11, LockStatistics.bucket(1024));
+        assertEquals(LockStatistics.BUCKETS - 1, LockStatistics.bucket(Long.MAX_VALUE));
+        assertEquals(2048, LockStatistics.bucketUpperBoundNanos(11));
+    }
+
+    @Test
+    public void testRecordsAcquisitionsAndHistograms() {
+        LockStatistics statistics = new LockStatistics("test", 100);
+        statistics.record(0, 10, 2000);
+        statistics.record(0, 500, 600);
+
+        assertEquals(2, statistics.getAcquisitions());
+        assertEquals(1, statistics.getContendedAcquisitions());
+        assertEquals(510, statistics.getTotalWaitNanos());
+        assertEquals(2090, statistics.getTotalHoldNanos());
+        assertEquals(1, statistics.getWaitHistogram()[LockStatistics.bucket(10)]);
+        assertEquals(1, statistics.getHoldHistogram()[LockStatistics.bucket(1990)]);
+
+        List<LockStatistics.CallSite> sites = statistics.getTopContendedSites(3);
+        assertEquals(1, sites.size());
+        assertTrue(sites.get(0).getSite().startsWith(getClass().getName() + ".testRecordsAcquisitionsAndHistograms"));
+        assertEquals(500, sites.get(0).getWaitNanos());
+
+        statistics.reset();
+        assertEquals(0, statistics.getAcquisitions());
+        assertTrue(statistics.getTopContendedSites(3).isEmpty());
+    }
+
+    @Test
+    public void testCompositeTaskOperationCountsOnce() {
+        InstrumentedSynchronizedTabulatedFunction function = new InstrumentedSynchronizedTabulatedFunction(
+                new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 50));
+
+        function.getY(0);
+        assertEquals(1, function.getStatistics().getAcquisitions());
+
+        new MultiplyingTask(function).run();
+        // getCount в конструкторе и в run, затем один захват на каждую точку
+        assertEquals(1 + 2 + 50, function.getStatistics().getAcquisitions());
+        assertEquals(2.0, function.getY(49), 0.0);
+    }
+
+    @Test
+    public void testContendedCallSiteIsAttributed() throws InterruptedException {
+        LockStatistics statistics = new LockStatistics("contended", 0);
+        InstrumentedSynchronizedTabulatedFunction function = new InstrumentedSynchronizedTabulatedFunction(
+                new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 10), statistics);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> function.doSynchronously(f -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        locked.await();
+        Thread waiter = new Thread(() -> function.setY(0, 5.0));
+        waiter.start();
+        while (waiter.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        release.countDown();
+        holder.join();
+        waiter.join();
+
+        assertEquals(2, statistics.getAcquisitions());
+        assertTrue(statistics.getTotalWaitNanos() >= 20_000_000L);
+        LockStatistics.CallSite top = statistics.getTopContendedSites(1).get(0);
+        assertTrue(top.getSite(), top.getSite().startsWith(getClass().getName() + "."));
+        assertTrue(top.getWaitNanos() >= 20_000_000L);
+        assertTrue(statistics.report().contains("contended"));
+    }
+
+    @Test
+    public void testTransactionAcquisitionsAreRecorded() {
+        InstrumentedSynchronizedTabulatedFunction function = new InstrumentedSynchronizedTabulatedFunction(
+                new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 10));
+        StampedTabulatedFunction stamped = new StampedTabulatedFunction(
+                new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 10), new LockStatistics("stamped"));
+
+        FunctionTransaction.write(functions -> {
+            functions[0].setY(0, functions[1].getY(0) + 1.0);
+            return null;
+        }, function, stamped);
+
+        assertEquals(1, function.getStatistics().getAcquisitions());
+        assertEquals(1, stamped.getStatistics().getAcquisitions());
+        assertEquals(2.0, function.getY(0), 0.0);
+    }
+
+    @Test
+    public void testStampedLockAcquisitionsAreRecorded() {
+        LockStatistics statistics = new LockStatistics("stamped");
+        StampedTabulatedFunction function = new StampedTabulatedFunction(
+                new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 10), statistics);
+
+        // Оптимистичное чтение без записи блокировку не берет
+        function.getY(0);
+        assertEquals(0, statistics.getAcquisitions());
+
+        function.setY(0, 3.0);
+        function.doRead(f -> f.getY(0));
+        function.forEachPoint((x, y) -> { });
+        assertEquals(3, statistics.getAcquisitions());
+        assertNull(new StampedTabulatedFunction(new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 2))
+                .getStatistics());
+    }
+}
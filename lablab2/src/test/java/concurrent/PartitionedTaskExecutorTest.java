@@ -0,0 +1,163 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.LinkedListTabulatedFunction;
+import functions.TabulatedFunction;
+import functions.UnitFunction;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PartitionedTaskExecutorTest {
+
+    @Test
+    public void testEveryPointIsProcessedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        try (PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofPlatformThreads(4)) {
+            TabulatedFunction function = new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 10_000);
+            TabulatedFunction result = executor.submit(function, (x, y) -> {
+                calls.incrementAndGet();
+                return y + x;
+            }).join();
+
+            assertSame(function, result);
+            assertEquals(10_000, calls.get());
+            for (int i = 0; i < function.getCount(); i++) {
+                assertEquals(1.0 + function.getX(i), function.getY(i), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyFunctionCompletesImmediately() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        try (PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofPlatformThreads(2)) {
+            TabulatedFunction function = new ConcurrentSkipListTabulatedFunction();
+            CompletableFuture<TabulatedFunction> result = executor.submit(function, (x, y) -> {
+                calls.incrementAndGet();
+                return y;
+            });
+
+            assertSame(function, result.get(2, TimeUnit.SECONDS));
+            assertEquals(0, calls.get());
+        }
+    }
+
+    @Test
+    public void testVirtualAndForkJoinPools() {
+        TabulatedFunction function = new LinkedListTabulatedFunction(new UnitFunction(), 1.0, 1000.0, 1000);
+        try (PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofVirtualThreads()) {
+            executor.submit(function, PartitionedTaskExecutor.PointOperation.multiply(3)).join();
+        }
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofForkJoinPool(pool);
+            executor.submit(function, PartitionedTaskExecutor.PointOperation.add(1)).join();
+            executor.close();
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < function.getCount(); i++) {
+            assertEquals(4.0, function.getY(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testProgressReachesTotal() {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            PartitionedTaskExecutor executor = new PartitionedTaskExecutor(pool, 2, 100);
+            AtomicInteger chunks = new AtomicInteger();
+            AtomicInteger maxProcessed = new AtomicInteger();
+            executor.submit(new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 1050), (x, y) -> y,
+                    (processed, total) -> {
+                        assertEquals(1050, total);
+                        chunks.incrementAndGet();
+                        maxProcessed.accumulateAndGet(processed, Math::max);
+                    }).join();
+
+            assertEquals(11, chunks.get());
+            assertEquals(1050, maxProcessed.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancellationSkipsRemainingChunks() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            PartitionedTaskExecutor executor = new PartitionedTaskExecutor(pool, 1, 10);
+            TabulatedFunction function = new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 100);
+            CountDownLatch firstChunkStarted = new CountDownLatch(1);
+            CountDownLatch cancelled = new CountDownLatch(1);
+
+            CompletableFuture<TabulatedFunction> future = executor.submit(function, (x, y) -> {
+                firstChunkStarted.countDown();
+                try {
+                    cancelled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 2.0;
+            });
+            firstChunkStarted.await();
+            assertTrue(future.cancel(false));
+            cancelled.countDown();
+
+            assertThrows(CancellationException.class, future::join);
+            pool.shutdown();
+            pool.awaitTermination(5, java.util.concurrent.TimeUnit.SECONDS);
+            assertEquals(2.0, function.getY(0), 0.0);
+            assertEquals(1.0, function.getY(99), 0.0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureCompletesFutureExceptionally() {
+        try (PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofPlatformThreads(2)) {
+            TabulatedFunction function = new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 1000);
+            CompletableFuture<TabulatedFunction> future = executor.submit(function, (x, y) -> {
+                if (x > 0.5) {
+                    throw new IllegalStateException("boom");
+                }
+                return y;
+            });
+
+            CompletionException e = assertThrows(CompletionException.class, future::join);
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testAtomicFunctionUsesCas() {
+        AtomicArrayTabulatedFunction function = new AtomicArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 5000);
+        try (PartitionedTaskExecutor executor = PartitionedTaskExecutor.ofPlatformThreads(3)) {
+            CompletableFuture<?> first = executor.submit(function, PartitionedTaskExecutor.PointOperation.add(1));
+            CompletableFuture<?> second = executor.submit(function, PartitionedTaskExecutor.PointOperation.add(1));
+            CompletableFuture.allOf(first, second).join();
+        }
+        for (int i = 0; i < function.getCount(); i++) {
+            assertEquals(3.0, function.getY(i), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonPositiveThreads() {
+        PartitionedTaskExecutor.ofPlatformThreads(0);
+    }
+}
@@ -0,0 +1,116 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.Insertable;
+import functions.LinkedListTabulatedFunction;
+import functions.Point;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class StampedTabulatedFunctionTest {
+
+    @Test
+    public void testDelegatesReadsAndWrites() {
+        double[] xValues = {1, 2, 3};
+        double[] yValues = {10, 20, 30};
+        StampedTabulatedFunction function = new StampedTabulatedFunction(new LinkedListTabulatedFunction(xValues, yValues));
+
+        assertEquals(3, function.getCount());
+        assertEquals(2.0, function.getX(1), 0.0);
+        assertEquals(20.0, function.getY(1), 0.0);
+        assertEquals(1, function.indexOfX(2.0));
+        assertEquals(2, function.indexOfY(30.0));
+        assertEquals(1.0, function.leftBound(), 0.0);
+        assertEquals(3.0, function.rightBound(), 0.0);
+        assertEquals(15.0, function.apply(1.5), 1e-12);
+
+        function.setY(1, 25.0);
+        assertEquals(25.0, function.getY(1), 0.0);
+
+        List<Point> points = new ArrayList<>();
+        for (Point point : function) {
+            points.add(point);
+        }
+        assertEquals(3, points.size());
+        assertEquals(25.0, points.get(1).y, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionsPropagate() {
+        new StampedTabulatedFunction(new ArrayTabulatedFunction(new double[]{1, 2}, new double[]{1, 2})).getX(5);
+    }
+
+    @Test
+    public void testCompoundOperations() {
+        ArrayTabulatedFunction array = new ArrayTabulatedFunction(new double[]{1, 2, 3}, new double[]{1, 4, 9});
+        StampedTabulatedFunction function = new StampedTabulatedFunction(array);
+
+        double sum = function.doRead(f -> {
+            double total = 0;
+            for (int i = 0; i < f.getCount(); i++) {
+                total += f.getY(i);
+            }
+            return total;
+        });
+        assertEquals(14.0, sum, 0.0);
+
+        function.doWrite(f -> {
+            ((Insertable) f).insert(4.0, 16.0);
+            return null;
+        });
+        assertEquals(4, function.getCount());
+        assertEquals(16.0, function.apply(4.0), 0.0);
+    }
+
+    @Test
+    public void testReadersNeverSeeTornWrites() throws InterruptedException {
+        int count = 1000;
+        StampedTabulatedFunction function = new StampedTabulatedFunction(
+                new ArrayTabulatedFunction(new double[]{0.0, 1.0}, new double[]{0.0, 0.0}));
+        function.doWrite(f -> {
+            for (int i = 1; i < count; i++) {
+                ((Insertable) f).insert(1.0 + i, 0.0);
+            }
+            return null;
+        });
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // Писатель выставляет все y в одно и то же k, поэтому любое согласованное чтение дает целое k
+        Thread writer = new Thread(() -> {
+            for (int k = 1; k <= 500; k++) {
+                int value = k;
+                function.doWrite(f -> {
+                    for (int i = 0; i < f.getCount(); i++) {
+                        f.setY(i, value);
+                    }
+                    return null;
+                });
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                for (int n = 0; n < 200_000; n++) {
+                    double y = function.apply(n % count + 0.5);
+                    assertEquals(Math.rint(y), y, 0.0);
+                    assertTrue(function.doRead(f -> f.getY(0) == f.getY(f.getCount() - 1)));
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assertNull(error.get());
+        assertEquals(500.0, function.apply(0.5), 0.0);
+    }
+}
@@ -0,0 +1,134 @@
+package concurrent;
+
+import functions.ArrayTabulatedFunction;
+import functions.UnitFunction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class UpdateRingBufferTest {
+
+    @Test
+    public void testDrainReturnsUpdatesInOrderAndInBatches() throws InterruptedException {
+        UpdateRingBuffer buffer = new UpdateRingBuffer(8, UpdateRingBuffer.WaitStrategy.BUSY_SPIN);
+        UpdateRingBuffer.Consumer consumer = buffer.newConsumer();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, buffer.publish(i, i * 0.5, i * 2.0));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        assertEquals(3, consumer.drain((index, x, y) -> {
+            assertEquals(index * 0.5, x, 0.0);
+            assertEquals(index * 2.0, y, 0.0);
+            seen.add(index);
+        }, 3));
+        assertEquals(2, consumer.getSequence());
+        assertEquals(2, consumer.drain((index, x, y) -> seen.add(index), 10));
+        assertEquals(0, consumer.drain((index, x, y) -> seen.add(index), 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), seen);
+    }
+
+    @Test
+    public void testTryPublishRespectsSlowestConsumer() {
+        UpdateRingBuffer buffer = new UpdateRingBuffer(4, UpdateRingBuffer.WaitStrategy.YIELD);
+        UpdateRingBuffer.Consumer fast = buffer.newConsumer();
+        UpdateRingBuffer.Consumer slow = buffer.newConsumer();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, buffer.tryPublish(i, 0, 0));
+        }
+        fast.drain((index, x, y) -> { }, 4);
+        assertEquals(-1, buffer.tryPublish(4, 0, 0));
+
+        slow.drain((index, x, y) -> { }, 1);
+        assertEquals(4, buffer.tryPublish(4, 0, 0));
+    }
+
+    @Test
+    public void testFailedHandlerKeepsPosition() {
+        UpdateRingBuffer buffer = new UpdateRingBuffer(4, UpdateRingBuffer.WaitStrategy.PARK);
+        UpdateRingBuffer.Consumer consumer = buffer.newConsumer();
+        buffer.tryPublish(0, 0, 0);
+        buffer.tryPublish(1, 0, 0);
+
+        assertThrows(IllegalStateException.class, () -> consumer.drain((index, x, y) -> {
+            if (index == 1) {
+                throw new IllegalStateException("boom");
+            }
+        }, 4));
+        assertEquals(0, consumer.getSequence());
+    }
+
+    @Test
+    public void testClosedBufferRejectsPublishAndEndsConsumers() throws InterruptedException {
+        UpdateRingBuffer buffer = new UpdateRingBuffer(4, UpdateRingBuffer.WaitStrategy.PARK);
+        UpdateRingBuffer.Consumer consumer = buffer.newConsumer();
+        buffer.publish(0, 0, 0);
+        buffer.close();
+
+        assertThrows(IllegalStateException.class, () -> buffer.publish(1, 0, 0));
+        assertEquals(1, consumer.await((index, x, y) -> { }, 4));
+        assertEquals(-1, consumer.await((index, x, y) -> { }, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePowerOfTwo() {
+        new UpdateRingBuffer(6, UpdateRingBuffer.WaitStrategy.PARK);
+    }
+
+    @Test
+    public void testPipelineAppliesEveryUpdateAndReadsAfterWrite() throws InterruptedException {
+        for (UpdateRingBuffer.WaitStrategy strategy : UpdateRingBuffer.WaitStrategy.values()) {
+            SynchronizedTabulatedFunction function = new SynchronizedTabulatedFunction(
+                    new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 100));
+            UpdateRingBuffer buffer = new UpdateRingBuffer(16, strategy);
+            UpdateRingBuffer.Consumer applier = buffer.newConsumer();
+            UpdateRingBuffer.Consumer reader = buffer.newConsumer();
+            AtomicReference<String> failure = new AtomicReference<>();
+
+            Thread applyThread = new Thread(() -> {
+                UpdateRingBuffer.UpdateHandler apply = (index, x, y) -> function.setY(index, y);
+                try {
+                    while (applier.awaitAvailable() >= 0) {
+                        function.doSynchronously(f -> applier.drain(apply, 8));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread readThread = new Thread(() -> {
+                try {
+                    long available;
+                    while ((available = reader.awaitAvailable()) >= 0) {
+                        applier.awaitSequence(available);
+                        reader.drain((index, x, y) -> {
+                            // Значения y растут, поэтому прочитанное не может быть меньше опубликованного
+                            if (function.getY(index) < y) {
+                                failure.compareAndSet(null, "stale read at " + index);
+                            }
+                        }, (int) (available - reader.getSequence()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            applyThread.start();
+            readThread.start();
+
+            for (int k = 0; k < 5000; k++) {
+                buffer.publish(k % 100, 0, k);
+            }
+            buffer.close();
+            applyThread.join(10_000);
+            readThread.join(10_000);
+
+            assertFalse(applyThread.isAlive() || readThread.isAlive());
+            assertNull(strategy.toString(), failure.get());
+            assertEquals(4999.0, function.getY(99), 0.0);
+            assertEquals(4900.0, function.getY(0), 0.0);
+        }
+    }
+}
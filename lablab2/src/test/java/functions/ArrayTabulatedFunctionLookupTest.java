@@ -0,0 +1,153 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrayTabulatedFunctionLookupTest {
+
+    // Эталонный линейный поиск интервала, как было до бинарного поиска
+    private static int linearFloorIndexOfX(double[] xValues, double x) {
+        int count = xValues.length;
+        if (x < xValues[0]) return 0;
+        if (x >= xValues[count - 1]) return count - 2;
+        for (int i = 0; i < count - 1; i++) {
+            if (x >= xValues[i] && x < xValues[i + 1]) return i;
+        }
+        return count - 2;
+    }
+
+    private static double linearApply(double[] xValues, double[] yValues, double x) {
+        int i = linearFloorIndexOfX(xValues, x);
+        for (int j = 0; j < xValues.length; j++) {
+            if (xValues[j] == x) return yValues[j];
+        }
+        return yValues[i] + (x - xValues[i]) * (yValues[i + 1] - yValues[i]) / (xValues[i + 1] - xValues[i]);
+    }
+
+    @Test
+    public void testUniformGridMatchesLinearSearch() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), -3.0, 7.0, 1001);
+        double[] xValues = new double[function.getCount()];
+        double[] yValues = new double[function.getCount()];
+        for (int i = 0; i < xValues.length; i++) {
+            xValues[i] = function.getX(i);
+            yValues[i] = function.getY(i);
+        }
+
+        Random random = new Random(42);
+        for (int k = 0; k < 5000; k++) {
+            double x = -4.0 + random.nextDouble() * 12.0;
+            assertEquals(linearFloorIndexOfX(xValues, x), function.floorIndexOfX(x));
+            assertEquals(linearApply(xValues, yValues, x), function.apply(x), 1e-12);
+        }
+    }
+
+    @Test
+    public void testNonUniformGridMatchesLinearSearch() {
+        Random random = new Random(7);
+        double[] xValues = new double[500];
+        double[] yValues = new double[500];
+        double x = -10.0;
+        for (int i = 0; i < xValues.length; i++) {
+            x += 0.001 + random.nextDouble();
+            xValues[i] = x;
+            yValues[i] = Math.sin(x);
+        }
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(xValues, yValues);
+
+        for (int k = 0; k < 5000; k++) {
+            double probe = xValues[0] - 1.0 + random.nextDouble() * (xValues[499] - xValues[0] + 2.0);
+            assertEquals(linearFloorIndexOfX(xValues, probe), function.floorIndexOfX(probe));
+            assertEquals(linearApply(xValues, yValues, probe), function.apply(probe), 1e-12);
+        }
+    }
+
+    @Test
+    public void testExactHitsReturnTableValues() {
+        double[] xValues = {0.0, 0.1, 0.2, 0.3, 0.4, 0.5};
+        double[] yValues = {5.0, 4.0, 3.0, 2.0, 1.0, 0.0};
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(xValues, yValues);
+
+        for (int i = 0; i < xValues.length; i++) {
+            assertEquals(yValues[i], function.apply(xValues[i]), 0.0);
+            assertEquals(i, function.indexOfX(xValues[i]));
+        }
+        assertEquals(-1, function.indexOfX(0.15));
+        assertEquals(-1, function.indexOfX(1.0));
+    }
+
+    @Test
+    public void testFloorIndexOnUniformGridNodes() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new IdentityFunction(), 0.0, 1.0, 11);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, function.floorIndexOfX(function.getX(i)));
+        }
+        assertEquals(9, function.floorIndexOfX(1.0));
+        assertEquals(0, function.floorIndexOfX(-5.0));
+        assertEquals(9, function.floorIndexOfX(5.0));
+    }
+
+    @Test
+    public void testInsertBreaksUniformGrid() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new IdentityFunction(), 0.0, 4.0, 5);
+        function.insert(0.5, 10.0);
+
+        assertEquals(0, function.floorIndexOfX(0.25));
+        assertEquals(1, function.floorIndexOfX(0.75));
+        assertEquals(2, function.floorIndexOfX(1.5));
+        assertEquals(10.0, function.apply(0.5), 0.0);
+        assertEquals(5.5, function.apply(0.75), 1e-12);
+    }
+
+    @Test
+    public void testRemoveKeepsLookupConsistent() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new IdentityFunction(), 0.0, 4.0, 5);
+        function.remove(2);
+
+        assertEquals(1, function.floorIndexOfX(2.0));
+        assertEquals(2.5, function.apply(2.5), 1e-12);
+        assertEquals(2, function.floorIndexOfX(3.5));
+    }
+
+    @Test
+    public void testUniformLookupAfterSerialization() throws Exception {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 10.0, 101);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(function);
+        }
+        ArrayTabulatedFunction restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (ArrayTabulatedFunction) in.readObject();
+        }
+
+        assertEquals(function, restored);
+        assertEquals(37, restored.floorIndexOfX(3.75));
+        assertEquals(function.apply(3.75), restored.apply(3.75), 0.0);
+    }
+
+    @Test
+    public void testFloorIndexFromSearch() {
+        assertEquals(0, AbstractTabulatedFunction.floorIndexFromSearch(-1, 5));
+        assertEquals(2, AbstractTabulatedFunction.floorIndexFromSearch(2, 5));
+        assertEquals(2, AbstractTabulatedFunction.floorIndexFromSearch(-4, 5));
+        assertEquals(3, AbstractTabulatedFunction.floorIndexFromSearch(4, 5));
+        assertEquals(3, AbstractTabulatedFunction.floorIndexFromSearch(-6, 5));
+    }
+
+    @Test
+    public void testUniformInverseStep() {
+        assertEquals(10.0, AbstractTabulatedFunction.uniformInverseStep(new double[]{0.0, 0.1, 0.2, 0.3}, 4), 1e-9);
+        assertEquals(0.0, AbstractTabulatedFunction.uniformInverseStep(new double[]{0.0, 0.1, 0.25, 0.3}, 4), 0.0);
+        assertEquals(0.5, AbstractTabulatedFunction.uniformInverseStep(new double[]{1.0, 3.0}, 2), 0.0);
+    }
+}
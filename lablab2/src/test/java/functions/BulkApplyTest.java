@@ -0,0 +1,125 @@
+package functions;
+
+import concurrent.SynchronizedTabulatedFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkApplyTest {
+
+    private static double[] sortedArguments(int count, double from, double to) {
+        double[] xs = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = from + (to - from) * i / (count - 1);
+        }
+        return xs;
+    }
+
+    private static void assertMatchesApply(MathFunction function, double[] xs) {
+        double[] out = new double[xs.length];
+        function.applyAll(xs, out);
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(function.apply(xs[i]), out[i], 1e-12, "x = " + xs[i]);
+        }
+    }
+
+    @Test
+    public void testDefaultApplyAll() {
+        MathFunction function = x -> 3 * x + 1;
+        assertMatchesApply(function, sortedArguments(50, -5, 5));
+    }
+
+    @Test
+    public void testArrayFunctionSortedWithExtrapolation() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(
+                new double[]{0.0, 1.0, 3.0, 4.0, 7.0}, new double[]{1.0, 2.0, 0.0, 5.0, -1.0});
+        assertMatchesApply(function, sortedArguments(301, -2.0, 9.0));
+    }
+
+    @Test
+    public void testArrayFunctionExactNodes() {
+        double[] xValues = {0.0, 0.5, 1.0, 1.5};
+        double[] yValues = {2.0, 4.0, 8.0, 16.0};
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(xValues, yValues);
+
+        double[] out = new double[4];
+        function.applyAll(xValues, out);
+        assertArrayEquals(yValues, out, 0.0);
+    }
+
+    @Test
+    public void testArrayFunctionUnsortedArguments() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), -3.0, 3.0, 61);
+        double[] xs = new double[1000];
+        Random random = new Random(1);
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = -4.0 + 8.0 * random.nextDouble();
+        }
+        assertMatchesApply(function, xs);
+    }
+
+    @Test
+    public void testLinkedListFunction() {
+        LinkedListTabulatedFunction function = new LinkedListTabulatedFunction(
+                new double[]{-1.0, 0.0, 2.0, 5.0}, new double[]{1.0, 0.0, 4.0, 25.0});
+        assertMatchesApply(function, sortedArguments(200, -3.0, 7.0));
+        assertMatchesApply(function, new double[]{4.0, -2.0, 0.0, 1.0, 6.0, -1.0});
+    }
+
+    @Test
+    public void testSimpleFunctions() {
+        double[] xs = sortedArguments(100, -10, 10);
+        assertMatchesApply(new SqrFunction(), xs);
+        assertMatchesApply(new ConstantFunction(2.5), xs);
+        assertMatchesApply(new ZeroFunction(), xs);
+        assertMatchesApply(new IdentityFunction(), xs);
+    }
+
+    @Test
+    public void testCompositeFunction() {
+        MathFunction inner = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 4.0, 9);
+        CompositeFunction composite = new CompositeFunction(inner, new SqrFunction());
+        assertMatchesApply(composite, sortedArguments(100, -1.0, 5.0));
+    }
+
+    @Test
+    public void testSynchronizedFunction() {
+        SynchronizedTabulatedFunction function = new SynchronizedTabulatedFunction(
+                new ArrayTabulatedFunction(new SqrFunction(), 0.0, 2.0, 5));
+        assertMatchesApply(function, sortedArguments(20, -1.0, 3.0));
+    }
+
+    @Test
+    public void testInPlaceEvaluation() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 10.0, 11);
+        double[] xs = sortedArguments(41, 0.0, 10.0);
+        double[] expected = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            expected[i] = function.apply(xs[i]);
+        }
+
+        function.applyAll(xs, xs);
+        assertArrayEquals(expected, xs, 1e-12);
+    }
+
+    @Test
+    public void testRangeLeavesOtherElements() {
+        double[] xs = {1.0, 2.0, 3.0, 4.0, 5.0};
+        double[] out = new double[5];
+        Arrays.fill(out, -1.0);
+
+        new SqrFunction().applyAll(xs, 1, 4, out);
+        assertArrayEquals(new double[]{-1.0, 4.0, 9.0, 16.0, -1.0}, out, 0.0);
+    }
+
+    @Test
+    public void testInvalidRange() {
+        double[] xs = new double[3];
+        assertThrows(IllegalArgumentException.class, () -> new SqrFunction().applyAll(xs, 2, 1, xs));
+        assertThrows(IllegalArgumentException.class, () -> new ConstantFunction(1).applyAll(xs, 0, 4, xs));
+        assertThrows(IllegalArgumentException.class, () -> new IdentityFunction().applyAll(xs, new double[2]));
+    }
+}
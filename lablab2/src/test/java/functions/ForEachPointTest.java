@@ -0,0 +1,47 @@
+package functions;
+
+import concurrent.SynchronizedTabulatedFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ForEachPointTest {
+
+    private static final double[] X_VALUES = {-1.0, 0.0, 0.5, 2.0, 3.5};
+    private static final double[] Y_VALUES = {1.0, 0.0, 0.25, 4.0, 12.25};
+
+    private static void assertSameAsIterator(TabulatedFunction function) {
+        List<Point> iterated = new ArrayList<>();
+        for (Point point : function) {
+            iterated.add(point);
+        }
+
+        List<double[]> visited = new ArrayList<>();
+        function.forEachPoint((x, y) -> visited.add(new double[]{x, y}));
+
+        assertEquals(iterated.size(), visited.size(), function.getClass().getSimpleName());
+        for (int i = 0; i < iterated.size(); i++) {
+            assertEquals(iterated.get(i).x, visited.get(i)[0], 0.0);
+            assertEquals(iterated.get(i).y, visited.get(i)[1], 0.0);
+        }
+    }
+
+    @Test
+    public void testImplementationsMatchIterator() {
+        assertSameAsIterator(new ArrayTabulatedFunction(X_VALUES, Y_VALUES));
+        assertSameAsIterator(new LinkedListTabulatedFunction(X_VALUES, Y_VALUES));
+        assertSameAsIterator(new LinkedListTabulatedFunctionX(X_VALUES, Y_VALUES));
+        assertSameAsIterator(new GrowableArrayTabulatedFunction(X_VALUES, Y_VALUES));
+        assertSameAsIterator(new LoggingTabulatedFunction(new ArrayTabulatedFunction(X_VALUES, Y_VALUES)));
+        assertSameAsIterator(new SynchronizedTabulatedFunction(new LinkedListTabulatedFunction(X_VALUES, Y_VALUES)));
+    }
+
+    @Test
+    public void testToStringUsesAllPoints() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new double[]{0.0, 0.5}, new double[]{1.0, 2.0});
+        assertEquals("ArrayTabulatedFunction size = 2\n[0.0; 1.0]\n[0.5; 2.0]", function.toString());
+    }
+}
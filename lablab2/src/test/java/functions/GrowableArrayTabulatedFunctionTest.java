@@ -0,0 +1,164 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrowableArrayTabulatedFunctionTest {
+
+    private static void assertMatches(TreeMap<Double, Double> expected, GrowableArrayTabulatedFunction function) {
+        assertEquals(expected.size(), function.getCount());
+        int index = 0;
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), function.getX(index), 0.0);
+            assertEquals(entry.getValue(), function.getY(index), 0.0);
+            index++;
+        }
+    }
+
+    @Test
+    public void testStreamingInsertGrowsGeometrically() {
+        GrowableArrayTabulatedFunction function = new GrowableArrayTabulatedFunction(2);
+        int reallocations = 0;
+        int capacity = function.capacity();
+
+        for (int i = 0; i < 10_000; i++) {
+            function.insert(i * 0.5, i);
+            if (function.capacity() != capacity) {
+                capacity = function.capacity();
+                reallocations++;
+            }
+        }
+
+        assertEquals(10_000, function.getCount());
+        assertTrue(reallocations < 30, "reallocations = " + reallocations);
+        assertEquals(2.5, function.apply(1.25), 1e-12);
+    }
+
+    @Test
+    public void testRandomInsertAndRemoveMatchReference() {
+        GrowableArrayTabulatedFunction function = new GrowableArrayTabulatedFunction();
+        TreeMap<Double, Double> expected = new TreeMap<>();
+        Random random = new Random(3);
+
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextInt(500);
+            if (expected.size() > 2 && random.nextInt(4) == 0) {
+                int index = random.nextInt(expected.size());
+                Double key = expected.keySet().toArray(new Double[0])[index];
+                function.remove(index);
+                expected.remove(key);
+            } else {
+                double y = random.nextDouble();
+                function.insert(x, y);
+                expected.put(x, y);
+            }
+        }
+        assertMatches(expected, function);
+    }
+
+    @Test
+    public void testInsertAllMergesWithDuplicates() {
+        GrowableArrayTabulatedFunction function = new GrowableArrayTabulatedFunction(
+                new double[]{1.0, 3.0, 5.0, 7.0}, new double[]{10.0, 30.0, 50.0, 70.0});
+        function.insertAll(new double[]{0.0, 3.0, 4.0, 7.0, 9.0}, new double[]{0.5, 3.5, 4.5, 7.5, 9.5});
+
+        assertEquals(7, function.getCount());
+        assertArrayEquals(new double[]{0.0, 1.0, 3.0, 4.0, 5.0, 7.0, 9.0}, xs(function), 0.0);
+        assertArrayEquals(new double[]{0.5, 10.0, 3.5, 4.5, 50.0, 7.5, 9.5}, ys(function), 0.0);
+    }
+
+    @Test
+    public void testInsertAllMatchesSequentialInsert() {
+        Random random = new Random(9);
+        GrowableArrayTabulatedFunction bulk = new GrowableArrayTabulatedFunction();
+        GrowableArrayTabulatedFunction sequential = new GrowableArrayTabulatedFunction();
+
+        for (int round = 0; round < 20; round++) {
+            TreeMap<Double, Double> batch = new TreeMap<>();
+            for (int i = 0; i < 50; i++) {
+                batch.put((double) random.nextInt(300), random.nextDouble());
+            }
+            double[] xs = new double[batch.size()];
+            double[] ys = new double[batch.size()];
+            int i = 0;
+            for (var entry : batch.entrySet()) {
+                xs[i] = entry.getKey();
+                ys[i] = entry.getValue();
+                sequential.insert(xs[i], ys[i]);
+                i++;
+            }
+            bulk.insertAll(xs, ys);
+            assertEquals(sequential, bulk);
+        }
+    }
+
+    @Test
+    public void testInsertAllRejectsUnsortedBatch() {
+        GrowableArrayTabulatedFunction function = new GrowableArrayTabulatedFunction();
+        assertThrows(exceptions.ArrayIsNotSortedException.class,
+                () -> function.insertAll(new double[]{2.0, 1.0}, new double[]{0.0, 0.0}));
+        assertThrows(exceptions.DifferentLengthOfArraysException.class,
+                () -> function.insertAll(new double[]{1.0, 2.0}, new double[]{0.0}));
+    }
+
+    @Test
+    public void testTrimToSizeAndSerialization() throws Exception {
+        GrowableArrayTabulatedFunction function = new GrowableArrayTabulatedFunction(100);
+        function.insert(1.0, 1.0);
+        function.insert(2.0, 4.0);
+        function.insert(3.0, 9.0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(function);
+        }
+        GrowableArrayTabulatedFunction restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (GrowableArrayTabulatedFunction) in.readObject();
+        }
+        assertEquals(function, restored);
+        assertEquals(3, restored.capacity());
+
+        function.trimToSize();
+        assertEquals(3, function.capacity());
+        function.insert(4.0, 16.0);
+        assertEquals(12.5, function.apply(3.5), 1e-12);
+    }
+
+    @Test
+    public void testEmptyAndInvalidAccess() {
+        GrowableArrayTabulatedFunction function = new GrowableArrayTabulatedFunction();
+        assertThrows(IllegalStateException.class, function::leftBound);
+        assertThrows(IllegalStateException.class, () -> function.apply(1.0));
+        assertThrows(IllegalArgumentException.class, () -> function.getX(0));
+        assertThrows(IllegalArgumentException.class, () -> new GrowableArrayTabulatedFunction(-1));
+
+        function.insert(1.0, 2.0);
+        assertThrows(IllegalStateException.class, () -> function.apply(1.0));
+        assertThrows(IllegalArgumentException.class, () -> function.remove(1));
+    }
+
+    private static double[] xs(TabulatedFunction function) {
+        double[] result = new double[function.getCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = function.getX(i);
+        }
+        return result;
+    }
+
+    private static double[] ys(TabulatedFunction function) {
+        double[] result = new double[function.getCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = function.getY(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class HotPathAllocationTest {
+
+    private static final int CALLS = 200_000;
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled());
+        return sunBean;
+    }
+
+    // Прогоняет все методы горячего пути и возвращает контрольную сумму
+    private static double exercise(TabulatedFunction function, int calls) {
+        double sum = 0;
+        int count = function.getCount();
+        double left = function.leftBound();
+        double width = function.rightBound() - left;
+        for (int i = 0; i < calls; i++) {
+            int index = i % count;
+            sum += function.getX(index) + function.getY(index);
+            function.setY(index, function.getY(index));
+            sum += function.apply(left - 1.0 + (width + 2.0) * (i % 1000) / 1000.0);
+            sum += function.getCount() + function.indexOfX(function.getX(index));
+        }
+        return sum;
+    }
+
+    private static double allocatedBytesPerCall(TabulatedFunction function) {
+        com.sun.management.ThreadMXBean bean = threadBean();
+        long threadId = Thread.currentThread().threadId();
+
+        exercise(function, CALLS);
+        bean.getThreadAllocatedBytes(threadId);
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        double sum = exercise(function, CALLS);
+        long after = bean.getThreadAllocatedBytes(threadId);
+
+        assertFalse(Double.isNaN(sum));
+        return (double) (after - before) / CALLS;
+    }
+
+    @Test
+    public void testArrayFunctionHotPathDoesNotAllocate() {
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), -5.0, 5.0, 101);
+        assertTrue(allocatedBytesPerCall(function) < 0.01);
+    }
+
+    @Test
+    public void testNonUniformArrayFunctionHotPathDoesNotAllocate() {
+        TabulatedFunction function = new ArrayTabulatedFunction(
+                new double[]{0.0, 0.5, 2.0, 2.5, 7.0, 9.0}, new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0});
+        assertTrue(allocatedBytesPerCall(function) < 0.01);
+    }
+
+    @Test
+    public void testLinkedListFunctionHotPathDoesNotAllocate() {
+        TabulatedFunction function = new LinkedListTabulatedFunction(new SqrFunction(), -5.0, 5.0, 101);
+        assertTrue(allocatedBytesPerCall(function) < 0.01);
+    }
+
+    private double pointSum;
+
+    @Test
+    public void testForEachPointDoesNotAllocate() {
+        com.sun.management.ThreadMXBean bean = threadBean();
+        long threadId = Thread.currentThread().threadId();
+        DoubleBiConsumer sum = (x, y) -> pointSum += x + y;
+        TabulatedFunction[] functions = {
+                new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 1_000_000),
+                new LinkedListTabulatedFunction(new SqrFunction(), 0.0, 1.0, 1_000_000)
+        };
+
+        for (TabulatedFunction function : functions) {
+            function.forEachPoint(sum);
+            bean.getThreadAllocatedBytes(threadId);
+
+            long before = bean.getThreadAllocatedBytes(threadId);
+            function.forEachPoint(sum);
+            long after = bean.getThreadAllocatedBytes(threadId);
+
+            assertTrue(after - before < 1024, function.getClass().getSimpleName() + ": " + (after - before));
+        }
+        assertFalse(Double.isNaN(pointSum));
+    }
+
+    @Test
+    public void testLoggingDecoratorDelegates() {
+        ArrayTabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 4.0, 5);
+        LoggingTabulatedFunction logging = new LoggingTabulatedFunction(function);
+
+        assertSame(function, logging.getFunction());
+        assertEquals(function.getCount(), logging.getCount());
+        assertEquals(function.apply(2.5), logging.apply(2.5), 0.0);
+        assertEquals(function.apply(-1.0), logging.apply(-1.0), 0.0);
+        assertEquals(3, logging.indexOfX(3.0));
+
+        logging.setY(1, 7.0);
+        assertEquals(7.0, function.getY(1), 0.0);
+
+        int points = 0;
+        for (Point point : logging) {
+            assertEquals(function.getX(points), point.x, 0.0);
+            points++;
+        }
+        assertEquals(5, points);
+    }
+}
@@ -0,0 +1,110 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkedListTabulatedFunctionIndexTest {
+
+    // Сверяет функцию с эталонной таблицей: доступ по номеру, поиск и порядок списка
+    private static void assertMatches(TreeMap<Double, Double> expected, LinkedListTabulatedFunction function) {
+        assertEquals(expected.size(), function.getCount());
+        int index = 0;
+        Iterator<Point> iterator = function.iterator();
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), function.getX(index), 0.0);
+            assertEquals(entry.getValue(), function.getY(index), 0.0);
+            assertEquals(index, function.indexOfX(entry.getKey()));
+
+            Point point = iterator.next();
+            assertEquals(entry.getKey(), point.x, 0.0);
+            assertEquals(entry.getValue(), point.y, 0.0);
+            index++;
+        }
+        assertFalse(iterator.hasNext());
+        assertEquals(expected.firstKey(), function.leftBound(), 0.0);
+        assertEquals(expected.lastKey(), function.rightBound(), 0.0);
+    }
+
+    @Test
+    public void testRandomInsertsKeepIndexConsistent() {
+        LinkedListTabulatedFunction function = new LinkedListTabulatedFunction();
+        TreeMap<Double, Double> expected = new TreeMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 500; i++) {
+            double x = random.nextInt(300) / 10.0;
+            double y = random.nextDouble();
+            function.insert(x, y);
+            expected.put(x, y);
+        }
+        assertMatches(expected, function);
+        assertEquals(-1, function.indexOfX(-1.0));
+        assertEquals(-1, function.indexOfX(0.05));
+    }
+
+    @Test
+    public void testFloorIndexMatchesLinearSearch() {
+        LinkedListTabulatedFunction function = new LinkedListTabulatedFunction(
+                new double[]{-2.0, -0.5, 0.0, 1.5, 4.0, 4.5}, new double[]{4.0, 0.25, 0.0, 2.25, 16.0, 20.25});
+
+        Random random = new Random(5);
+        for (int k = 0; k < 1000; k++) {
+            double x = -4.0 + random.nextDouble() * 10.0;
+            int expected = 0;
+            while (expected < function.getCount() - 2 && function.getX(expected + 1) <= x) {
+                expected++;
+            }
+            assertEquals(expected, function.floorIndexOfX(x), "x = " + x);
+        }
+    }
+
+    @Test
+    public void testInsertAtBothEndsAndUpdate() {
+        LinkedListTabulatedFunction function = new LinkedListTabulatedFunction(new IdentityFunction(), 0.0, 3.0, 4);
+        function.insert(-1.0, -10.0);
+        function.insert(5.0, 50.0);
+        function.insert(2.0, 20.0);
+
+        assertEquals(6, function.getCount());
+        assertEquals(-1.0, function.leftBound(), 0.0);
+        assertEquals(5.0, function.rightBound(), 0.0);
+        assertEquals(20.0, function.getY(3), 0.0);
+        assertEquals(26.5, function.apply(4.0), 1e-12);
+        assertEquals(-20.0, function.apply(-2.0), 1e-12);
+    }
+
+    @Test
+    public void testCloneAndSerializationRebuildIndex() throws Exception {
+        LinkedListTabulatedFunction function = new LinkedListTabulatedFunction(new SqrFunction(), 0.0, 10.0, 101);
+
+        LinkedListTabulatedFunction cloned = function.clone();
+        cloned.insert(0.05, 1.0);
+        assertEquals(101, function.getCount());
+        assertEquals(102, cloned.getCount());
+        assertEquals(1, cloned.indexOfX(0.05));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(function);
+        }
+        LinkedListTabulatedFunction restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (LinkedListTabulatedFunction) in.readObject();
+        }
+
+        assertEquals(function.getX(50), restored.getX(50), 0.0);
+        assertEquals(37, restored.floorIndexOfX(3.75));
+        assertEquals(function.apply(3.75), restored.apply(3.75), 0.0);
+        restored.insert(20.0, 400.0);
+        assertEquals(20.0, restored.rightBound(), 0.0);
+    }
+}
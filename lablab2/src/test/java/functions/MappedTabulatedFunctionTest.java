@@ -0,0 +1,137 @@
+package functions;
+
+import functions.factory.MappedTabulatedFunctionFactory;
+import io.FunctionsIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedTabulatedFunctionTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(TabulatedFunction function) throws IOException {
+        Path file = directory.resolve("function.bin");
+        try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            FunctionsIO.writeTabulatedFunction(out, function);
+        }
+        return file;
+    }
+
+    @Test
+    public void testReadsWriteTabulatedFunctionLayout() throws IOException {
+        ArrayTabulatedFunction expected = new ArrayTabulatedFunction(
+                new double[]{-2.0, -0.5, 1.0, 1.25, 4.0}, new double[]{4.0, 0.25, 1.0, 1.5625, 16.0});
+
+        try (MappedTabulatedFunction function = MappedTabulatedFunction.open(write(expected))) {
+            assertEquals(expected.getCount(), function.getCount());
+            for (int i = 0; i < expected.getCount(); i++) {
+                assertEquals(expected.getX(i), function.getX(i), 0.0);
+                assertEquals(expected.getY(i), function.getY(i), 0.0);
+            }
+            assertEquals(-2.0, function.leftBound(), 0.0);
+            assertEquals(4.0, function.rightBound(), 0.0);
+            assertEquals(3, function.indexOfX(1.25));
+            assertEquals(-1, function.indexOfX(1.1));
+            assertEquals(2, function.indexOfY(1.0));
+
+            Random random = new Random(4);
+            for (int k = 0; k < 1000; k++) {
+                double x = -4.0 + random.nextDouble() * 10.0;
+                assertEquals(expected.apply(x), function.apply(x), 1e-12);
+            }
+
+            int points = 0;
+            for (Point point : function) {
+                assertEquals(expected.getX(points), point.x, 0.0);
+                points++;
+            }
+            assertEquals(5, points);
+        }
+    }
+
+    @Test
+    public void testReadOnlyAndWritableMappings() throws IOException {
+        Path file = write(new ArrayTabulatedFunction(new SqrFunction(), 0.0, 3.0, 4));
+
+        try (MappedTabulatedFunction function = MappedTabulatedFunction.open(file)) {
+            assertThrows(UnsupportedOperationException.class, () -> function.setY(1, 5.0));
+        }
+
+        try (MappedTabulatedFunction function = MappedTabulatedFunction.open(file, true)) {
+            function.setY(1, 5.0);
+            function.force();
+        }
+
+        try (BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            TabulatedFunction reread = FunctionsIO.readTabulatedFunction(in,
+                    new functions.factory.ArrayTabulatedFunctionFactory());
+            assertEquals(5.0, reread.getY(1), 0.0);
+        }
+    }
+
+    @Test
+    public void testClosedFunctionRejectsAccess() throws IOException {
+        MappedTabulatedFunction function = MappedTabulatedFunction.open(
+                write(new ArrayTabulatedFunction(new SqrFunction(), 0.0, 3.0, 4)));
+        function.close();
+        function.close();
+
+        assertThrows(IllegalStateException.class, () -> function.getX(0));
+        assertThrows(IllegalArgumentException.class, () -> function.getX(4));
+    }
+
+    @Test
+    public void testRejectsTruncatedFile() throws IOException {
+        Path file = write(new ArrayTabulatedFunction(new SqrFunction(), 0.0, 3.0, 4));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+
+        assertThrows(IOException.class, () -> MappedTabulatedFunction.open(file));
+    }
+
+    @Test
+    public void testFactoryCreatesTemporaryMapping() throws IOException {
+        MappedTabulatedFunctionFactory factory = new MappedTabulatedFunctionFactory(directory);
+        TabulatedFunction function = factory.create(new double[]{0.0, 1.0, 2.0}, new double[]{0.0, 1.0, 4.0});
+
+        assertTrue(function instanceof MappedTabulatedFunction);
+        assertEquals(2.5, function.apply(1.5), 1e-12);
+        function.setY(0, -1.0);
+        assertEquals(-1.0, function.getY(0), 0.0);
+
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        ((MappedTabulatedFunction) function).close();
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testUnreachableFactoryFunctionReleasesFile() throws InterruptedException, IOException {
+        MappedTabulatedFunctionFactory factory = new MappedTabulatedFunctionFactory(directory);
+        assertEquals(2.5, factory.create(new double[]{0.0, 1.0, 2.0}, new double[]{0.0, 1.0, 4.0}).apply(1.5), 1e-12);
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        long files;
+        do {
+            System.gc();
+            Thread.sleep(20);
+            try (var list = Files.list(directory)) {
+                files = list.count();
+            }
+        } while (files > 0 && System.nanoTime() < deadline);
+        assertEquals(0, files);
+    }
+}
@@ -0,0 +1,97 @@
+package functions;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TabulatedFunctionSerializationTest {
+
+    // Потоки прежнего формата (до явной сериализации) для функции x^2 в точках 0, 1, 2, 3
+    private static final String LEGACY_LINKED_LIST = "rO0ABXNyACVmdW5jdGlvbnMuTGlua2VkTGlzdFRhYnVsYXRlZEZ1bmN0aW9uAAAAAAdbzRUC"
+            + "AAJJAAVjb3VudEwABGhlYWR0ACxMZnVuY3Rpb25zL0xpbmtlZExpc3RUYWJ1bGF0ZWRGdW5jdGlvbiROb2RlO3hwAAAABHNyACpmdW5j"
+            + "dGlvbnMuTGlua2VkTGlzdFRhYnVsYXRlZEZ1bmN0aW9uJE5vZGUAAAAAOt5osQIAA0wABG5leHRxAH4AAUwABnRoaXMkMHQAJ0xmdW5j"
+            + "dGlvbnMvTGlua2VkTGlzdFRhYnVsYXRlZEZ1bmN0aW9uO0wABXZhbHVldAARTGZ1bmN0aW9ucy9Qb2ludDt4cHNxAH4AA3NxAH4AA3Nx"
+            + "AH4AA3BxAH4AAnNyAA9mdW5jdGlvbnMuUG9pbnQAAAAAAAAAAQIAAkQAAXhEAAF5eHBACAAAAAAAAEAiAAAAAAAAcQB+AAJzcQB+AApA"
+            + "AAAAAAAAAEAQAAAAAAAAcQB+AAJzcQB+AAo/8AAAAAAAAD/wAAAAAAAAcQB+AAJzcQB+AAoAAAAAAAAAAAAAAAAAAAAA";
+    private static final String LEGACY_ARRAY = "rO0ABXNyACBmdW5jdGlvbnMuQXJyYXlUYWJ1bGF0ZWRGdW5jdGlvbnND2PVKze24AgACWwAH"
+            + "eFZhbHVlc3QAAltEWwAHeVZhbHVlc3EAfgABeHB1cgACW0Q+powUq2NaHgIAAHhwAAAABAAAAAAAAAAAP/AAAAAAAABAAAAAAAAAAEAI"
+            + "AAAAAAAAdXEAfgADAAAABAAAAAAAAAAAP/AAAAAAAABAEAAAAAAAAEAiAAAAAAAA";
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    @Test
+    public void testReadsLegacyStreams() throws IOException, ClassNotFoundException {
+        TabulatedFunction expected = new ArrayTabulatedFunction(new double[]{0, 1, 2, 3}, new double[]{0, 1, 4, 9});
+
+        LinkedListTabulatedFunction list = (LinkedListTabulatedFunction) deserialize(
+                Base64.getDecoder().decode(LEGACY_LINKED_LIST));
+        assertEquals(4, list.getCount());
+        assertEquals(9.0, list.getY(3), 0.0);
+        assertEquals(2.5, list.apply(1.5), 1e-12);
+        list.insert(4, 16);
+        assertEquals(5, list.getCount());
+
+        ArrayTabulatedFunction array = (ArrayTabulatedFunction) deserialize(Base64.getDecoder().decode(LEGACY_ARRAY));
+        assertEquals(expected, array);
+    }
+
+    @Test
+    public void testLongLinkedListRoundTripWithoutRecursion() throws IOException, ClassNotFoundException {
+        double[] xValues = new double[200_000];
+        double[] yValues = new double[200_000];
+        for (int i = 0; i < xValues.length; i++) {
+            xValues[i] = i;
+            yValues[i] = Math.sqrt(i);
+        }
+        LinkedListTabulatedFunction function = new LinkedListTabulatedFunction(xValues, yValues);
+
+        byte[] bytes = serialize(function);
+        // Два массива double и заголовок, без объектов Node и Point
+        assertTrue(bytes.length < 2 * 8 * xValues.length + 1024);
+        LinkedListTabulatedFunction read = (LinkedListTabulatedFunction) deserialize(bytes);
+        assertEquals(function.getCount(), read.getCount());
+        assertEquals(function.getY(123_456), read.getY(123_456), 0.0);
+        assertEquals(function.apply(1000.5), read.apply(1000.5), 0.0);
+        read.insert(-1, 0);
+        assertEquals(-1.0, read.leftBound(), 0.0);
+
+        LinkedListTabulatedFunction empty = (LinkedListTabulatedFunction) deserialize(
+                serialize(new LinkedListTabulatedFunction()));
+        assertEquals(0, empty.getCount());
+    }
+
+    @Test
+    public void testRemovableRoundTripWritesOnlyUsedPoints() throws IOException, ClassNotFoundException {
+        ArrayTabulatedFunctionRemovable function = new ArrayTabulatedFunctionRemovable(new SqrFunction(), 0, 9, 10);
+        int fullSize = serialize(function).length;
+        function.remove(0);
+        function.remove(8);
+
+        byte[] bytes = serialize(function);
+        assertEquals(fullSize - 2 * 2 * Double.BYTES, bytes.length);
+        ArrayTabulatedFunctionRemovable read = (ArrayTabulatedFunctionRemovable) deserialize(bytes);
+        assertEquals(8, read.getCount());
+        assertEquals(function.toString(), read.toString());
+        read.remove(0);
+        assertEquals(2.0, read.leftBound(), 0.0);
+    }
+}
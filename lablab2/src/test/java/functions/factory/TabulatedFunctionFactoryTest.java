@@ -1,6 +1,7 @@
 package functions.factory;
 
 import functions.ArrayTabulatedFunction;
+import functions.GrowableArrayTabulatedFunction;
 import functions.LinkedListTabulatedFunction;
 import functions.TabulatedFunction;
 import org.junit.jupiter.api.Test;
@@ -131,6 +132,23 @@ class TabulatedFunctionFactoryTest {
                 "LinkedListTabulatedFunctionFactory не должна создавать ArrayTabulatedFunction");
     }
 
+    @Test
+    void testGrowableArrayFactoryCreatesCorrectType() {
+        // Arrange
+        TabulatedFunctionFactory growableFactory = new GrowableArrayTabulatedFunctionFactory();
+        double[] xValues = {0.0, 1.0, 2.0};
+        double[] yValues = {0.0, 1.0, 4.0};
+
+        // Act
+        TabulatedFunction function = growableFactory.create(xValues, yValues);
+
+        // Assert
+        assertTrue(function instanceof GrowableArrayTabulatedFunction,
+                "GrowableArrayTabulatedFunctionFactory должна создавать GrowableArrayTabulatedFunction");
+        assertEquals(3, function.getCount());
+        assertEquals(2.5, function.apply(1.5), 1e-10);
+    }
+
     @Test
     void testFactoryCreatedFunctionIsFunctional() {
         // Arrange
@@ -0,0 +1,126 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.LinkedListTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import functions.factory.LinkedListTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryTabulatedFunctionCodecTest {
+
+    @TempDir
+    Path directory;
+
+    private static void assertSamePoints(TabulatedFunction expected, TabulatedFunction actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        for (int i = 0; i < expected.getCount(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i), 0.0);
+            assertEquals(expected.getY(i), actual.getY(i), 0.0);
+        }
+    }
+
+    private static byte[] encode(TabulatedFunction function) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryTabulatedFunctionCodec.write(Channels.newChannel(bytes), function);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testLayout() throws IOException {
+        byte[] bytes = encode(new ArrayTabulatedFunction(new double[]{1.0, 2.0}, new double[]{10.0, 20.0}));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        assertEquals(BinaryTabulatedFunctionCodec.HEADER_SIZE + 4 * Double.BYTES + Integer.BYTES, bytes.length);
+        assertEquals(BinaryTabulatedFunctionCodec.MAGIC, buffer.getInt());
+        assertEquals(2, buffer.getShort());
+        assertEquals(0, buffer.getShort());
+        assertEquals(2, buffer.getInt());
+        assertEquals(1.0, buffer.getDouble(), 0.0);
+        assertEquals(2.0, buffer.getDouble(), 0.0);
+        assertEquals(10.0, buffer.getDouble(), 0.0);
+        assertEquals(20.0, buffer.getDouble(), 0.0);
+    }
+
+    @Test
+    public void testRoundTripAcrossBlocks() throws IOException {
+        // Больше одного блока, чтобы проверить стыки
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), -3.0, 7.0, 20_001);
+        Path file = directory.resolve("function.tbf");
+        BinaryTabulatedFunctionCodec.write(file, function);
+
+        assertSamePoints(function, BinaryTabulatedFunctionCodec.read(file, new ArrayTabulatedFunctionFactory()));
+        TabulatedFunction linked = BinaryTabulatedFunctionCodec.read(file, new LinkedListTabulatedFunctionFactory());
+        assertTrue(linked instanceof LinkedListTabulatedFunction);
+    }
+
+    @Test
+    public void testReadsVersion1AndBothVersionsThroughStream() throws IOException {
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 9000);
+        ByteArrayOutputStream version1 = new ByteArrayOutputStream();
+        try (BufferedOutputStream out = new BufferedOutputStream(version1)) {
+            FunctionsIO.writeTabulatedFunction(out, function);
+        }
+        Path file = directory.resolve("v1.bin");
+        Files.write(file, version1.toByteArray());
+
+        assertSamePoints(function, BinaryTabulatedFunctionCodec.read(file, new ArrayTabulatedFunctionFactory()));
+        assertSamePoints(function, FunctionsIO.readTabulatedFunction(
+                new BufferedInputStream(new ByteArrayInputStream(version1.toByteArray())), new ArrayTabulatedFunctionFactory()));
+        assertSamePoints(function, FunctionsIO.readTabulatedFunction(
+                new BufferedInputStream(new ByteArrayInputStream(encode(function))), new ArrayTabulatedFunctionFactory()));
+    }
+
+    @Test
+    public void testStreamIsLeftAtEndOfFunction() throws IOException {
+        TabulatedFunction function = new ArrayTabulatedFunction(new double[]{1.0, 2.0}, new double[]{3.0, 4.0});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(encode(function));
+        bytes.write(42);
+
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        FunctionsIO.readTabulatedFunction(in, new ArrayTabulatedFunctionFactory());
+        assertEquals(42, in.read());
+    }
+
+    @Test
+    public void testDetectsCorruption() throws IOException {
+        byte[] bytes = encode(new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 10));
+        bytes[BinaryTabulatedFunctionCodec.HEADER_SIZE + 3] ^= 1;
+
+        IOException e = assertThrows(IOException.class, () -> BinaryTabulatedFunctionCodec.read(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), new ArrayTabulatedFunctionFactory()));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    public void testRejectsTruncatedAndUnknownData() throws IOException {
+        byte[] bytes = encode(new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 10));
+        byte[] truncated = java.util.Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(EOFException.class, () -> BinaryTabulatedFunctionCodec.read(
+                Channels.newChannel(new ByteArrayInputStream(truncated)), new ArrayTabulatedFunctionFactory()));
+
+        bytes[5] = 3;
+        assertThrows(IOException.class, () -> BinaryTabulatedFunctionCodec.read(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), new ArrayTabulatedFunctionFactory()));
+
+        byte[] garbage = {(byte) 0xFF, 0, 0, 0};
+        assertThrows(IOException.class, () -> BinaryTabulatedFunctionCodec.read(
+                Channels.newChannel(new ByteArrayInputStream(garbage)), new ArrayTabulatedFunctionFactory()));
+    }
+}
@@ -0,0 +1,134 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.ConstantFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import functions.factory.TabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkFunctionIOTest {
+
+    @TempDir
+    Path directory;
+
+    private static Map<String, TabulatedFunction> functions(int count) {
+        Map<String, TabulatedFunction> functions = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            functions.put("f" + i, new ArrayTabulatedFunction(new ConstantFunction(i), 0.0, 1.0, 100 + i));
+        }
+        return functions;
+    }
+
+    @Test
+    public void testSaveAndLoadEveryFormat() throws IOException, InterruptedException {
+        BulkFunctionIO io = new BulkFunctionIO();
+        Map<String, TabulatedFunction> functions = functions(60);
+        for (BulkFunctionIO.Format format : BulkFunctionIO.Format.values()) {
+            Path target = directory.resolve(format.name());
+            BulkFunctionIO.Result<Path> saved = io.saveAll(target, functions, format);
+            assertTrue(saved.isSuccessful());
+            assertEquals(target.resolve("f7" + format.getExtension()), saved.getValues().get("f7"));
+
+            BulkFunctionIO.Result<TabulatedFunction> loaded = io.loadDirectory(target, new ArrayTabulatedFunctionFactory());
+            assertTrue(loaded.isSuccessful(), loaded.getErrors().toString());
+            assertEquals(functions, loaded.getValues());
+        }
+    }
+
+    @Test
+    public void testErrorsDoNotStopTheBatch() throws IOException, InterruptedException {
+        BulkFunctionIO io = new BulkFunctionIO();
+        io.saveAll(directory, functions(10), BulkFunctionIO.Format.TEXT);
+        Files.writeString(directory.resolve("broken.txt"), "3\n1 2\nnot a number\n");
+        Files.writeString(directory.resolve("f3.tbf"), "duplicate name");
+        Path missing = directory.resolve("missing.txt");
+
+        BulkFunctionIO.Result<TabulatedFunction> loaded = io.loadAll(
+                List.of(directory.resolve("f1.txt"), directory.resolve("broken.txt"), missing,
+                        directory.resolve("f3.txt"), directory.resolve("f3.tbf")),
+                new ArrayTabulatedFunctionFactory());
+        assertEquals(List.of("f1", "f3"), List.copyOf(loaded.getValues().keySet()));
+        assertEquals(3, loaded.getErrors().size());
+        assertInstanceOf(IOException.class, loaded.getErrors().get(directory.resolve("broken.txt")));
+        assertInstanceOf(IOException.class, loaded.getErrors().get(missing));
+        assertTrue(loaded.getErrors().containsKey(directory.resolve("f3.tbf")));
+        assertFalse(loaded.isSuccessful());
+    }
+
+    @Test
+    public void testInFlightBytesAreBounded() throws IOException, InterruptedException {
+        Map<String, TabulatedFunction> functions = new TreeMap<>();
+        for (int i = 0; i < 20; i++) {
+            functions.put("f" + i, new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 1000));
+        }
+        // Каждый файл около 16 КиБ, лимит пропускает только один за раз
+        BulkFunctionIO io = new BulkFunctionIO(20_000);
+        io.saveAll(directory, functions, BulkFunctionIO.Format.BINARY);
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        TabulatedFunctionFactory factory = (xValues, yValues) -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            return new ArrayTabulatedFunction(xValues, yValues);
+        };
+        BulkFunctionIO.Result<TabulatedFunction> loaded = io.loadDirectory(directory, factory);
+        assertTrue(loaded.isSuccessful());
+        assertEquals(20, loaded.getValues().size());
+        assertEquals(1, maxActive.get());
+
+        assertThrows(IllegalArgumentException.class, () -> new BulkFunctionIO(0));
+    }
+
+    @Test
+    public void testSerializedObjectFilesAreReportedAsUnsupported() throws IOException, InterruptedException {
+        BulkFunctionIO io = new BulkFunctionIO();
+        io.saveAll(directory, functions(2), BulkFunctionIO.Format.BINARY);
+        Path serialized = directory.resolve("serialized.bin");
+        try (OutputStream out = Files.newOutputStream(serialized)) {
+            FunctionsIO.serialize(new BufferedOutputStream(out), new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 10));
+        }
+
+        BulkFunctionIO.Result<TabulatedFunction> loaded = io.loadDirectory(directory, new ArrayTabulatedFunctionFactory());
+        assertEquals(List.of("f0", "f1"), List.copyOf(loaded.getValues().keySet()));
+        Exception error = loaded.getErrors().get(serialized);
+        assertInstanceOf(IOException.class, error);
+        assertTrue(error.getMessage().startsWith("Serialized Java object"), error.getMessage());
+    }
+
+    @Test
+    public void testDecodedSizeIsReadFromHeader() throws IOException {
+        TabulatedFunction function = new ArrayTabulatedFunction(new ConstantFunction(1.0), 0.0, 1.0, 100_000);
+        long decoded = 100_000L * 2 * Double.BYTES;
+        for (BulkFunctionIO.Format format : BulkFunctionIO.Format.values()) {
+            byte[] bytes = BulkFunctionIO.encode(function, format);
+            byte[] header = Arrays.copyOf(bytes, BulkFunctionIO.HEADER_PROBE_BYTES);
+            assertEquals(decoded, format.decodedBytes(header), format.name());
+        }
+        // Сжатый файл во много раз меньше массивов, в которые раскрывается
+        assertTrue(BulkFunctionIO.encode(function, BulkFunctionIO.Format.COMPRESSED).length < decoded / 10);
+        assertEquals(0, BulkFunctionIO.Format.TEXT.decodedBytes("not a number".getBytes()));
+        assertEquals(0, BulkFunctionIO.Format.COMPRESSED.decodedBytes(new byte[4]));
+    }
+}
@@ -0,0 +1,119 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.ConstantFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GorillaTabulatedFunctionCodecTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] encode(TabulatedFunction function, int blockPoints) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GorillaTabulatedFunctionCodec.write(Channels.newChannel(bytes), function, blockPoints);
+        return bytes.toByteArray();
+    }
+
+    private static TabulatedFunction decode(byte[] bytes) throws IOException {
+        return GorillaTabulatedFunctionCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                new ArrayTabulatedFunctionFactory());
+    }
+
+    private static void assertBitExact(TabulatedFunction expected, TabulatedFunction actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        for (int i = 0; i < expected.getCount(); i++) {
+            assertEquals(Double.doubleToRawLongBits(expected.getX(i)), Double.doubleToRawLongBits(actual.getX(i)));
+            assertEquals(Double.doubleToRawLongBits(expected.getY(i)), Double.doubleToRawLongBits(actual.getY(i)));
+        }
+    }
+
+    @Test
+    public void testLosslessOnSmoothAndIrregularData() throws IOException {
+        assertBitExact(new ArrayTabulatedFunction(new SqrFunction(), -50.0, 50.0, 10_001),
+                decode(encode(new ArrayTabulatedFunction(new SqrFunction(), -50.0, 50.0, 10_001), 1000)));
+
+        Random random = new Random(3);
+        double[] xValues = new double[5000];
+        double[] yValues = new double[5000];
+        double x = -1e6;
+        for (int i = 0; i < xValues.length; i++) {
+            x += random.nextDouble() * (i % 100 == 0 ? 1e5 : 1e-3) + Math.ulp(x);
+            xValues[i] = x;
+            yValues[i] = i % 7 == 0 ? Double.NaN : random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+        }
+        yValues[10] = Double.POSITIVE_INFINITY;
+        yValues[11] = -0.0;
+        TabulatedFunction irregular = new ArrayTabulatedFunction(xValues, yValues);
+        assertBitExact(irregular, decode(encode(irregular, 333)));
+    }
+
+    @Test
+    public void testCompressesUniformGrids() throws IOException {
+        TabulatedFunction constant = new ArrayTabulatedFunction(new ConstantFunction(2.5), 0.0, 100.0, 100_000);
+        assertTrue(encode(constant, 4096).length < 100_000 * 2, "constant function should take under 2 bytes per point");
+
+        TabulatedFunction square = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 100.0, 100_000);
+        assertTrue(encode(square, 4096).length < 100_000 * 16 * 3 / 4);
+    }
+
+    @Test
+    public void testDecodingStartsAtAnyBlock() throws IOException {
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 10.0, 1050);
+        Path file = directory.resolve("function.tbg");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            GorillaTabulatedFunctionCodec.write(channel, function, 100);
+        }
+
+        List<Double> xs = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            GorillaTabulatedFunctionCodec.forEachPoint(channel, 7, (x, y) -> xs.add(x));
+        }
+        assertEquals(350, xs.size());
+        assertEquals(function.getX(700), xs.get(0), 0.0);
+
+        byte[] bytes = encode(function, 100);
+        List<Double> ys = new ArrayList<>();
+        GorillaTabulatedFunctionCodec.forEachPoint(Channels.newChannel(new ByteArrayInputStream(bytes)), 10,
+                (x, y) -> ys.add(y));
+        assertEquals(50, ys.size());
+        assertEquals(function.getY(1000), ys.get(0), 0.0);
+
+        assertThrows(IOException.class, () -> GorillaTabulatedFunctionCodec.forEachPoint(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), 12, (x, y) -> { }));
+    }
+
+    @Test
+    public void testFileRoundTripAndCorruption() throws IOException {
+        TabulatedFunction function = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 500);
+        Path file = directory.resolve("function.tbg");
+        GorillaTabulatedFunctionCodec.write(file, function);
+        assertBitExact(function, GorillaTabulatedFunctionCodec.read(file, new ArrayTabulatedFunctionFactory()));
+
+        byte[] bytes = encode(function, 100);
+        bytes[bytes.length - 5] ^= 0x10;
+        IOException e = assertThrows(IOException.class, () -> decode(bytes));
+        assertTrue(e.getMessage().contains("checksum"));
+
+        byte[] truncated = Arrays.copyOf(encode(function, 100), 200);
+        assertThrows(IOException.class, () -> decode(truncated));
+    }
+}
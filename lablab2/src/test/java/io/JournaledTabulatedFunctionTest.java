@@ -0,0 +1,315 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.Insertable;
+import functions.Removable;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import functions.factory.LinkedListTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournaledTabulatedFunctionTest {
+
+    @TempDir
+    Path directory;
+
+    private final ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+
+    private static ArrayTabulatedFunction initial() {
+        return new ArrayTabulatedFunction(new SqrFunction(), 0.0, 10.0, 11);
+    }
+
+    // Одни и те же изменения для журнала и для функции-образца
+    private static void mutate(TabulatedFunction function, ArrayTabulatedFunction expected) {
+        function.setY(3, -1.5);
+        expected.setY(3, -1.5);
+        ((Insertable) function).insert(2.5, 6.25);
+        expected.insert(2.5, 6.25);
+        ((Insertable) function).insert(20.0, 400.0);
+        expected.insert(20.0, 400.0);
+        ((Removable) function).remove(0);
+        expected.remove(0);
+    }
+
+    private static void assertSamePoints(TabulatedFunction expected, TabulatedFunction actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        for (int i = 0; i < expected.getCount(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+        }
+    }
+
+    @Test
+    public void testChangesAreReplayedOnOpen() throws IOException {
+        ArrayTabulatedFunction expected = initial();
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(), factory)) {
+            mutate(function, expected);
+            assertSamePoints(expected, function);
+            assertEquals(JournaledTabulatedFunction.HEADER_SIZE + 17 + 2 * 21 + 9, function.getJournalBytes());
+        }
+        assertTrue(Files.exists(JournaledTabulatedFunction.snapshotPath(directory, "f", 0)));
+
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertEquals(0, reopened.getGeneration());
+            assertSamePoints(expected, reopened);
+            reopened.setY(0, 42.0);
+            expected.setY(0, 42.0);
+        }
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertSamePoints(expected, reopened);
+        }
+    }
+
+    @Test
+    public void testTornLastRecordIsDiscarded() throws IOException {
+        ArrayTabulatedFunction expected = initial();
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(), factory)) {
+            function.setY(1, 5.0);
+            expected.setY(1, 5.0);
+            function.insert(3.5, 1.0);
+        }
+        Path journal = JournaledTabulatedFunction.journalPath(directory, "f", 0);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertSamePoints(expected, reopened);
+            reopened.setY(2, 7.0);
+            expected.setY(2, 7.0);
+        }
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertSamePoints(expected, reopened);
+        }
+    }
+
+    // Канал, который записывает часть данных и бросает IOException, как при переполнении диска
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        public int write(ByteBuffer src) throws IOException {
+            ByteBuffer part = src.slice(src.position(), Math.min(5, src.remaining()));
+            src.position(src.position() + delegate.write(part));
+            throw new IOException("No space left on device");
+        }
+
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new IOException("No space left on device");
+        }
+
+        public int write(ByteBuffer src, long position) throws IOException {
+            throw new IOException("No space left on device");
+        }
+
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            throw new IOException("No space left on device");
+        }
+
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    @Test
+    public void testFailedJournalWriteLeavesFunctionUnchanged() throws IOException {
+        ArrayTabulatedFunction expected = initial();
+        Path journal = JournaledTabulatedFunction.journalPath(directory, "f", 0);
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(), factory)) {
+            function.setY(1, 5.0);
+            expected.setY(1, 5.0);
+            long before = function.getJournalBytes();
+
+            FailingChannel failing = new FailingChannel(FileChannel.open(journal, StandardOpenOption.WRITE));
+            failing.position(before);
+            FileChannel original = function.setJournalChannel(failing);
+            assertThrows(UncheckedIOException.class, () -> function.setY(2, 9.0));
+            assertThrows(UncheckedIOException.class, () -> function.insert(4.5, 1.0));
+            assertThrows(UncheckedIOException.class, () -> function.remove(0));
+            assertSamePoints(expected, function);
+            assertEquals(before, function.getJournalBytes());
+            assertEquals(before, Files.size(journal));
+
+            function.setJournalChannel(original);
+            failing.close();
+            function.setY(3, 7.0);
+            expected.setY(3, 7.0);
+        }
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertSamePoints(expected, reopened);
+        }
+    }
+
+    @Test
+    public void testCorruptedRecordIsDiscarded() throws IOException {
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(), factory)) {
+            function.setY(1, 5.0);
+        }
+        Path journal = JournaledTabulatedFunction.journalPath(directory, "f", 0);
+        byte[] bytes = Files.readAllBytes(journal);
+        bytes[bytes.length - 6] ^= 1;
+        Files.write(journal, bytes);
+
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertSamePoints(initial(), reopened);
+            assertEquals(JournaledTabulatedFunction.HEADER_SIZE, reopened.getJournalBytes());
+        }
+    }
+
+    @Test
+    public void testCompactionFoldsJournalIntoSnapshot() throws IOException {
+        ArrayTabulatedFunction expected = initial();
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(), factory)) {
+            mutate(function, expected);
+            function.compact();
+            assertEquals(1, function.getGeneration());
+            assertEquals(JournaledTabulatedFunction.HEADER_SIZE, function.getJournalBytes());
+            function.setY(5, 0.5);
+            expected.setY(5, 0.5);
+        }
+        assertFalse(Files.exists(JournaledTabulatedFunction.snapshotPath(directory, "f", 0)));
+        assertFalse(Files.exists(JournaledTabulatedFunction.journalPath(directory, "f", 0)));
+        assertEquals(List.of(1L), JournaledTabulatedFunction.generations(directory, "f",
+                JournaledTabulatedFunction.SNAPSHOT_SUFFIX));
+
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertEquals(1, reopened.getGeneration());
+            assertSamePoints(expected, reopened);
+        }
+    }
+
+    @Test
+    public void testCrashBeforeNewSnapshotKeepsBothJournals() throws IOException {
+        ArrayTabulatedFunction expected = initial();
+        Path saved = Files.createDirectory(directory.resolve("saved"));
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(), factory)) {
+            mutate(function, expected);
+            function.sync();
+            Files.copy(JournaledTabulatedFunction.snapshotPath(directory, "f", 0), saved.resolve("f.0.tbf"));
+            Files.copy(JournaledTabulatedFunction.journalPath(directory, "f", 0), saved.resolve("f.0.journal"));
+            function.compact();
+            function.setY(2, -3.0);
+            expected.setY(2, -3.0);
+        }
+        // Снимок поколения 1 не успел появиться: остались файлы поколения 0 и новый журнал
+        Files.delete(JournaledTabulatedFunction.snapshotPath(directory, "f", 1));
+        Files.copy(saved.resolve("f.0.tbf"), JournaledTabulatedFunction.snapshotPath(directory, "f", 0),
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(saved.resolve("f.0.journal"), JournaledTabulatedFunction.journalPath(directory, "f", 0),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertEquals(1, reopened.getGeneration());
+            assertSamePoints(expected, reopened);
+        }
+    }
+
+    @Test
+    public void testAutomaticCompaction() throws IOException {
+        ArrayTabulatedFunction expected = initial();
+        try (JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(),
+                factory, 0)) {
+            for (int i = 0; i < 100; i++) {
+                function.setY(i % 11, i);
+                expected.setY(i % 11, i);
+            }
+            assertTrue(function.getGeneration() > 0);
+        }
+        try (JournaledTabulatedFunction reopened = JournaledTabulatedFunction.open(directory, "f", factory)) {
+            assertSamePoints(expected, reopened);
+        }
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        assertThrows(NoSuchFileException.class, () -> JournaledTabulatedFunction.open(directory, "f", factory));
+        assertThrows(IllegalArgumentException.class,
+                () -> JournaledTabulatedFunction.create(directory, "a/b", initial(), factory));
+
+        JournaledTabulatedFunction function = JournaledTabulatedFunction.create(directory, "f", initial(),
+                new LinkedListTabulatedFunctionFactory());
+        assertThrows(FileAlreadyExistsException.class,
+                () -> JournaledTabulatedFunction.create(directory, "f", initial(), factory));
+        // Неудачное изменение не попадает в журнал
+        assertThrows(UnsupportedOperationException.class, () -> function.remove(0));
+        assertThrows(IllegalArgumentException.class, () -> function.setY(100, 1.0));
+        assertEquals(JournaledTabulatedFunction.HEADER_SIZE, function.getJournalBytes());
+        function.insert(0.5, 0.25);
+        function.close();
+        assertThrows(IllegalStateException.class, () -> function.setY(0, 1.0));
+        assertEquals(12, function.getCount());
+    }
+}
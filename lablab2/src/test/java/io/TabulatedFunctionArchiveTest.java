@@ -0,0 +1,152 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.ConstantFunction;
+import functions.DoubleBiConsumer;
+import functions.LinkedListTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import functions.factory.LinkedListTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TabulatedFunctionArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private static Map<String, TabulatedFunction> functions(int from, int to) {
+        Map<String, TabulatedFunction> functions = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            functions.put("функция " + i, new ArrayTabulatedFunction(new ConstantFunction(i), 0.0, 1.0, 10 + i));
+        }
+        return functions;
+    }
+
+    @Test
+    public void testRandomAccessByName() throws IOException {
+        Path file = directory.resolve("functions.tba");
+        Map<String, TabulatedFunction> written = functions(0, 50);
+        TabulatedFunctionArchive.write(file, written);
+
+        try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(file)) {
+            assertEquals(50, archive.size());
+            assertEquals(List.copyOf(written.keySet()), List.copyOf(archive.names()));
+            assertTrue(archive.contains("функция 49"));
+            assertFalse(archive.contains("функция 50"));
+
+            TabulatedFunction last = archive.read("функция 49", new LinkedListTabulatedFunctionFactory());
+            assertInstanceOf(LinkedListTabulatedFunction.class, last);
+            assertEquals(written.get("функция 49"), new ArrayTabulatedFunction(
+                    toArray(last, true), toArray(last, false)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> archive.read("нет такой", new ArrayTabulatedFunctionFactory()));
+        }
+    }
+
+    private static double[] toArray(TabulatedFunction function, boolean x) {
+        double[] values = new double[function.getCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = x ? function.getX(i) : function.getY(i);
+        }
+        return values;
+    }
+
+    @Test
+    public void testAppendRewritesIndexAndReplacesNames() throws IOException {
+        Path file = directory.resolve("functions.tba");
+        TabulatedFunctionArchive.append(file, functions(0, 3));
+        TabulatedFunctionArchive.append(file, functions(3, 5));
+
+        Map<String, TabulatedFunction> replacement = new LinkedHashMap<>();
+        TabulatedFunction square = new ArrayTabulatedFunction(new SqrFunction(), -1.0, 1.0, 21);
+        replacement.put("функция 1", square);
+        TabulatedFunctionArchive.append(file, replacement);
+
+        try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(file)) {
+            assertEquals(List.of("функция 0", "функция 2", "функция 3", "функция 4", "функция 1"),
+                    List.copyOf(archive.names()));
+            assertEquals(square, archive.read("функция 1", new ArrayTabulatedFunctionFactory()));
+            assertEquals(4.0, archive.read("функция 4", new ArrayTabulatedFunctionFactory()).getY(0), 0.0);
+        }
+
+        TabulatedFunctionArchive.write(file, functions(7, 8));
+        try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(file)) {
+            assertEquals(List.of("функция 7"), List.copyOf(archive.names()));
+        }
+    }
+
+    @Test
+    public void testFailedWriteKeepsPreviousArchive() throws IOException {
+        Path file = directory.resolve("functions.tba");
+        TabulatedFunctionArchive.write(file, functions(0, 3));
+
+        Map<String, TabulatedFunction> broken = functions(3, 5);
+        broken.put("сломанная", new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, 5) {
+            @Override
+            public void forEachPoint(DoubleBiConsumer action) {
+                throw new IllegalStateException("сбой записи");
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> TabulatedFunctionArchive.write(file, broken));
+
+        try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(file)) {
+            assertEquals(List.copyOf(functions(0, 3).keySet()), List.copyOf(archive.names()));
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    public void testParallelBulkLoadMatchesSequential() throws IOException {
+        Path file = directory.resolve("functions.tba");
+        Map<String, TabulatedFunction> written = functions(0, 40);
+        TabulatedFunctionArchive.write(file, written);
+
+        try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(file)) {
+            Map<String, TabulatedFunction> sequential = archive.readAll(new ArrayTabulatedFunctionFactory(), 1);
+            Map<String, TabulatedFunction> parallel = archive.readAll(new ArrayTabulatedFunctionFactory(), 4);
+            assertEquals(written, sequential);
+            assertEquals(written, parallel);
+            assertEquals(List.copyOf(written.keySet()), List.copyOf(parallel.keySet()));
+            assertThrows(IllegalArgumentException.class, () -> archive.readAll(new ArrayTabulatedFunctionFactory(), 0));
+        }
+    }
+
+    @Test
+    public void testDetectsCorruption() throws IOException {
+        Path file = directory.resolve("functions.tba");
+        TabulatedFunctionArchive.write(file, functions(0, 3));
+
+        // Порча записи обнаруживается только при ее чтении
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(TabulatedFunctionArchive.HEADER_SIZE + 20);
+            raw.write(0x7F);
+        }
+        try (TabulatedFunctionArchive archive = TabulatedFunctionArchive.open(file)) {
+            assertThrows(IOException.class, () -> archive.read("функция 0", new ArrayTabulatedFunctionFactory()));
+            assertEquals(2.0, archive.read("функция 2", new ArrayTabulatedFunctionFactory()).getY(0), 0.0);
+            assertThrows(IOException.class, () -> archive.readAll(new ArrayTabulatedFunctionFactory(), 2));
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> TabulatedFunctionArchive.open(file));
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> TabulatedFunctionArchive.open(file));
+    }
+}
@@ -0,0 +1,145 @@
+package io;
+
+import functions.ArrayTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.ArrayTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TabulatedFunctionTextCodecTest {
+
+    private static String format(double value, char separator) {
+        char[] out = new char[DoubleFormatter.MAX_CHARS];
+        return new String(out, 0, DoubleFormatter.format(value, separator, out, 0));
+    }
+
+    private static double parse(String text) {
+        return DoubleParser.parse(text.toCharArray(), 0, text.length());
+    }
+
+    @Test
+    public void testFormatterMatchesDoubleToString() {
+        double[] special = {0.0, -0.0, 1.0, -1.5, 0.1, 100.0, 1e7, 9999999.0, 0.001, 0.00099, 1e-5,
+                Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE, 2e-323, 123456789012345680.0,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 5e-324, 1.0E23, 4.9e-324};
+        for (double value : special) {
+            assertEquals(Double.toString(value), format(value, '.'));
+        }
+
+        Random random = new Random(21);
+        for (int i = 0; i < 200_000; i++) {
+            double value = i % 2 == 0
+                    ? Double.longBitsToDouble(random.nextLong())
+                    : random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+            assertEquals(Double.toString(value), format(value, '.'));
+        }
+        assertEquals("-2,5", format(-2.5, ','));
+        assertEquals("1,25E-7", format(1.25e-7, ','));
+    }
+
+    @Test
+    public void testParserIsCorrectlyRounded() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            builder.setLength(0);
+            if (random.nextBoolean()) {
+                builder.append('-');
+            }
+            int digits = 1 + random.nextInt(i % 3 == 0 ? 25 : 17);
+            for (int d = 0; d < digits; d++) {
+                builder.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextBoolean()) {
+                builder.insert(builder.length() - random.nextInt(digits), '.');
+            }
+            if (random.nextInt(3) == 0) {
+                builder.append('e').append(random.nextInt(700) - 350);
+            }
+            String text = builder.toString();
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(text)),
+                    Double.doubleToRawLongBits(parse(text)), text);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong() >>> 2);
+            assertEquals(Double.doubleToRawLongBits(value),
+                    Double.doubleToRawLongBits(parse(Double.toString(value))));
+        }
+    }
+
+    @Test
+    public void testParserAcceptsBothSeparatorsAndRejectsGarbage() {
+        assertEquals(2.5, parse("2,5"), 0.0);
+        assertEquals(2.5, parse("2.5"), 0.0);
+        assertEquals(-0.0015, parse("-1,5E-3"), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, parse("-∞"), 0.0);
+        assertTrue(Double.isNaN(parse("NaN")));
+        assertEquals(0.5, parse(",5"), 0.0);
+
+        for (String text : new String[]{"", "-", "1,2,3", "1.2,3", "abc", "1e", "1e+", "1x", "."}) {
+            assertThrows(NumberFormatException.class, () -> parse(text), text);
+        }
+    }
+
+    @Test
+    public void testRoundTripIsExactWithBothSeparators() throws IOException {
+        Random random = new Random(7);
+        double[] xValues = new double[20_000];
+        double[] yValues = new double[20_000];
+        double x = -1e5;
+        for (int i = 0; i < xValues.length; i++) {
+            x += random.nextDouble() * 10 + Math.ulp(x);
+            xValues[i] = x;
+            yValues[i] = random.nextGaussian() * Math.pow(10, random.nextInt(30) - 15);
+        }
+        TabulatedFunction function = new ArrayTabulatedFunction(xValues, yValues);
+
+        for (char separator : new char[]{',', '.'}) {
+            StringWriter text = new StringWriter();
+            TabulatedFunctionTextCodec.write(text, function, separator);
+            TabulatedFunction read = TabulatedFunctionTextCodec.read(new StringReader(text.toString()),
+                    new ArrayTabulatedFunctionFactory());
+            assertEquals(function, read);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> TabulatedFunctionTextCodec.write(new StringWriter(), function, ';'));
+    }
+
+    @Test
+    public void testReadsPrintfFilesAndLeavesReaderAfterFunction() throws IOException {
+        String text = "3\r\n0,000000 1,000000\r\n0.500000\t 0,250000  \r\n1,000000 -1,000000E+00\nnext line\n";
+        BufferedReader reader = new BufferedReader(new StringReader(text), 16);
+        TabulatedFunction function = FunctionsIO.readTabulatedFunction(reader, new ArrayTabulatedFunctionFactory());
+        assertEquals(3, function.getCount());
+        assertEquals(0.25, function.getY(1), 0.0);
+        assertEquals(-1.0, function.getY(2), 0.0);
+        assertEquals("next line", reader.readLine());
+
+        StringWriter written = new StringWriter();
+        FunctionsIO.writeTabulatedFunction(new BufferedWriter(written),
+                new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.5, 4));
+        assertEquals("4\n0,0 0,0\n0,5 0,25\n1,0 1,0\n1,5 2,25\n", written.toString());
+    }
+
+    @Test
+    public void testReportsMalformedInput() {
+        ArrayTabulatedFunctionFactory factory = new ArrayTabulatedFunctionFactory();
+        assertThrows(IOException.class, () -> TabulatedFunctionTextCodec.read(new StringReader(""), factory));
+        assertThrows(IOException.class, () -> TabulatedFunctionTextCodec.read(new StringReader("x\n"), factory));
+        IOException e = assertThrows(IOException.class,
+                () -> TabulatedFunctionTextCodec.read(new StringReader("3\n1 2\n2 3\n"), factory));
+        assertTrue(e.getMessage().contains("получено только 2"));
+        assertThrows(IOException.class, () -> TabulatedFunctionTextCodec.read(new StringReader("1\n1,0\n"), factory));
+        assertThrows(IOException.class, () -> TabulatedFunctionTextCodec.read(new StringReader("1\n1;0 2\n"), factory));
+    }
+}
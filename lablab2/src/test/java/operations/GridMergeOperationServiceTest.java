@@ -0,0 +1,94 @@
+package operations;
+
+import exceptions.InconsistentFunctionsException;
+import functions.ArrayTabulatedFunction;
+import functions.LinkedListTabulatedFunction;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.LinkedListTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridMergeOperationServiceTest {
+
+    private static TabulatedFunctionOperationService service(GridMergeMode mode) {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+        service.setMergeMode(mode);
+        return service;
+    }
+
+    @Test
+    public void testStrictModeIsDefault() {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+        assertEquals(GridMergeMode.STRICT, service.getMergeMode());
+
+        TabulatedFunction a = new ArrayTabulatedFunction(new double[]{0.0, 1.0}, new double[]{0.0, 1.0});
+        TabulatedFunction b = new ArrayTabulatedFunction(new double[]{0.0, 2.0}, new double[]{0.0, 1.0});
+        assertThrows(InconsistentFunctionsException.class, () -> service.add(a, b));
+        assertThrows(NullPointerException.class, () -> service.setMergeMode(null));
+    }
+
+    @Test
+    public void testUnionGrid() {
+        TabulatedFunction a = new ArrayTabulatedFunction(new double[]{0.0, 2.0, 4.0}, new double[]{0.0, 2.0, 4.0});
+        TabulatedFunction b = new ArrayTabulatedFunction(new double[]{1.0, 2.0, 3.0, 5.0}, new double[]{10.0, 20.0, 30.0, 50.0});
+
+        TabulatedFunction sum = service(GridMergeMode.UNION).add(a, b);
+
+        double[] expectedX = {0.0, 1.0, 2.0, 3.0, 4.0, 5.0};
+        assertEquals(expectedX.length, sum.getCount());
+        for (int i = 0; i < expectedX.length; i++) {
+            double x = expectedX[i];
+            assertEquals(x, sum.getX(i), 0.0);
+            assertEquals(a.apply(x) + b.apply(x), sum.getY(i), 1e-12, "x = " + x);
+        }
+    }
+
+    @Test
+    public void testLeftAndRightGrids() {
+        TabulatedFunction a = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 3.0, 7);
+        TabulatedFunction b = new LinkedListTabulatedFunction(new double[]{-1.0, 0.7, 2.2, 4.0}, new double[]{1.0, -1.0, 2.0, 0.0});
+
+        TabulatedFunction left = service(GridMergeMode.LEFT).multiply(a, b);
+        assertEquals(a.getCount(), left.getCount());
+        for (int i = 0; i < a.getCount(); i++) {
+            assertEquals(a.getX(i), left.getX(i), 0.0);
+            assertEquals(a.getY(i) * b.apply(a.getX(i)), left.getY(i), 1e-12);
+        }
+
+        TabulatedFunction right = service(GridMergeMode.RIGHT).subtract(a, b);
+        assertEquals(b.getCount(), right.getCount());
+        for (int i = 0; i < b.getCount(); i++) {
+            assertEquals(b.getX(i), right.getX(i), 0.0);
+            assertEquals(a.apply(b.getX(i)) - b.getY(i), right.getY(i), 1e-12);
+        }
+    }
+
+    @Test
+    public void testMergeMatchesApplyOnLargeGrids() {
+        TabulatedFunction a = new ArrayTabulatedFunction(Math::sin, 0.0, 10.0, 10_000);
+        TabulatedFunction b = new ArrayTabulatedFunction(Math::cos, -1.0, 11.0, 7_001);
+
+        TabulatedFunction sum = service(GridMergeMode.UNION).add(a, b);
+        assertEquals(-1.0, sum.leftBound(), 0.0);
+        assertEquals(11.0, sum.rightBound(), 0.0);
+        for (int i = 0; i < sum.getCount(); i += 97) {
+            double x = sum.getX(i);
+            assertEquals(a.apply(x) + b.apply(x), sum.getY(i), 1e-9);
+        }
+    }
+
+    @Test
+    public void testMergeUsesFactoryAndDivisionChecks() {
+        TabulatedFunctionOperationService service = service(GridMergeMode.UNION);
+        service.setFactory(new LinkedListTabulatedFunctionFactory());
+
+        TabulatedFunction a = new ArrayTabulatedFunction(new double[]{0.0, 1.0}, new double[]{1.0, 1.0});
+        TabulatedFunction b = new ArrayTabulatedFunction(new double[]{0.0, 0.5, 1.0}, new double[]{1.0, 2.0, 4.0});
+        assertTrue(service.divide(a, b) instanceof LinkedListTabulatedFunction);
+
+        TabulatedFunction zero = new ArrayTabulatedFunction(new double[]{-1.0, 1.0}, new double[]{-1.0, 1.0});
+        assertThrows(ArithmeticException.class, () -> service.divide(b, zero));
+    }
+}
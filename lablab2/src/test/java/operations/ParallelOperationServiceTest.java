@@ -0,0 +1,114 @@
+package operations;
+
+import exceptions.InconsistentFunctionsException;
+import functions.ArrayTabulatedFunction;
+import functions.LinkedListTabulatedFunctionX;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.UnitFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelOperationServiceTest {
+
+    private static final int COUNT = 100_000;
+
+    private ForkJoinPool pool;
+    private TabulatedFunctionOperationService sequential;
+    private TabulatedFunctionOperationService parallel;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        sequential = new TabulatedFunctionOperationService();
+        parallel = new TabulatedFunctionOperationService();
+        parallel.setPool(pool);
+        parallel.setParallelThreshold(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static double[] grid(int count) {
+        double[] xValues = new double[count];
+        for (int i = 0; i < count; i++) {
+            xValues[i] = i * 0.001;
+        }
+        return xValues;
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        TabulatedFunction a = new ArrayTabulatedFunction(new SqrFunction(), -3.0, 5.0, COUNT);
+        TabulatedFunction b = new ArrayTabulatedFunction(x -> Math.cos(x) + 2.0, -3.0, 5.0, COUNT);
+
+        assertEquals(sequential.add(a, b), parallel.add(a, b));
+        assertEquals(sequential.subtract(a, b), parallel.subtract(a, b));
+        assertEquals(sequential.multiply(a, b), parallel.multiply(a, b));
+        assertEquals(sequential.divide(a, b), parallel.divide(a, b));
+    }
+
+    @Test
+    public void testParallelWithoutRandomAccess() {
+        TabulatedFunction a = new LinkedListTabulatedFunctionX(new SqrFunction(), 0.0, 1.0, 5000);
+        TabulatedFunction b = new ArrayTabulatedFunction(new UnitFunction(), 0.0, 1.0, 5000);
+
+        assertEquals(sequential.add(a, b), parallel.add(a, b));
+    }
+
+    @Test
+    public void testLowestMismatchIndexWins() {
+        double[] xValues = grid(COUNT);
+        double[] shifted = xValues.clone();
+        shifted[70_000] += 1e-6;
+        shifted[30_000] += 1e-6;
+        shifted[90_000] += 1e-6;
+
+        TabulatedFunction a = new ArrayTabulatedFunction(xValues, new double[COUNT]);
+        TabulatedFunction b = new ArrayTabulatedFunction(shifted, new double[COUNT]);
+
+        InconsistentFunctionsException expected = assertThrows(InconsistentFunctionsException.class,
+                () -> sequential.add(a, b));
+        InconsistentFunctionsException actual = assertThrows(InconsistentFunctionsException.class,
+                () -> parallel.add(a, b));
+        assertEquals("X values differ at index 30000", expected.getMessage());
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    public void testDivisionByZeroMatchesSequential() {
+        double[] xValues = grid(COUNT);
+        double[] ones = new double[COUNT];
+        java.util.Arrays.fill(ones, 1.0);
+        double[] denominators = ones.clone();
+        denominators[80_000] = 0.0;
+
+        double[] shifted = xValues.clone();
+        shifted[95_000] += 1e-6;
+
+        TabulatedFunction a = new ArrayTabulatedFunction(xValues, ones);
+        TabulatedFunction b = new ArrayTabulatedFunction(shifted, denominators);
+
+        ArithmeticException expected = assertThrows(ArithmeticException.class, () -> sequential.divide(a, b));
+        ArithmeticException actual = assertThrows(ArithmeticException.class, () -> parallel.divide(a, b));
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    @Test
+    public void testBelowThresholdAndCountMismatch() {
+        parallel.setParallelThreshold(COUNT + 1);
+        TabulatedFunction a = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, COUNT);
+        TabulatedFunction b = new ArrayTabulatedFunction(new SqrFunction(), 0.0, 1.0, COUNT - 1);
+
+        assertEquals(sequential.multiply(a, a), parallel.multiply(a, a));
+        assertThrows(InconsistentFunctionsException.class, () -> parallel.add(a, b));
+        assertThrows(IllegalArgumentException.class, () -> parallel.setParallelThreshold(0));
+    }
+}
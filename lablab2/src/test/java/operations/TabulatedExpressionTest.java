@@ -0,0 +1,108 @@
+package operations;
+
+import exceptions.InconsistentFunctionsException;
+import functions.ArrayTabulatedFunction;
+import functions.LinkedListTabulatedFunctionX;
+import functions.SqrFunction;
+import functions.TabulatedFunction;
+import functions.factory.LinkedListTabulatedFunctionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TabulatedExpressionTest {
+
+    private static final int COUNT = 10_000;
+
+    private final TabulatedFunction a = new ArrayTabulatedFunction(new SqrFunction(), 1.0, 5.0, COUNT);
+    private final TabulatedFunction b = new ArrayTabulatedFunction(Math::sin, 1.0, 5.0, COUNT);
+    private final TabulatedFunction c = new ArrayTabulatedFunction(x -> x + 1.0, 1.0, 5.0, COUNT);
+    private final TabulatedFunction d = new ArrayTabulatedFunction(Math::exp, 1.0, 5.0, COUNT);
+
+    @Test
+    public void testFusedMatchesStepwise() {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+
+        TabulatedFunction expected = service.divide(service.add(a, b), service.multiply(c, d));
+        TabulatedFunction actual = service.evaluate(TabulatedExpression.of(a).add(b)
+                .divide(TabulatedExpression.of(c).multiply(d)));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDeepLeftAndRightTrees() {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+
+        TabulatedFunction expected = service.subtract(a,
+                service.multiply(b, service.add(c, service.subtract(d, a))));
+        TabulatedFunction actual = service.evaluate(TabulatedExpression.of(a).subtract(
+                TabulatedExpression.of(b).multiply(TabulatedExpression.of(c).add(TabulatedExpression.of(d).subtract(a)))));
+        assertEquals(expected, actual);
+
+        TabulatedFunction chain = service.evaluate(TabulatedExpression.of(a).add(b).subtract(c).multiply(d).add(a));
+        assertEquals(service.add(service.multiply(service.subtract(service.add(a, b), c), d), a), chain);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+        TabulatedExpression expression = TabulatedExpression.of(a).multiply(b).add(TabulatedExpression.of(c).divide(d));
+        TabulatedFunction expected = service.evaluate(expression);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            service.setPool(pool);
+            service.setParallelThreshold(1000);
+            assertEquals(expected, service.evaluate(expression));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testUsesFactoryAndNonRandomAccessOperands() {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService(new LinkedListTabulatedFunctionFactory());
+        TabulatedFunction list = new LinkedListTabulatedFunctionX(new SqrFunction(), 1.0, 5.0, COUNT);
+
+        TabulatedFunction result = service.evaluate(TabulatedExpression.of(list).add(a));
+        assertTrue(result instanceof functions.LinkedListTabulatedFunction);
+        assertEquals(2 * a.getY(123), result.getY(123), 1e-12);
+    }
+
+    @Test
+    public void testErrorsReportLowestIndex() {
+        TabulatedFunctionOperationService service = new TabulatedFunctionOperationService();
+        double[] xValues = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            xValues[i] = a.getX(i);
+        }
+
+        double[] zeros = new double[COUNT];
+        Arrays.fill(zeros, 1.0);
+        zeros[3000] = 0.0;
+        TabulatedFunction withZero = new ArrayTabulatedFunction(xValues, zeros);
+
+        double[] shifted = xValues.clone();
+        shifted[3001] += 1e-9;
+        TabulatedFunction misaligned = new ArrayTabulatedFunction(shifted, zeros.clone());
+
+        // Деление в точке 3000 идет раньше несовпадения x в точке 3001, хотя в дереве оно последнее
+        ArithmeticException division = assertThrows(ArithmeticException.class,
+                () -> service.evaluate(TabulatedExpression.of(a).divide(withZero).add(misaligned)));
+        assertEquals("Division by zero at point with y = 0.0", division.getMessage());
+
+        shifted[2000] += 1e-9;
+        TabulatedFunction misalignedEarlier = new ArrayTabulatedFunction(shifted, zeros.clone());
+        InconsistentFunctionsException mismatch = assertThrows(InconsistentFunctionsException.class,
+                () -> service.evaluate(TabulatedExpression.of(a).divide(withZero).add(misalignedEarlier)));
+        assertEquals("X values differ at index 2000", mismatch.getMessage());
+
+        TabulatedFunction shorter = new ArrayTabulatedFunction(new SqrFunction(), 1.0, 5.0, COUNT - 1);
+        assertThrows(InconsistentFunctionsException.class, () -> service.evaluate(TabulatedExpression.of(a).add(shorter)));
+        assertThrows(NullPointerException.class, () -> TabulatedExpression.of(null));
+    }
+}